@@ -6,6 +6,7 @@ import android.support.annotation.NonNull;
 import com.mapbox.geojson.Geometry;
 import com.mapbox.mapboxsdk.offline.OfflineGeometryRegionDefinition;
 import com.mapbox.mapboxsdk.offline.OfflineManager;
+import com.mapbox.services.android.navigation.ui.v5.utils.RouteFingerprint;
 import com.mapbox.services.android.navigation.v5.routeprogress.ProgressChangeListener;
 import com.mapbox.services.android.navigation.v5.routeprogress.RouteProgress;
 
@@ -16,7 +17,7 @@ class MapOfflineManager implements ProgressChangeListener {
   private final OfflineMetadataProvider metadataProvider;
   private final MapConnectivityController connectivityController;
   private final RegionDownloadCallback regionDownloadCallback;
-  private Geometry previousRouteGeometry;
+  private Long previousRouteFingerprint;
   private MergeOfflineRegionsCallback mergeOfflineRegionsCallback;
 
   MapOfflineManager(OfflineManager offlineManager, OfflineRegionDefinitionProvider definitionProvider,
@@ -44,11 +45,15 @@ class MapOfflineManager implements ProgressChangeListener {
 
   @Override
   public void onProgressChange(Location location, RouteProgress routeProgress) {
-    Geometry currentRouteGeometry = routeProgress.routeGeometryWithBuffer();
-    if (previousRouteGeometry == null || !previousRouteGeometry.equals(currentRouteGeometry)) {
-      previousRouteGeometry = currentRouteGeometry;
+    long currentRouteFingerprint = RouteFingerprint.ofRoute(routeProgress.directionsRoute());
+    if (previousRouteFingerprint == null || previousRouteFingerprint != currentRouteFingerprint) {
+      Geometry currentRouteGeometry = routeProgress.routeGeometryWithBuffer();
+      if (currentRouteGeometry == null) {
+        return;
+      }
+      previousRouteFingerprint = currentRouteFingerprint;
       String routeSummary = routeProgress.directionsRoute().routeOptions().requestUuid();
-      download(routeSummary, previousRouteGeometry, regionDownloadCallback);
+      download(routeSummary, currentRouteGeometry, regionDownloadCallback);
     }
   }
 
@@ -26,6 +26,7 @@ import com.mapbox.services.android.navigation.ui.v5.voice.SpeechAnnouncement;
 import com.mapbox.services.android.navigation.ui.v5.voice.SpeechPlayer;
 import com.mapbox.services.android.navigation.ui.v5.voice.SpeechPlayerProvider;
 import com.mapbox.services.android.navigation.ui.v5.voice.VoiceInstructionLoader;
+import com.mapbox.services.android.navigation.ui.v5.voice.VoicePipelineMonitor;
 import com.mapbox.services.android.navigation.v5.milestone.BannerInstructionMilestone;
 import com.mapbox.services.android.navigation.v5.milestone.Milestone;
 import com.mapbox.services.android.navigation.v5.milestone.MilestoneEventListener;
@@ -71,8 +72,7 @@ public class NavigationViewModel extends AndroidViewModel {
     private NavigationViewEventDispatcher navigationViewEventDispatcher;
     private SpeechPlayer speechPlayer;
     private VoiceInstructionLoader voiceInstructionLoader;
-    private VoiceInstructionCache voiceInstructionCache;
-    private int voiceInstructionsToAnnounce = 0;
+    private VoiceInstructionPrefetcher voiceInstructionPrefetcher;
     private RouteProgress routeProgress;
     private String feedbackId;
     private String screenshot;
@@ -85,6 +85,7 @@ public class NavigationViewModel extends AndroidViewModel {
     private int timeFormatType;
     private boolean isRunning;
     private boolean isChangingConfigurations;
+    private boolean shouldDownloadVoicePack;
     private MapConnectivityController connectivityController;
     private MapOfflineManager mapOfflineManager;
 
@@ -110,12 +111,12 @@ public class NavigationViewModel extends AndroidViewModel {
     // Package private (no modifier) for testing purposes
     NavigationViewModel(Application application, MapboxNavigation navigation,
                         LocationEngineConductor conductor, NavigationViewEventDispatcher dispatcher,
-                        VoiceInstructionCache cache, SpeechPlayer speechPlayer) {
+                        VoiceInstructionPrefetcher prefetcher, SpeechPlayer speechPlayer) {
         super(application);
         this.navigation = navigation;
         this.locationEngineConductor = conductor;
         this.navigationViewEventDispatcher = dispatcher;
-        this.voiceInstructionCache = cache;
+        this.voiceInstructionPrefetcher = prefetcher;
         this.speechPlayer = speechPlayer;
     }
 
@@ -186,6 +187,33 @@ public class NavigationViewModel extends AndroidViewModel {
         return navigation;
     }
 
+    /**
+     * Returns how many announcements were played from audio synthesized ahead of time.
+     *
+     * @return announcements found stored when played, or 0 if voice instructions are not prefetched
+     */
+    public long retrieveVoicePrefetchHitCount() {
+        return voiceInstructionPrefetcher == null ? 0 : voiceInstructionPrefetcher.retrieveHitCount();
+    }
+
+    /**
+     * Returns how many announcements were played without having been requested ahead of time.
+     *
+     * @return announcements neither stored nor requested when played, or 0 if voice instructions are not prefetched
+     */
+    public long retrieveVoicePrefetchMissCount() {
+        return voiceInstructionPrefetcher == null ? 0 : voiceInstructionPrefetcher.retrieveMissCount();
+    }
+
+    /**
+     * Returns how many announcements were played while their prefetch request was still running.
+     *
+     * @return announcements still being synthesized when played, or 0 if voice instructions are not prefetched
+     */
+    public long retrieveVoicePrefetchLateCount() {
+        return voiceInstructionPrefetcher == null ? 0 : voiceInstructionPrefetcher.retrieveLateCount();
+    }
+
     void initializeEventDispatcher(NavigationViewEventDispatcher navigationViewEventDispatcher) {
         this.navigationViewEventDispatcher = navigationViewEventDispatcher;
     }
@@ -202,12 +230,13 @@ public class NavigationViewModel extends AndroidViewModel {
         initializeLanguage(options);
         initializeTimeFormat(navigationOptions);
         initializeDistanceFormatter(options);
+        shouldDownloadVoicePack = options.shouldDownloadVoicePack();
         if (!isRunning()) {
             LocationEngine locationEngine = initializeLocationEngineFrom(options);
             initializeNavigation(getApplication(), navigationOptions, locationEngine);
             addMilestones(options);
-            initializeVoiceInstructionLoader();
-            initializeVoiceInstructionCache();
+            initializeVoiceInstructionLoader(options);
+            initializeVoiceInstructionPrefetcher();
             initializeNavigationSpeechPlayer(options);
             initializeMapOfflineManager(options);
         }
@@ -259,6 +288,10 @@ public class NavigationViewModel extends AndroidViewModel {
 
     void updateRouteProgress(RouteProgress routeProgress) {
         this.routeProgress = routeProgress;
+        if (voiceInstructionPrefetcher != null) {
+            voiceInstructionPrefetcher.updateProgress(routeProgress.distanceTraveled());
+        }
+        updateSpeechPlayerProgress(routeProgress);
         sendEventArrival(routeProgress);
         instructionModel.setValue(new InstructionModel(distanceFormatter, routeProgress));
         summaryModel.setValue(new SummaryModel(getApplication(), distanceFormatter, routeProgress, timeFormatType));
@@ -352,15 +385,17 @@ public class NavigationViewModel extends AndroidViewModel {
         mapOfflineManager.loadDatabase(mapDatabasePath, callback);
     }
 
-    private void initializeVoiceInstructionLoader() {
+    private void initializeVoiceInstructionLoader(NavigationViewOptions options) {
         Cache cache = new Cache(new File(getApplication().getCacheDir(), OKHTTP_INSTRUCTION_CACHE),
                 TEN_MEGABYTE_CACHE_SIZE);
         voiceInstructionLoader = new VoiceInstructionLoader(getApplication(), accessToken, cache);
+        voiceInstructionLoader.setupVoiceUnits(initializeUnitType(options));
     }
 
-    private void initializeVoiceInstructionCache() {
+    private void initializeVoiceInstructionPrefetcher() {
         ConnectivityStatusProvider connectivityStatus = new ConnectivityStatusProvider(getApplication());
-        voiceInstructionCache = new VoiceInstructionCache(navigation, voiceInstructionLoader, connectivityStatus);
+        VoicePrefetchBackend backend = new VoiceInstructionLoaderBackend(voiceInstructionLoader);
+        voiceInstructionPrefetcher = new VoiceInstructionPrefetcher(backend, connectivityStatus);
     }
 
     @NonNull
@@ -407,7 +442,6 @@ public class NavigationViewModel extends AndroidViewModel {
     private MilestoneEventListener milestoneEventListener = new MilestoneEventListener() {
         @Override
         public void onMilestoneEvent(RouteProgress routeProgress, String instruction, Milestone milestone) {
-            voiceInstructionCache.cache();
             playVoiceAnnouncement(milestone);
             updateBannerInstruction(routeProgress, milestone);
         }
@@ -433,8 +467,22 @@ public class NavigationViewModel extends AndroidViewModel {
     private void startNavigation(DirectionsRoute route) {
         if (route != null) {
             navigation.startNavigation(route);
-            voiceInstructionsToAnnounce = 0;
-            voiceInstructionCache.preCache(route);
+            // The prefetcher leaves announcements to a voice pack being downloaded
+            downloadVoicePack(route);
+            voiceInstructionPrefetcher.updateRoute(route);
+        }
+    }
+
+    private void updateSpeechPlayerProgress(RouteProgress routeProgress) {
+        if (speechPlayer instanceof NavigationSpeechPlayer) {
+            double durationToManeuver = routeProgress.currentLegProgress().currentStepProgress().durationRemaining();
+            ((NavigationSpeechPlayer) speechPlayer).updateDurationToManeuver(durationToManeuver);
+        }
+    }
+
+    private void downloadVoicePack(DirectionsRoute route) {
+        if (shouldDownloadVoicePack && voiceInstructionLoader != null) {
+            voiceInstructionLoader.downloadVoicePack(route);
         }
     }
 
@@ -482,11 +530,13 @@ public class NavigationViewModel extends AndroidViewModel {
 
     private void playVoiceAnnouncement(Milestone milestone) {
         if (milestone instanceof VoiceInstructionMilestone) {
-            voiceInstructionsToAnnounce++;
-            voiceInstructionCache.update(voiceInstructionsToAnnounce);
             SpeechAnnouncement announcement = SpeechAnnouncement.builder()
                     .voiceInstructionMilestone((VoiceInstructionMilestone) milestone).build();
             announcement = retrieveAnnouncementFromSpeechEvent(announcement);
+            if (announcement != null) {
+                VoicePipelineMonitor.getInstance().onAnnouncementTriggered(announcement);
+                voiceInstructionPrefetcher.onAnnounced(announcement.ssmlAnnouncement());
+            }
             speechPlayer.play(announcement);
         }
     }
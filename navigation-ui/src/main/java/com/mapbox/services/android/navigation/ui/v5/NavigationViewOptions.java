@@ -61,6 +61,8 @@ public abstract class NavigationViewOptions extends NavigationUiOptions {
   @Nullable
   public abstract LocationEngine locationEngine();
 
+  public abstract boolean shouldDownloadVoicePack();
+
   @AutoValue.Builder
   public abstract static class Builder {
 
@@ -100,6 +102,18 @@ public abstract class NavigationViewOptions extends NavigationUiOptions {
 
     public abstract Builder locationEngine(LocationEngine locationEngine);
 
+    /**
+     * Synthesize every voice instruction of the route as soon as it is set, rather than a few
+     * ahead of the current position.
+     * <p>
+     * The announcements are kept on disk so the whole route is announced even when connectivity
+     * drops. Reroutes only request the announcements that changed. Defaults to false.
+     *
+     * @param shouldDownloadVoicePack true to download all announcements of the route up front
+     * @return this builder
+     */
+    public abstract Builder shouldDownloadVoicePack(boolean shouldDownloadVoicePack);
+
     /**
      * Add an offline path for loading offline routing data.
      * <p>
@@ -137,6 +151,7 @@ public abstract class NavigationViewOptions extends NavigationUiOptions {
     return new AutoValue_NavigationViewOptions.Builder()
       .navigationOptions(MapboxNavigationOptions.builder().build())
       .shouldSimulateRoute(false)
-      .waynameChipEnabled(true);
+      .waynameChipEnabled(true)
+      .shouldDownloadVoicePack(false);
   }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.mapbox.services.android.navigation.ui.v5;
+
+import android.support.annotation.NonNull;
+
+import com.mapbox.services.android.navigation.ui.v5.voice.OnVoicePackInstructionListener;
+import com.mapbox.services.android.navigation.ui.v5.voice.VoiceInstructionLoader;
+
+import java.util.List;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Prefetches announcements through the Mapbox Voice API into the {@link VoiceInstructionLoader} cache.
+ * Announcements the voice pack download is about to request are awaited instead.
+ */
+class VoiceInstructionLoaderBackend implements VoicePrefetchBackend {
+
+  private final VoiceInstructionLoader voiceInstructionLoader;
+
+  VoiceInstructionLoaderBackend(VoiceInstructionLoader voiceInstructionLoader) {
+    this.voiceInstructionLoader = voiceInstructionLoader;
+  }
+
+  @Override
+  public boolean prefetch(final String instruction, final OnPrefetchedCallback callback) {
+    if (voiceInstructionLoader.hasCachedInstruction(instruction)) {
+      // Synthesized before, possibly for another route or an earlier session
+      callback.onPrefetched(instruction, true);
+      return true;
+    }
+    boolean isAwaitingVoicePack = voiceInstructionLoader.awaitVoicePackInstruction(instruction,
+      new OnVoicePackInstructionListener() {
+        @Override
+        public void onVoicePackInstruction(String packInstruction, boolean isStored) {
+          callback.onPrefetched(instruction, isStored);
+        }
+      });
+    // The voice pack requests it anyway, a second request would synthesize the same audio
+    return isAwaitingVoicePack || cacheInstruction(instruction, callback);
+  }
+
+  @Override
+  public boolean isStored(String instruction) {
+    return voiceInstructionLoader.hasCachedInstruction(instruction);
+  }
+
+  @Override
+  public void evict(List<String> passedInstructions) {
+    voiceInstructionLoader.demoteInstructions(passedInstructions);
+  }
+
+  private boolean cacheInstruction(final String instruction, final OnPrefetchedCallback callback) {
+    return voiceInstructionLoader.cacheInstruction(instruction, new Callback<ResponseBody>() {
+      @Override
+      public void onResponse(@NonNull Call<ResponseBody> call, @NonNull Response<ResponseBody> response) {
+        callback.onPrefetched(instruction, response.isSuccessful());
+      }
+
+      @Override
+      public void onFailure(@NonNull Call<ResponseBody> call, @NonNull Throwable throwable) {
+        callback.onPrefetched(instruction, false);
+      }
+    });
+  }
+}
@@ -0,0 +1,221 @@
+package com.mapbox.services.android.navigation.ui.v5;
+
+import android.support.annotation.Nullable;
+
+import com.mapbox.api.directions.v5.models.DirectionsRoute;
+import com.mapbox.api.directions.v5.models.LegStep;
+import com.mapbox.api.directions.v5.models.RouteLeg;
+import com.mapbox.api.directions.v5.models.VoiceInstructions;
+import com.mapbox.services.android.navigation.v5.routeprogress.RouteProgress;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the next announcements of the route synthesized ahead of the rider.
+ * <p>
+ * Announcements are ordered once per route by their distance from the route origin. As progress
+ * advances, the window of the next {@link #DEFAULT_WINDOW_SIZE} announcements is requested closest
+ * first, with at most {@link #DEFAULT_MAX_IN_FLIGHT} requests running at a time. A new route
+ * rebuilds the order, so a reroute re-prioritizes the queue while keeping what was already stored.
+ * Failed requests are not retried until the next route.
+ * <p>
+ * Each announcement played is counted as a hit if it was stored, even by the voice pack while
+ * offline, late if its request was still running and a miss otherwise.
+ */
+class VoiceInstructionPrefetcher implements VoicePrefetchBackend.OnPrefetchedCallback {
+
+  static final int DEFAULT_WINDOW_SIZE = 10;
+  static final int DEFAULT_MAX_IN_FLIGHT = 3;
+  private static final int ANNOUNCEMENTS_PER_EVICTION = 5;
+  private final VoicePrefetchBackend backend;
+  private final ConnectivityStatusProvider connectivityStatus;
+  private final int windowSize;
+  private final int maxInFlight;
+  private final Set<String> prefetched = new HashSet<>();
+  private final Set<String> inFlight = new HashSet<>();
+  private final Set<String> failed = new HashSet<>();
+  private final List<String> passed = new ArrayList<>();
+  private String[] announcements = new String[0];
+  private double[] announcementDistances = new double[0];
+  private int nextIndex;
+  private int announcementsSinceEviction;
+  private long hitCount;
+  private long missCount;
+  private long lateCount;
+
+  VoiceInstructionPrefetcher(VoicePrefetchBackend backend, ConnectivityStatusProvider connectivityStatus) {
+    this(backend, connectivityStatus, DEFAULT_WINDOW_SIZE, DEFAULT_MAX_IN_FLIGHT);
+  }
+
+  VoiceInstructionPrefetcher(VoicePrefetchBackend backend, ConnectivityStatusProvider connectivityStatus,
+                             int windowSize, int maxInFlight) {
+    this.backend = backend;
+    this.connectivityStatus = connectivityStatus;
+    this.windowSize = windowSize;
+    this.maxInFlight = maxInFlight;
+  }
+
+  void updateRoute(DirectionsRoute route) {
+    buildAnnouncements(route);
+    failed.clear();
+    nextIndex = 0;
+    fillWindow();
+  }
+
+  /**
+   * @param distanceTraveled meters traveled from the route origin, as in {@link RouteProgress#distanceTraveled()}
+   */
+  void updateProgress(double distanceTraveled) {
+    int index = findNextIndex(distanceTraveled);
+    if (index <= nextIndex) {
+      return;
+    }
+    passed.addAll(Arrays.asList(announcements).subList(nextIndex, index));
+    nextIndex = index;
+    fillWindow();
+  }
+
+  /**
+   * @param instruction SSML of the announcement being played
+   */
+  void onAnnounced(@Nullable String instruction) {
+    if (instruction == null) {
+      return;
+    }
+    if (prefetched.contains(instruction) || backend.isStored(instruction)) {
+      hitCount++;
+    } else if (inFlight.contains(instruction)) {
+      lateCount++;
+    } else {
+      missCount++;
+    }
+    announcementsSinceEviction++;
+    if (announcementsSinceEviction >= ANNOUNCEMENTS_PER_EVICTION && !passed.isEmpty()) {
+      announcementsSinceEviction = 0;
+      evictPassed();
+    }
+  }
+
+  @Override
+  public void onPrefetched(String instruction, boolean isSuccessful) {
+    inFlight.remove(instruction);
+    if (isSuccessful) {
+      prefetched.add(instruction);
+    } else {
+      failed.add(instruction);
+    }
+    fillWindow();
+  }
+
+  long retrieveHitCount() {
+    return hitCount;
+  }
+
+  long retrieveMissCount() {
+    return missCount;
+  }
+
+  long retrieveLateCount() {
+    return lateCount;
+  }
+
+  /**
+   * Announcements repeated verbatim further ahead are kept.
+   */
+  private void evictPassed() {
+    Set<String> evicted = new HashSet<>(passed);
+    passed.clear();
+    int windowEnd = Math.min(nextIndex + windowSize, announcements.length);
+    for (int i = nextIndex; i < windowEnd; i++) {
+      evicted.remove(announcements[i]);
+    }
+    if (evicted.isEmpty()) {
+      return;
+    }
+    prefetched.removeAll(evicted);
+    backend.evict(new ArrayList<>(evicted));
+  }
+
+  private void fillWindow() {
+    if (inFlight.size() >= maxInFlight || !connectivityStatus.isConnected()) {
+      return;
+    }
+    int windowEnd = Math.min(nextIndex + windowSize, announcements.length);
+    for (int i = nextIndex; i < windowEnd && inFlight.size() < maxInFlight; i++) {
+      String instruction = announcements[i];
+      if (prefetched.contains(instruction) || inFlight.contains(instruction) || failed.contains(instruction)) {
+        continue;
+      }
+      inFlight.add(instruction);
+      if (!backend.prefetch(instruction, this)) {
+        inFlight.remove(instruction);
+        return;
+      }
+    }
+  }
+
+  private int findNextIndex(double distanceTraveled) {
+    int index = Arrays.binarySearch(announcementDistances, distanceTraveled);
+    if (index < 0) {
+      return -index - 1;
+    }
+    // Announcements exactly at the current distance are being played, not ahead
+    while (index < announcementDistances.length && announcementDistances[index] <= distanceTraveled) {
+      index++;
+    }
+    return index;
+  }
+
+  /**
+   * Orders the SSML announcements of the route by their distance from the route origin.
+   */
+  private void buildAnnouncements(DirectionsRoute route) {
+    final List<String> instructions = new ArrayList<>();
+    final List<Double> distances = new ArrayList<>();
+    double legStartDistance = 0;
+    List<RouteLeg> legs = route.legs() == null ? Collections.<RouteLeg>emptyList() : route.legs();
+    for (RouteLeg leg : legs) {
+      double stepStartDistance = legStartDistance;
+      List<LegStep> steps = leg.steps() == null ? Collections.<LegStep>emptyList() : leg.steps();
+      for (LegStep step : steps) {
+        double stepEndDistance = stepStartDistance + step.distance();
+        List<VoiceInstructions> voiceInstructions = step.voiceInstructions();
+        if (voiceInstructions != null) {
+          for (VoiceInstructions voiceInstruction : voiceInstructions) {
+            String ssmlAnnouncement = voiceInstruction.ssmlAnnouncement();
+            Double distanceAlongGeometry = voiceInstruction.distanceAlongGeometry();
+            if (ssmlAnnouncement != null && distanceAlongGeometry != null) {
+              instructions.add(ssmlAnnouncement);
+              distances.add(stepEndDistance - distanceAlongGeometry);
+            }
+          }
+        }
+        stepStartDistance = stepEndDistance;
+      }
+      legStartDistance += leg.distance() == null ? stepStartDistance - legStartDistance : leg.distance();
+    }
+
+    Integer[] order = new Integer[instructions.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer first, Integer second) {
+        return Double.compare(distances.get(first), distances.get(second));
+      }
+    });
+    announcements = new String[order.length];
+    announcementDistances = new double[order.length];
+    for (int i = 0; i < order.length; i++) {
+      announcements[i] = instructions.get(order[i]);
+      announcementDistances[i] = distances.get(order[i]);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.mapbox.services.android.navigation.ui.v5;
+
+import java.util.List;
+
+/**
+ * Synthesizes and stores announcements ahead of time for the {@link VoiceInstructionPrefetcher}.
+ */
+interface VoicePrefetchBackend {
+
+  /**
+   * @param instruction SSML announcement to synthesize
+   * @param callback    notified once the announcement is stored or failed
+   * @return false if the request could not be started, in which case the callback is not notified
+   */
+  boolean prefetch(String instruction, OnPrefetchedCallback callback);
+
+  /**
+   * @param instruction SSML announcement
+   * @return true if the announcement is stored, whether it was prefetched or stored by other means
+   */
+  boolean isStored(String instruction);
+
+  /**
+   * @param passedInstructions announcements the rider has already passed since the last eviction
+   */
+  void evict(List<String> passedInstructions);
+
+  interface OnPrefetchedCallback {
+
+    void onPrefetched(String instruction, boolean isSuccessful);
+  }
+}
@@ -0,0 +1,103 @@
+package com.mapbox.services.android.navigation.ui.v5.camera;
+
+import android.support.annotation.Nullable;
+
+import com.mapbox.mapboxsdk.camera.CameraPosition;
+import com.mapbox.mapboxsdk.location.LocationComponent;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.services.android.navigation.v5.utils.MathUtils;
+
+import static com.mapbox.services.android.navigation.v5.navigation.NavigationConstants.NAVIGATION_MAX_CAMERA_ADJUSTMENT_ANIMATION_DURATION;
+import static com.mapbox.services.android.navigation.v5.navigation.NavigationConstants.NAVIGATION_MIN_CAMERA_TILT_ADJUSTMENT_ANIMATION_DURATION;
+import static com.mapbox.services.android.navigation.v5.navigation.NavigationConstants.NAVIGATION_MIN_CAMERA_ZOOM_ADJUSTMENT_ANIMATION_DURATION;
+
+/**
+ * Issues the zoom and tilt adjustments made while tracking, dropping the ones that are within
+ * an epsilon of the target already in flight.
+ * <p>
+ * Zoom and tilt are started together with a shared duration, so they move as one animation.
+ * The target is forgotten whenever the tracking mode changes, as the camera may have been moved
+ * by a gesture or an overview in the meantime.
+ */
+class CameraAdjustmentCoalescer {
+
+  static final double DEFAULT_ZOOM_EPSILON = 0.05d;
+  static final double DEFAULT_TILT_EPSILON = 0.5d;
+  private static final double DURATION_MILLIS_PER_UNIT = 500d;
+  private final MapboxMap mapboxMap;
+  private final LocationComponent locationComponent;
+  private double zoomEpsilon = DEFAULT_ZOOM_EPSILON;
+  private double tiltEpsilon = DEFAULT_TILT_EPSILON;
+  private double targetZoom = Double.NaN;
+  private double targetTilt = Double.NaN;
+  private long issuedAdjustments;
+  private long suppressedAdjustments;
+
+  CameraAdjustmentCoalescer(MapboxMap mapboxMap, LocationComponent locationComponent) {
+    this.mapboxMap = mapboxMap;
+    this.locationComponent = locationComponent;
+  }
+
+  void updateEpsilons(double zoomEpsilon, double tiltEpsilon) {
+    this.zoomEpsilon = zoomEpsilon;
+    this.tiltEpsilon = tiltEpsilon;
+  }
+
+  /**
+   * @param zoom to animate to
+   * @param tilt to animate to
+   */
+  void adjust(double zoom, float tilt) {
+    if (Math.abs(targetZoom - zoom) <= zoomEpsilon && Math.abs(targetTilt - tilt) <= tiltEpsilon) {
+      suppressedAdjustments++;
+      return;
+    }
+    issue(zoom, tilt, null);
+  }
+
+  /**
+   * Always issues the adjustment, as the callback has to be notified.
+   *
+   * @param zoom     to animate to
+   * @param tilt     to animate to
+   * @param callback notified when the zoom animation finishes or is cancelled
+   */
+  void adjust(double zoom, float tilt, MapboxMap.CancelableCallback callback) {
+    issue(zoom, tilt, callback);
+  }
+
+  void invalidateTarget() {
+    targetZoom = Double.NaN;
+    targetTilt = Double.NaN;
+  }
+
+  long retrieveIssuedAdjustments() {
+    return issuedAdjustments;
+  }
+
+  long retrieveSuppressedAdjustments() {
+    return suppressedAdjustments;
+  }
+
+  private void issue(double zoom, float tilt, @Nullable MapboxMap.CancelableCallback callback) {
+    CameraPosition position = mapboxMap.getCameraPosition();
+    long zoomDuration = (long) MathUtils.clamp(
+      DURATION_MILLIS_PER_UNIT * Math.abs(position.zoom - zoom),
+      NAVIGATION_MIN_CAMERA_ZOOM_ADJUSTMENT_ANIMATION_DURATION,
+      NAVIGATION_MAX_CAMERA_ADJUSTMENT_ANIMATION_DURATION);
+    long tiltDuration = (long) MathUtils.clamp(
+      DURATION_MILLIS_PER_UNIT * Math.abs(position.tilt - tilt),
+      NAVIGATION_MIN_CAMERA_TILT_ADJUSTMENT_ANIMATION_DURATION,
+      NAVIGATION_MAX_CAMERA_ADJUSTMENT_ANIMATION_DURATION);
+    long duration = Math.max(zoomDuration, tiltDuration);
+    if (callback == null) {
+      locationComponent.zoomWhileTracking(zoom, duration);
+    } else {
+      locationComponent.zoomWhileTracking(zoom, duration, callback);
+    }
+    locationComponent.tiltWhileTracking(tilt, duration);
+    targetZoom = zoom;
+    targetTilt = tilt;
+    issuedAdjustments++;
+  }
+}
@@ -1,39 +1,45 @@
 package com.mapbox.services.android.navigation.ui.v5.camera;
 
+import android.content.res.Resources;
 import android.location.Location;
 import android.support.annotation.NonNull;
 
 import com.mapbox.api.directions.v5.models.LegStep;
 import com.mapbox.geojson.Point;
-import com.mapbox.mapboxsdk.camera.CameraPosition;
-import com.mapbox.mapboxsdk.geometry.LatLng;
 import com.mapbox.mapboxsdk.geometry.LatLngBounds;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.UiSettings;
+import com.mapbox.services.android.navigation.ui.v5.utils.RouteFingerprint;
 import com.mapbox.services.android.navigation.v5.navigation.NavigationConstants;
 import com.mapbox.services.android.navigation.v5.navigation.camera.RouteInformation;
 import com.mapbox.services.android.navigation.v5.navigation.camera.SimpleCamera;
 import com.mapbox.services.android.navigation.v5.routeprogress.RouteProgress;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class DynamicCamera extends SimpleCamera {
 
   private static final double MAX_CAMERA_TILT = 30d;
   private static final double MIN_CAMERA_TILT = 15d;
   private static final double MAX_CAMERA_ZOOM = 16d;
   private static final double MIN_CAMERA_ZOOM = 12d;
+  private static final double ZOOM_DISTANCE_BUCKET_METERS = 10d;
+  private static final int[] ZERO_PADDING = {0, 0, 0, 0};
 
   private MapboxMap mapboxMap;
-  private LegStep currentStep;
+  private Long currentStepFingerprint;
   private boolean hasPassedLowAlertLevel;
   private boolean hasPassedMediumAlertLevel;
   private boolean hasPassedHighAlertLevel;
   private boolean forceUpdateZoom;
   private boolean isShutdown = false;
+  private long zoomStepFingerprint;
+  private long zoomDistanceBucket = -1;
+  private double memoizedZoom;
+  private final float pixelRatio;
 
   public DynamicCamera(@NonNull MapboxMap mapboxMap) {
     this.mapboxMap = mapboxMap;
+    // The map renders at the display density unless its options say otherwise
+    this.pixelRatio = Resources.getSystem().getDisplayMetrics().density;
   }
 
   @Override
@@ -97,7 +103,7 @@ public class DynamicCamera extends SimpleCamera {
   }
 
   /**
-   * Creates a zoom value based on the result of {@link MapboxMap#getCameraForLatLngBounds(LatLngBounds, int[])}.
+   * Creates a zoom value that fits the current location and the upcoming maneuver location.
    * <p>
    * 0 zoom is the world view, while 22 (default max threshold) is the closest you can position
    * the camera to the map.
@@ -106,51 +112,48 @@ public class DynamicCamera extends SimpleCamera {
    * @return zoom within set min / max bounds
    */
   private double createZoom(RouteInformation routeInformation) {
-    CameraPosition position = createCameraPosition(routeInformation.location(), routeInformation.routeProgress());
-    if (position == null) {
-      return DEFAULT_ZOOM;
-    }
-    if (position.zoom > MAX_CAMERA_ZOOM) {
+    double zoom = findZoom(routeInformation.location(), routeInformation.routeProgress());
+    if (zoom > MAX_CAMERA_ZOOM) {
       return MAX_CAMERA_ZOOM;
-    } else if (position.zoom < MIN_CAMERA_ZOOM) {
+    } else if (zoom < MIN_CAMERA_ZOOM) {
       return MIN_CAMERA_ZOOM;
     }
-    return position.zoom;
+    return zoom;
   }
 
   /**
-   * Creates a camera position with the current location and upcoming maneuver location.
-   * <p>
-   * Using {@link MapboxMap#getCameraForLatLngBounds(LatLngBounds, int[])} with a {@link LatLngBounds}
-   * that includes the current location and upcoming maneuver location.
+   * Solves the zoom with {@link MercatorZoomSolver} instead of
+   * {@link MapboxMap#getCameraForLatLngBounds(LatLngBounds, int[])}, memoized per step and
+   * {@link #ZOOM_DISTANCE_BUCKET_METERS} of distance remaining.
    *
    * @param location      for current location
    * @param routeProgress for upcoming maneuver location
-   * @return camera position that encompasses both locations
+   * @return zoom that encompasses both locations, or the current zoom if there is no maneuver
    */
-  private CameraPosition createCameraPosition(Location location, RouteProgress routeProgress) {
+  private double findZoom(Location location, RouteProgress routeProgress) {
     LegStep upComingStep = routeProgress.currentLegProgress().upComingStep();
-    if (upComingStep != null) {
-      Point stepManeuverPoint = upComingStep.maneuver().location();
-
-      List<LatLng> latLngs = new ArrayList<>();
-      LatLng currentLatLng = new LatLng(location);
-      LatLng maneuverLatLng = new LatLng(stepManeuverPoint.latitude(), stepManeuverPoint.longitude());
-      latLngs.add(currentLatLng);
-      latLngs.add(maneuverLatLng);
-
-      if (latLngs.size() < 1 || currentLatLng.equals(maneuverLatLng)) {
-        return mapboxMap.getCameraPosition();
-      }
-
-      LatLngBounds cameraBounds = new LatLngBounds.Builder()
-        .includes(latLngs)
-        .build();
+    if (upComingStep == null) {
+      return mapboxMap.getCameraPosition().zoom;
+    }
+    double distanceRemaining = routeProgress.currentLegProgress().currentStepProgress().distanceRemaining();
+    long stepFingerprint = RouteFingerprint.ofStep(routeProgress);
+    long distanceBucket = (long) (distanceRemaining / ZOOM_DISTANCE_BUCKET_METERS);
+    if (stepFingerprint == zoomStepFingerprint && distanceBucket == zoomDistanceBucket) {
+      return memoizedZoom;
+    }
 
-      int[] padding = {0, 0, 0, 0};
-      return mapboxMap.getCameraForLatLngBounds(cameraBounds, padding);
+    Point stepManeuverPoint = upComingStep.maneuver().location();
+    UiSettings uiSettings = mapboxMap.getUiSettings();
+    double zoom = MercatorZoomSolver.solve(location.getLongitude(), location.getLatitude(),
+      stepManeuverPoint.longitude(), stepManeuverPoint.latitude(), uiSettings.getWidth(), uiSettings.getHeight(),
+      ZERO_PADDING, pixelRatio, location.getBearing(), createTilt(distanceRemaining));
+    if (Double.isNaN(zoom)) {
+      return mapboxMap.getCameraPosition().zoom;
     }
-    return mapboxMap.getCameraPosition();
+    zoomStepFingerprint = stepFingerprint;
+    zoomDistanceBucket = distanceBucket;
+    memoizedZoom = zoom;
+    return zoom;
   }
 
   private boolean isForceUpdate() {
@@ -168,8 +171,9 @@ public class DynamicCamera extends SimpleCamera {
    * @return true if new step, false if not
    */
   private boolean isNewStep(RouteProgress routeProgress) {
-    boolean isNewStep = currentStep == null || !currentStep.equals(routeProgress.currentLegProgress().currentStep());
-    currentStep = routeProgress.currentLegProgress().currentStep();
+    long stepFingerprint = RouteFingerprint.ofStep(routeProgress);
+    boolean isNewStep = currentStepFingerprint == null || currentStepFingerprint != stepFingerprint;
+    currentStepFingerprint = stepFingerprint;
     resetAlertLevels(isNewStep);
     return isNewStep;
   }
@@ -0,0 +1,156 @@
+package com.mapbox.services.android.navigation.ui.v5.camera;
+
+/**
+ * Finds the Web Mercator zoom at which two coordinates fit in the viewport, without a round trip
+ * into the native map.
+ * <p>
+ * Both coordinates are projected to world pixels at zoom 0, and the corners of their bounds are
+ * rotated by the camera bearing, like the native camera for bounds computation does. World pixels
+ * are density independent, so the viewport and padding are scaled down by the pixel ratio first.
+ * <p>
+ * A tilted camera is modelled like the native transform, looking at the center of the bounds from
+ * {@link #CAMERA_DISTANCE_IN_VIEWPORT_HEIGHTS} viewport heights away. Perspective foreshortens the
+ * height and magnifies the corners closest to the camera, so the zoom is lower than a flat fit
+ * foreshortened by the cosine of the tilt, by up to 0.2 at 45 degrees and 0.35 at 60 degrees on
+ * a phone held upright. The native computation measures the bounds from the current camera instead,
+ * so it only agrees once the camera is centered on them. The solver only reads its arguments, so
+ * it can run on any thread.
+ */
+class MercatorZoomSolver {
+
+  private static final double TILE_SIZE = 512d;
+  private static final double MAX_LATITUDE = 85.051128779806604d;
+  private static final double NO_ZOOM = Double.NaN;
+  private static final double CAMERA_DISTANCE_IN_VIEWPORT_HEIGHTS = 1.5d;
+  private static final int WIDTH_ITERATIONS = 40;
+
+  private MercatorZoomSolver() {
+  }
+
+  /**
+   * @param fromLongitude  first coordinate longitude
+   * @param fromLatitude   first coordinate latitude
+   * @param toLongitude    second coordinate longitude
+   * @param toLatitude     second coordinate latitude
+   * @param viewportWidth  map width in pixels
+   * @param viewportHeight map height in pixels
+   * @param padding        left, top, right and bottom padding in pixels
+   * @param pixelRatio     physical pixels per density independent pixel of the map
+   * @param bearing        camera bearing in degrees
+   * @param tilt           camera tilt in degrees
+   * @return zoom fitting both coordinates, or {@link Double#NaN} if they are equal or the
+   * viewport has no room left after padding
+   */
+  static double solve(double fromLongitude, double fromLatitude, double toLongitude, double toLatitude,
+                      double viewportWidth, double viewportHeight, int[] padding, float pixelRatio,
+                      double bearing, double tilt) {
+    double deltaX = Math.abs(projectX(toLongitude) - projectX(fromLongitude));
+    double deltaY = Math.abs(projectY(toLatitude) - projectY(fromLatitude));
+    double bearingRadians = Math.toRadians(bearing);
+    double cos = Math.cos(bearingRadians);
+    double sin = Math.sin(bearingRadians);
+    double width = deltaX * Math.abs(cos) + deltaY * Math.abs(sin);
+    double height = deltaX * Math.abs(sin) + deltaY * Math.abs(cos);
+    if ((width <= 0 && height <= 0) || pixelRatio <= 0) {
+      return NO_ZOOM;
+    }
+
+    double availableWidth = (viewportWidth - padding[0] - padding[2]) / pixelRatio;
+    double availableHeight = (viewportHeight - padding[1] - padding[3]) / pixelRatio;
+    if (availableWidth <= 0 || availableHeight <= 0) {
+      return NO_ZOOM;
+    }
+    double cameraDistance = CAMERA_DISTANCE_IN_VIEWPORT_HEIGHTS * viewportHeight / pixelRatio;
+    double sinTilt = Math.sin(Math.toRadians(tilt));
+    double scaleY = height > 0 ? scaleToHeight(height, availableHeight, cameraDistance, tilt)
+      : Double.POSITIVE_INFINITY;
+    if (width <= 0) {
+      return log2(scaleY);
+    }
+    // Perspective never makes the projected width smaller than the flat width
+    double maxScale = Math.min(availableWidth / width, scaleY);
+    if (height <= 0 || sinTilt == 0) {
+      return log2(maxScale);
+    }
+
+    // Corners of the bounds around their center, rotated by the bearing
+    double halfX = deltaX / 2;
+    double halfY = deltaY / 2;
+    double[] cornersX = {halfX * cos + halfY * sin, halfX * cos - halfY * sin};
+    double[] cornersY = {-halfX * sin + halfY * cos, -halfX * sin - halfY * cos};
+    if (projectedWidth(cornersX, cornersY, maxScale, cameraDistance, sinTilt) <= availableWidth) {
+      return log2(maxScale);
+    }
+    return log2(scaleToWidth(cornersX, cornersY, availableWidth, maxScale, cameraDistance, sinTilt));
+  }
+
+  /**
+   * Scale at which the height seen in perspective by a tilted camera fills the available height.
+   * This is the positive root of the projected height equation, written so it stays stable
+   * without tilt.
+   */
+  private static double scaleToHeight(double height, double availableHeight, double cameraDistance, double tilt) {
+    double tiltRadians = Math.toRadians(tilt);
+    double cos = Math.cos(tiltRadians);
+    double sin = Math.sin(tiltRadians);
+    double root = Math.sqrt(cameraDistance * cameraDistance * cos * cos
+      + availableHeight * availableHeight * sin * sin);
+    return 2 * availableHeight * cameraDistance / ((cameraDistance * cos + root) * height);
+  }
+
+  /**
+   * Bisects the scale at which the projected width fills the available width. Corners closer to
+   * the camera are magnified and farther ones shrink, so there is no closed form once rotated.
+   */
+  private static double scaleToWidth(double[] cornersX, double[] cornersY, double availableWidth,
+                                     double maxScale, double cameraDistance, double sinTilt) {
+    double minScale = 0;
+    for (int i = 0; i < WIDTH_ITERATIONS; i++) {
+      double scale = (minScale + maxScale) / 2;
+      if (projectedWidth(cornersX, cornersY, scale, cameraDistance, sinTilt) <= availableWidth) {
+        minScale = scale;
+      } else {
+        maxScale = scale;
+      }
+    }
+    return minScale;
+  }
+
+  /**
+   * Width on screen of the corners and their mirror images through the center, projected by a
+   * camera looking at the center. It grows with the scale, and is infinite once a corner passes
+   * behind the camera.
+   */
+  private static double projectedWidth(double[] cornersX, double[] cornersY, double scale, double cameraDistance,
+                                       double sinTilt) {
+    double minX = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < cornersX.length; i++) {
+      for (int sign = -1; sign <= 1; sign += 2) {
+        double depth = cameraDistance - sign * scale * cornersY[i] * sinTilt;
+        if (depth <= 0) {
+          return Double.POSITIVE_INFINITY;
+        }
+        double screenX = cameraDistance * sign * scale * cornersX[i] / depth;
+        minX = Math.min(minX, screenX);
+        maxX = Math.max(maxX, screenX);
+      }
+    }
+    return maxX - minX;
+  }
+
+  private static double log2(double value) {
+    return Math.log(value) / Math.log(2);
+  }
+
+  private static double projectX(double longitude) {
+    return (longitude + 180d) / 360d * TILE_SIZE;
+  }
+
+  private static double projectY(double latitude) {
+    double clampedLatitude = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+    double latitudeRadians = Math.toRadians(clampedLatitude);
+    double mercatorY = Math.log(Math.tan(Math.PI / 4 + latitudeRadians / 2));
+    return (180d - Math.toDegrees(mercatorY)) / 360d * TILE_SIZE;
+  }
+}
@@ -22,12 +22,14 @@ import com.mapbox.mapboxsdk.location.OnCameraTrackingChangedListener;
 import com.mapbox.mapboxsdk.location.OnLocationCameraTransitionListener;
 import com.mapbox.mapboxsdk.location.modes.CameraMode;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.services.android.navigation.ui.v5.route.RouteBounds;
+import com.mapbox.services.android.navigation.ui.v5.route.RouteGeometry;
+import com.mapbox.services.android.navigation.ui.v5.route.RouteGeometryCache;
 import com.mapbox.services.android.navigation.v5.navigation.MapboxNavigation;
 import com.mapbox.services.android.navigation.v5.navigation.camera.Camera;
 import com.mapbox.services.android.navigation.v5.navigation.camera.RouteInformation;
 import com.mapbox.services.android.navigation.v5.routeprogress.ProgressChangeListener;
 import com.mapbox.services.android.navigation.v5.routeprogress.RouteProgress;
-import com.mapbox.services.android.navigation.v5.utils.MathUtils;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -37,10 +39,6 @@ import java.util.concurrent.CopyOnWriteArrayList;
 
 import timber.log.Timber;
 
-import static com.mapbox.services.android.navigation.v5.navigation.NavigationConstants.NAVIGATION_MAX_CAMERA_ADJUSTMENT_ANIMATION_DURATION;
-import static com.mapbox.services.android.navigation.v5.navigation.NavigationConstants.NAVIGATION_MIN_CAMERA_TILT_ADJUSTMENT_ANIMATION_DURATION;
-import static com.mapbox.services.android.navigation.v5.navigation.NavigationConstants.NAVIGATION_MIN_CAMERA_ZOOM_ADJUSTMENT_ANIMATION_DURATION;
-
 /**
  * Updates the map camera while navigating.
  * <p>
@@ -87,6 +85,7 @@ public class NavigationCamera implements LifecycleObserver {
   private int trackingCameraMode = NAVIGATION_TRACKING_MODE_GPS;
   private boolean isCameraResetting;
   private CameraAnimationDelegate animationDelegate;
+  private CameraAdjustmentCoalescer adjustmentCoalescer;
   private ProgressChangeListener progressChangeListener = new ProgressChangeListener() {
     @Override
     public void onProgressChange(Location location, RouteProgress routeProgress) {
@@ -113,6 +112,7 @@ public class NavigationCamera implements LifecycleObserver {
     this.navigation = navigation;
     this.locationComponent = locationComponent;
     this.animationDelegate = new CameraAnimationDelegate(mapboxMap);
+    this.adjustmentCoalescer = new CameraAdjustmentCoalescer(mapboxMap, locationComponent);
     this.locationComponent.addOnCameraTrackingChangedListener(cameraTrackingChangedListener);
     initializeWith(navigation);
   }
@@ -129,6 +129,7 @@ public class NavigationCamera implements LifecycleObserver {
     this.mapboxMap = mapboxMap;
     this.locationComponent = locationComponent;
     this.animationDelegate = new CameraAnimationDelegate(mapboxMap);
+    this.adjustmentCoalescer = new CameraAdjustmentCoalescer(mapboxMap, locationComponent);
     this.locationComponent.addOnCameraTrackingChangedListener(cameraTrackingChangedListener);
     updateCameraTrackingMode(trackingCameraMode);
   }
@@ -143,6 +144,7 @@ public class NavigationCamera implements LifecycleObserver {
     this.navigation = navigation;
     this.progressChangeListener = progressChangeListener;
     this.currentRouteInformation = currentRouteInformation;
+    this.adjustmentCoalescer = new CameraAdjustmentCoalescer(mapboxMap, locationComponent);
   }
 
   /**
@@ -197,6 +199,37 @@ public class NavigationCamera implements LifecycleObserver {
     return trackingCameraMode;
   }
 
+  /**
+   * Zoom and tilt adjustments made while tracking are dropped when they are this close to the
+   * adjustment already animating, so the location animators are not restarted for rounding errors.
+   * <p>
+   * By default, adjustments within 0.05 zoom levels and 0.5 degrees of tilt are dropped.
+   *
+   * @param zoomEpsilon zoom difference under which an adjustment is dropped
+   * @param tiltEpsilon tilt difference in degrees under which an adjustment is dropped
+   */
+  public void updateAdjustmentEpsilons(double zoomEpsilon, double tiltEpsilon) {
+    adjustmentCoalescer.updateEpsilons(zoomEpsilon, tiltEpsilon);
+  }
+
+  /**
+   * Number of zoom and tilt adjustments started while tracking, counting both as one.
+   *
+   * @return issued adjustment count
+   */
+  public long getIssuedAdjustmentCount() {
+    return adjustmentCoalescer.retrieveIssuedAdjustments();
+  }
+
+  /**
+   * Number of zoom and tilt adjustments dropped because they matched the adjustment in flight.
+   *
+   * @return suppressed adjustment count
+   */
+  public long getSuppressedAdjustmentCount() {
+    return adjustmentCoalescer.retrieveSuppressedAdjustments();
+  }
+
   /**
    * Resets the map camera / padding to the last known camera position.
    * <p>
@@ -218,7 +251,7 @@ public class NavigationCamera implements LifecycleObserver {
   public void showRouteOverview(int[] padding) {
     updateCameraTrackingMode(NAVIGATION_TRACKING_MODE_NONE);
     RouteInformation routeInformation = buildRouteInformationFromProgress(currentRouteProgress);
-    animateCameraForRouteOverview(routeInformation, padding);
+    animateCameraForRouteOverview(routeInformation, currentRouteProgress, padding);
   }
 
   /**
@@ -433,20 +466,52 @@ public class NavigationCamera implements LifecycleObserver {
     }
   }
 
-  private void animateCameraForRouteOverview(RouteInformation routeInformation, int[] padding) {
+  /**
+   * Takes the overview from the navigation camera engine. The default {@link DynamicCamera} returns
+   * the whole route geometry, so its overview is built from the cached route bounds instead.
+   * Subclasses may override the overview, so only the exact default class takes that path.
+   */
+  private void animateCameraForRouteOverview(RouteInformation routeInformation,
+                                             @Nullable RouteProgress routeProgress, int[] padding) {
     Camera cameraEngine = navigation.getCameraEngine();
+    if (cameraEngine.getClass() == DynamicCamera.class) {
+      animateDynamicCameraForRouteOverview(routeInformation.route(), routeProgress, padding);
+      return;
+    }
     List<Point> routePoints = cameraEngine.overview(routeInformation);
-    if (!routePoints.isEmpty()) {
-      animateMapboxMapForRouteOverview(padding, routePoints);
+    if (routePoints.size() > ONE_POINT) {
+      animateMapboxMapForRouteOverview(padding, convertRoutePointsToLatLngBounds(routePoints));
     }
   }
 
-  private void animateMapboxMapForRouteOverview(int[] padding, List<Point> routePoints) {
-    if (routePoints.size() <= ONE_POINT) {
+  private void animateDynamicCameraForRouteOverview(@Nullable DirectionsRoute route,
+                                                    @Nullable RouteProgress routeProgress, int[] padding) {
+    if (route == null) {
+      return;
+    }
+    RouteGeometry routeGeometry = RouteGeometryCache.getInstance().obtainRouteGeometry(route);
+    if (routeGeometry == null || routeGeometry.size() <= ONE_POINT) {
       return;
     }
+    LatLngBounds overviewBounds = buildOverviewBounds(routeGeometry, routeProgress);
+    animateMapboxMapForRouteOverview(padding, overviewBounds);
+  }
+
+  /**
+   * Uses the bounds of the route ahead once progress is known, so the overview does not
+   * include the part of the route already driven.
+   */
+  private LatLngBounds buildOverviewBounds(RouteGeometry routeGeometry, @Nullable RouteProgress routeProgress) {
+    RouteBounds routeBounds = routeGeometry.bounds();
+    if (routeProgress == null) {
+      return routeBounds.toLatLngBounds();
+    }
+    return routeBounds.remainingLatLngBounds(routeProgress.distanceTraveled());
+  }
+
+  private void animateMapboxMapForRouteOverview(int[] padding, LatLngBounds overviewBounds) {
     CameraUpdate resetUpdate = buildResetCameraUpdate();
-    final CameraUpdate overviewUpdate = buildOverviewCameraUpdate(padding, routePoints);
+    final CameraUpdate overviewUpdate = buildOverviewCameraUpdate(padding, overviewBounds);
     mapboxMap.animateCamera(resetUpdate, 150,
       new CameraOverviewCancelableCallback(overviewUpdate, mapboxMap)
     );
@@ -459,10 +524,9 @@ public class NavigationCamera implements LifecycleObserver {
   }
 
   @NonNull
-  private CameraUpdate buildOverviewCameraUpdate(int[] padding, List<Point> routePoints) {
-    final LatLngBounds routeBounds = convertRoutePointsToLatLngBounds(routePoints);
+  private CameraUpdate buildOverviewCameraUpdate(int[] padding, LatLngBounds overviewBounds) {
     return CameraUpdateFactory.newLatLngBounds(
-      routeBounds, padding[0], padding[1], padding[2], padding[3]
+      overviewBounds, padding[0], padding[1], padding[2], padding[3]
     );
   }
 
@@ -480,6 +544,7 @@ public class NavigationCamera implements LifecycleObserver {
     @CameraMode.Mode Integer cameraMode = findCameraModeFor(trackingCameraMode);
     if (cameraMode != null) {
       this.trackingCameraMode = trackingCameraMode;
+      adjustmentCoalescer.invalidateTarget();
       updateTrackingModeListenersWith(this.trackingCameraMode);
       if (cameraMode != locationComponent.getCameraMode()) {
         locationComponent.setCameraMode(cameraMode, cameraTransitionListener);
@@ -524,32 +589,14 @@ public class NavigationCamera implements LifecycleObserver {
     Camera camera = navigation.getCameraEngine();
     float tilt = (float) camera.tilt(routeInformation);
     double zoom = camera.zoom(routeInformation);
-    locationComponent.zoomWhileTracking(zoom, getZoomAnimationDuration(zoom), new ResetCancelableCallback(this));
-    locationComponent.tiltWhileTracking(tilt, getTiltAnimationDuration(tilt));
+    adjustmentCoalescer.adjust(zoom, tilt, new ResetCancelableCallback(this));
   }
 
   private void adjustCameraFromLocation(RouteInformation routeInformation) {
     Camera camera = navigation.getCameraEngine();
     float tilt = (float) camera.tilt(routeInformation);
     double zoom = camera.zoom(routeInformation);
-    locationComponent.zoomWhileTracking(zoom, getZoomAnimationDuration(zoom));
-    locationComponent.tiltWhileTracking(tilt, getTiltAnimationDuration(tilt));
-  }
-
-  private long getZoomAnimationDuration(double zoom) {
-    double zoomDiff = Math.abs(mapboxMap.getCameraPosition().zoom - zoom);
-    return (long) MathUtils.clamp(
-      500 * zoomDiff,
-      NAVIGATION_MIN_CAMERA_ZOOM_ADJUSTMENT_ANIMATION_DURATION,
-      NAVIGATION_MAX_CAMERA_ADJUSTMENT_ANIMATION_DURATION);
-  }
-
-  private long getTiltAnimationDuration(double tilt) {
-    double tiltDiff = Math.abs(mapboxMap.getCameraPosition().tilt - tilt);
-    return (long) MathUtils.clamp(
-      500 * tiltDiff,
-      NAVIGATION_MIN_CAMERA_TILT_ADJUSTMENT_ANIMATION_DURATION,
-      NAVIGATION_MAX_CAMERA_ADJUSTMENT_ANIMATION_DURATION);
+    adjustmentCoalescer.adjust(zoom, tilt);
   }
 
   @Retention(RetentionPolicy.SOURCE)
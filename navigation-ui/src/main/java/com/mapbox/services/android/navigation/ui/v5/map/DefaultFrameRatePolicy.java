@@ -0,0 +1,89 @@
+package com.mapbox.services.android.navigation.ui.v5.map;
+
+/**
+ * Renders at the throttled rate while cruising and at {@link #MANEUVER_FPS} around turns or while
+ * charging. The location icon follows a zoom ladder, slowed down while the rider is standing still.
+ * <p>
+ * Both caps are lowered to the rate the device actually achieves when the measured frame
+ * duration shows it cannot keep up, so frames are not requested only to be dropped.
+ */
+class DefaultFrameRatePolicy implements FrameRatePolicy {
+
+  private static final int MANEUVER_FPS = 30;
+  private static final int STATIONARY_FPS = 10;
+  private static final int MIN_FPS = 5;
+  private static final int FPS_STEP = 5;
+  private static final float STATIONARY_SPEED_METERS_PER_SECOND = 0.5f;
+  private static final float LOW_BATTERY_LEVEL = 0.15f;
+  private static final double VALID_DURATION_IN_SECONDS_UNTIL_NEXT_MANEUVER = 7d;
+  private static final double VALID_DURATION_IN_SECONDS_SINCE_PREVIOUS_MANEUVER = 5d;
+  private static final double NEAR_MANEUVER_DISTANCE_METERS = 50d;
+  private static final double MILLIS_PER_SECOND = 1000d;
+  private static final double[] ZOOM_LEVELS = {5d, 10d, 14d, 16d, 18d};
+  private static final int[] ZOOM_LEVEL_ANIMATION_FPS = {3, 5, 10, 15, 25};
+
+  @Override
+  public int mapFpsFor(FrameRateInputs inputs) {
+    int maxFps;
+    boolean isNearManeuver = isNearManeuver(inputs);
+    if (inputs.isPluggedIn || isNearManeuver) {
+      maxFps = MANEUVER_FPS;
+    } else if (isStationary(inputs)) {
+      maxFps = Math.min(inputs.maxFpsThreshold, STATIONARY_FPS);
+    } else {
+      maxFps = inputs.maxFpsThreshold;
+    }
+    if (isBatteryLow(inputs) && !isNearManeuver) {
+      maxFps = Math.min(maxFps, STATIONARY_FPS);
+    }
+    return limitToRenderingCost(maxFps, inputs);
+  }
+
+  @Override
+  public int locationFpsFor(FrameRateInputs inputs) {
+    int maxFps = DEVICE_MAX_FPS;
+    for (int i = 0; i < ZOOM_LEVELS.length; i++) {
+      if (inputs.zoom < ZOOM_LEVELS[i]) {
+        maxFps = ZOOM_LEVEL_ANIMATION_FPS[i];
+        break;
+      }
+    }
+    if (isStationary(inputs)) {
+      maxFps = Math.min(maxFps, MIN_FPS);
+    }
+    return limitToRenderingCost(maxFps, inputs);
+  }
+
+  private boolean isNearManeuver(FrameRateInputs inputs) {
+    if (inputs.isStraightManeuver) {
+      return false;
+    }
+    return inputs.distanceToManeuverMeters <= NEAR_MANEUVER_DISTANCE_METERS
+      || inputs.durationToManeuverSeconds <= VALID_DURATION_IN_SECONDS_UNTIL_NEXT_MANEUVER
+      || inputs.durationSinceManeuverSeconds <= VALID_DURATION_IN_SECONDS_SINCE_PREVIOUS_MANEUVER;
+  }
+
+  private boolean isStationary(FrameRateInputs inputs) {
+    return inputs.speedMetersPerSecond != FrameRateInputs.UNKNOWN
+      && inputs.speedMetersPerSecond < STATIONARY_SPEED_METERS_PER_SECOND;
+  }
+
+  private boolean isBatteryLow(FrameRateInputs inputs) {
+    return !inputs.isPluggedIn
+      && inputs.batteryLevel != FrameRateInputs.UNKNOWN
+      && inputs.batteryLevel <= LOW_BATTERY_LEVEL;
+  }
+
+  /**
+   * Rounds the achieved frame rate down to a multiple of {@link #FPS_STEP}, so small variations
+   * of the measured frame duration do not move the cap.
+   */
+  private int limitToRenderingCost(int maxFps, FrameRateInputs inputs) {
+    if (inputs.averageFrameDurationMillis <= 0) {
+      return maxFps;
+    }
+    int achievedFps = (int) (MILLIS_PER_SECOND / inputs.averageFrameDurationMillis);
+    int achievedFpsStep = Math.max(MIN_FPS, achievedFps - achievedFps % FPS_STEP);
+    return Math.min(maxFps, achievedFpsStep);
+  }
+}
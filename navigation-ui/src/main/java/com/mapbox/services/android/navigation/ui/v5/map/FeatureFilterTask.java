@@ -1,32 +1,32 @@
 package com.mapbox.services.android.navigation.ui.v5.map;
 
 import android.location.Location;
-import android.os.AsyncTask;
 
 import com.mapbox.geojson.Feature;
-import com.mapbox.geojson.Point;
+import com.mapbox.services.android.navigation.ui.v5.route.RouteGeometry;
+import com.mapbox.services.android.navigation.ui.v5.utils.NavigationComputeTask;
 
 import java.util.List;
 
-class FeatureFilterTask extends AsyncTask<Void, Void, Feature> {
+class FeatureFilterTask extends NavigationComputeTask<Feature> {
 
   private final WaynameFeatureFilter filter;
   private final OnFeatureFilteredCallback callback;
 
   FeatureFilterTask(List<Feature> queriedFeatures, Location currentLocation,
-                    List<Point> currentStepPoints, OnFeatureFilteredCallback callback) {
-    filter = new WaynameFeatureFilter(queriedFeatures, currentLocation, currentStepPoints);
+                    RouteGeometry currentStepGeometry, OnFeatureFilteredCallback callback) {
+    filter = new WaynameFeatureFilter(queriedFeatures, currentLocation.getLongitude(),
+      currentLocation.getLatitude(), currentStepGeometry);
     this.callback = callback;
   }
 
   @Override
-  protected Feature doInBackground(Void... voids) {
+  protected Feature doInBackground() {
     return filter.filterFeatures();
   }
 
   @Override
   protected void onPostExecute(Feature feature) {
-    super.onPostExecute(feature);
     callback.onFeatureFiltered(feature);
   }
 }
@@ -15,6 +15,6 @@ class FpsDelegateProgressChangeListener implements ProgressChangeListener {
 
   @Override
   public void onProgressChange(Location location, RouteProgress routeProgress) {
-    fpsDelegate.adjustFpsFor(routeProgress);
+    fpsDelegate.adjustFpsFor(location, routeProgress);
   }
 }
@@ -0,0 +1,121 @@
+package com.mapbox.services.android.navigation.ui.v5.map;
+
+import android.os.SystemClock;
+
+import com.mapbox.mapboxsdk.maps.MapView;
+
+/**
+ * Measures the smoothed time the map takes to render a frame, from the start of a frame until the
+ * {@link MapView} reports it finished.
+ * <p>
+ * Frames are sampled in windows of {@link #SAMPLES_PER_WINDOW}, after which the map listeners are
+ * removed, so nothing runs per frame while the frame rate cap holds. A new window is started when
+ * the cap changes or the last window is older than {@link #STALE_WINDOW_MILLIS}.
+ */
+class FrameDurationMonitor implements MapView.OnWillStartRenderingFrameListener,
+  MapView.OnDidFinishRenderingFrameListener {
+
+  private static final double SMOOTHING_FACTOR = 0.1d;
+  private static final int SAMPLES_PER_WINDOW = 60;
+  private static final long STALE_WINDOW_MILLIS = 30_000L;
+  private static final long MAX_FRAME_DURATION_NANOS = 250_000_000L;
+  private static final double NANOS_PER_MILLI = 1_000_000d;
+  private static final long NONE = -1;
+  private final MapView mapView;
+  private long frameStartNanos = NONE;
+  private long windowStartedAt = NONE;
+  private double averageFrameDurationMillis;
+  private int remainingSamples;
+  private boolean isRunning;
+  private boolean isSampling;
+
+  FrameDurationMonitor(MapView mapView) {
+    this.mapView = mapView;
+  }
+
+  @Override
+  public void onWillStartRenderingFrame() {
+    frameStartNanos = SystemClock.elapsedRealtimeNanos();
+  }
+
+  @Override
+  public void onDidFinishRenderingFrame(boolean fully) {
+    if (frameStartNanos == NONE) {
+      return;
+    }
+    long frameDurationNanos = SystemClock.elapsedRealtimeNanos() - frameStartNanos;
+    frameStartNanos = NONE;
+    if (frameDurationNanos > 0 && frameDurationNanos < MAX_FRAME_DURATION_NANOS) {
+      double frameDurationMillis = frameDurationNanos / NANOS_PER_MILLI;
+      if (averageFrameDurationMillis == 0) {
+        averageFrameDurationMillis = frameDurationMillis;
+      } else {
+        averageFrameDurationMillis += SMOOTHING_FACTOR * (frameDurationMillis - averageFrameDurationMillis);
+      }
+    }
+    remainingSamples--;
+    if (remainingSamples <= 0) {
+      stopSampling();
+    }
+  }
+
+  void updateRunning(boolean isRunning) {
+    if (this.isRunning == isRunning) {
+      return;
+    }
+    this.isRunning = isRunning;
+    if (isRunning) {
+      startSampling(SystemClock.elapsedRealtime());
+    } else {
+      stopSampling();
+    }
+  }
+
+  /**
+   * Starts a new sampling window, unless one is already running.
+   *
+   * @param elapsedTime current {@link SystemClock#elapsedRealtime()}
+   */
+  void resample(long elapsedTime) {
+    if (isRunning && !isSampling) {
+      startSampling(elapsedTime);
+    }
+  }
+
+  /**
+   * @param elapsedTime current {@link SystemClock#elapsedRealtime()}
+   */
+  void resampleIfStale(long elapsedTime) {
+    if (windowStartedAt == NONE || elapsedTime - windowStartedAt >= STALE_WINDOW_MILLIS) {
+      resample(elapsedTime);
+    }
+  }
+
+  /**
+   * @return smoothed frame render duration in milliseconds, or 0 if nothing was measured yet
+   */
+  double retrieveAverageFrameDurationMillis() {
+    return averageFrameDurationMillis;
+  }
+
+  private void startSampling(long elapsedTime) {
+    remainingSamples = SAMPLES_PER_WINDOW;
+    windowStartedAt = elapsedTime;
+    frameStartNanos = NONE;
+    if (!isSampling) {
+      mapView.addOnWillStartRenderingFrameListener(this);
+      mapView.addOnDidFinishRenderingFrameListener(this);
+      isSampling = true;
+    }
+  }
+
+  private void stopSampling() {
+    if (!isSampling) {
+      return;
+    }
+    mapView.removeOnWillStartRenderingFrameListener(this);
+    mapView.removeOnDidFinishRenderingFrameListener(this);
+    isSampling = false;
+    frameStartNanos = NONE;
+  }
+}
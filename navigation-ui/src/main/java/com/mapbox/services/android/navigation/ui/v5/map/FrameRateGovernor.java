@@ -0,0 +1,141 @@
+package com.mapbox.services.android.navigation.ui.v5.map;
+
+import android.content.Context;
+import android.location.Location;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+import com.mapbox.api.directions.v5.models.LegStep;
+import com.mapbox.mapboxsdk.maps.MapView;
+import com.mapbox.services.android.navigation.v5.navigation.NavigationConstants;
+import com.mapbox.services.android.navigation.v5.routeprogress.RouteLegProgress;
+import com.mapbox.services.android.navigation.v5.routeprogress.RouteProgress;
+import com.mapbox.services.android.navigation.v5.routeprogress.RouteStepProgress;
+
+/**
+ * Single source of the map and location icon frame rate caps.
+ * <p>
+ * Collects measured frame durations, rider speed, zoom, the upcoming maneuver and the battery
+ * state into {@link FrameRateInputs} and asks a {@link FrameRatePolicy} for the caps. A higher cap
+ * is applied right away, while a lower cap has to hold for {@link #LOWER_FPS_HOLD_MILLIS} first,
+ * so the frame rate does not flap around a threshold. Frame durations are sampled again whenever
+ * the map cap changes.
+ */
+class FrameRateGovernor {
+
+  private static final long LOWER_FPS_HOLD_MILLIS = 2000;
+  private static final int UNKNOWN_FPS = -1;
+  private final Context context;
+  private final MapBatteryMonitor batteryMonitor;
+  private final FrameDurationMonitor frameDurationMonitor;
+  private final FrameRateInputs inputs = new FrameRateInputs();
+  private final FrameRateHysteresis mapFpsHysteresis = new FrameRateHysteresis();
+  private final FrameRateHysteresis locationFpsHysteresis = new FrameRateHysteresis();
+  private FrameRatePolicy policy;
+  private int lastMapFps = UNKNOWN_FPS;
+
+  FrameRateGovernor(MapView mapView) {
+    this(mapView.getContext(), new MapBatteryMonitor(), new FrameDurationMonitor(mapView),
+      new DefaultFrameRatePolicy());
+  }
+
+  // Package private (no modifier) for testing purposes
+  FrameRateGovernor(Context context, MapBatteryMonitor batteryMonitor, FrameDurationMonitor frameDurationMonitor,
+                    FrameRatePolicy policy) {
+    this.context = context;
+    this.batteryMonitor = batteryMonitor;
+    this.frameDurationMonitor = frameDurationMonitor;
+    this.policy = policy;
+  }
+
+  void updatePolicy(@NonNull FrameRatePolicy policy) {
+    this.policy = policy;
+  }
+
+  void updateFrameSampling(boolean isSampling) {
+    frameDurationMonitor.updateRunning(isSampling);
+  }
+
+  void updateMaxFpsThreshold(int maxFpsThreshold) {
+    inputs.maxFpsThreshold = maxFpsThreshold;
+  }
+
+  void updateZoom(double zoom) {
+    inputs.zoom = zoom;
+  }
+
+  void updateProgress(Location location, RouteProgress routeProgress) {
+    inputs.speedMetersPerSecond = location.hasSpeed() ? location.getSpeed() : FrameRateInputs.UNKNOWN;
+    RouteLegProgress legProgress = routeProgress.currentLegProgress();
+    RouteStepProgress stepProgress = legProgress.currentStepProgress();
+    LegStep currentStep = legProgress.currentStep();
+    String maneuverModifier = currentStep.maneuver().modifier();
+    inputs.isStraightManeuver = maneuverModifier != null
+      && (maneuverModifier.equals(NavigationConstants.STEP_MANEUVER_MODIFIER_STRAIGHT)
+      || maneuverModifier.equals(NavigationConstants.STEP_MANEUVER_MODIFIER_SLIGHT_LEFT)
+      || maneuverModifier.equals(NavigationConstants.STEP_MANEUVER_MODIFIER_SLIGHT_RIGHT));
+    inputs.distanceToManeuverMeters = stepProgress.distanceRemaining();
+    inputs.durationToManeuverSeconds = stepProgress.durationRemaining();
+    inputs.durationSinceManeuverSeconds = currentStep.duration() - stepProgress.durationRemaining();
+  }
+
+  int retrieveMapFps() {
+    long elapsedTime = SystemClock.elapsedRealtime();
+    updateFrameAndBatteryInputs(elapsedTime);
+    int mapFps = mapFpsHysteresis.update(policy.mapFpsFor(inputs), elapsedTime);
+    if (mapFps != lastMapFps) {
+      lastMapFps = mapFps;
+      frameDurationMonitor.resample(elapsedTime);
+    }
+    return mapFps;
+  }
+
+  int retrieveLocationFps() {
+    long elapsedTime = SystemClock.elapsedRealtime();
+    updateFrameAndBatteryInputs(elapsedTime);
+    return locationFpsHysteresis.update(policy.locationFpsFor(inputs), elapsedTime);
+  }
+
+  void resetMapFps() {
+    mapFpsHysteresis.reset();
+    lastMapFps = UNKNOWN_FPS;
+  }
+
+  void resetLocationFps() {
+    locationFpsHysteresis.reset();
+  }
+
+  private void updateFrameAndBatteryInputs(long elapsedTime) {
+    frameDurationMonitor.resampleIfStale(elapsedTime);
+    inputs.averageFrameDurationMillis = frameDurationMonitor.retrieveAverageFrameDurationMillis();
+    inputs.isPluggedIn = batteryMonitor.isPluggedIn(context);
+    inputs.batteryLevel = batteryMonitor.retrieveBatteryLevel(context);
+  }
+
+  static class FrameRateHysteresis {
+
+    private static final int NONE = -1;
+    private int currentFps = NONE;
+    private long lowerFpsRequestedAt = NONE;
+
+    int update(int targetFps, long elapsedTime) {
+      if (currentFps == NONE || targetFps > currentFps) {
+        currentFps = targetFps;
+        lowerFpsRequestedAt = NONE;
+      } else if (targetFps == currentFps) {
+        lowerFpsRequestedAt = NONE;
+      } else if (lowerFpsRequestedAt == NONE) {
+        lowerFpsRequestedAt = elapsedTime;
+      } else if (elapsedTime - lowerFpsRequestedAt >= LOWER_FPS_HOLD_MILLIS) {
+        currentFps = targetFps;
+        lowerFpsRequestedAt = NONE;
+      }
+      return currentFps;
+    }
+
+    void reset() {
+      currentFps = NONE;
+      lowerFpsRequestedAt = NONE;
+    }
+  }
+}
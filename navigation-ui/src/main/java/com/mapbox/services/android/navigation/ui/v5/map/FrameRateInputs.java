@@ -0,0 +1,169 @@
+package com.mapbox.services.android.navigation.ui.v5.map;
+
+/**
+ * Snapshot of the signals a {@link FrameRatePolicy} decides on, updated by the navigation map
+ * before each call to the policy.
+ * <p>
+ * Use {@link #builder()} to build synthetic inputs when testing a policy.
+ */
+public final class FrameRateInputs {
+
+  /**
+   * Value of the speed and battery level when they are not known.
+   */
+  public static final float UNKNOWN = -1f;
+  int maxFpsThreshold = MapFpsDelegate.DEFAULT_MAX_FPS_THRESHOLD;
+  double averageFrameDurationMillis;
+  float speedMetersPerSecond = UNKNOWN;
+  double zoom;
+  boolean isStraightManeuver = true;
+  double distanceToManeuverMeters = Double.MAX_VALUE;
+  double durationToManeuverSeconds = Double.MAX_VALUE;
+  double durationSinceManeuverSeconds = Double.MAX_VALUE;
+  boolean isPluggedIn;
+  float batteryLevel = UNKNOWN;
+
+  FrameRateInputs() {
+  }
+
+  /**
+   * @return a builder starting from the values the navigation map uses before any update
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * @return map frame rate set with {@link NavigationMapboxMap#updateMapFpsThrottle(int)}
+   */
+  public int maxFpsThreshold() {
+    return maxFpsThreshold;
+  }
+
+  /**
+   * @return smoothed time the map takes to render a frame, or 0 if not measured yet
+   */
+  public double averageFrameDurationMillis() {
+    return averageFrameDurationMillis;
+  }
+
+  /**
+   * @return speed of the last location, or {@link #UNKNOWN}
+   */
+  public float speedMetersPerSecond() {
+    return speedMetersPerSecond;
+  }
+
+  public double zoom() {
+    return zoom;
+  }
+
+  /**
+   * @return true if the current step ends with a straight or slight maneuver
+   */
+  public boolean isStraightManeuver() {
+    return isStraightManeuver;
+  }
+
+  public double distanceToManeuverMeters() {
+    return distanceToManeuverMeters;
+  }
+
+  public double durationToManeuverSeconds() {
+    return durationToManeuverSeconds;
+  }
+
+  public double durationSinceManeuverSeconds() {
+    return durationSinceManeuverSeconds;
+  }
+
+  public boolean isPluggedIn() {
+    return isPluggedIn;
+  }
+
+  /**
+   * @return battery charge between 0 and 1, or {@link #UNKNOWN}
+   */
+  public float batteryLevel() {
+    return batteryLevel;
+  }
+
+  /**
+   * Builds {@link FrameRateInputs}, for example to test a {@link FrameRatePolicy}.
+   */
+  public static final class Builder {
+
+    private final FrameRateInputs inputs = new FrameRateInputs();
+
+    Builder() {
+    }
+
+    public Builder maxFpsThreshold(int maxFpsThreshold) {
+      inputs.maxFpsThreshold = maxFpsThreshold;
+      return this;
+    }
+
+    public Builder averageFrameDurationMillis(double averageFrameDurationMillis) {
+      inputs.averageFrameDurationMillis = averageFrameDurationMillis;
+      return this;
+    }
+
+    public Builder speedMetersPerSecond(float speedMetersPerSecond) {
+      inputs.speedMetersPerSecond = speedMetersPerSecond;
+      return this;
+    }
+
+    public Builder zoom(double zoom) {
+      inputs.zoom = zoom;
+      return this;
+    }
+
+    public Builder isStraightManeuver(boolean isStraightManeuver) {
+      inputs.isStraightManeuver = isStraightManeuver;
+      return this;
+    }
+
+    public Builder distanceToManeuverMeters(double distanceToManeuverMeters) {
+      inputs.distanceToManeuverMeters = distanceToManeuverMeters;
+      return this;
+    }
+
+    public Builder durationToManeuverSeconds(double durationToManeuverSeconds) {
+      inputs.durationToManeuverSeconds = durationToManeuverSeconds;
+      return this;
+    }
+
+    public Builder durationSinceManeuverSeconds(double durationSinceManeuverSeconds) {
+      inputs.durationSinceManeuverSeconds = durationSinceManeuverSeconds;
+      return this;
+    }
+
+    public Builder isPluggedIn(boolean isPluggedIn) {
+      inputs.isPluggedIn = isPluggedIn;
+      return this;
+    }
+
+    public Builder batteryLevel(float batteryLevel) {
+      inputs.batteryLevel = batteryLevel;
+      return this;
+    }
+
+    /**
+     * @return a new instance, so the builder can be reused
+     */
+    public FrameRateInputs build() {
+      FrameRateInputs built = new FrameRateInputs();
+      built.maxFpsThreshold = inputs.maxFpsThreshold;
+      built.averageFrameDurationMillis = inputs.averageFrameDurationMillis;
+      built.speedMetersPerSecond = inputs.speedMetersPerSecond;
+      built.zoom = inputs.zoom;
+      built.isStraightManeuver = inputs.isStraightManeuver;
+      built.distanceToManeuverMeters = inputs.distanceToManeuverMeters;
+      built.durationToManeuverSeconds = inputs.durationToManeuverSeconds;
+      built.durationSinceManeuverSeconds = inputs.durationSinceManeuverSeconds;
+      built.isPluggedIn = inputs.isPluggedIn;
+      built.batteryLevel = inputs.batteryLevel;
+      return built;
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.mapbox.services.android.navigation.ui.v5.map;
+
+/**
+ * Decides the frame rate caps applied to the navigation map and its location icon.
+ * <p>
+ * Set a custom policy with {@link NavigationMapboxMap#updateFrameRatePolicy(FrameRatePolicy)}.
+ * Caps are asked for on every progress update and camera idle, so implementations should be cheap.
+ */
+public interface FrameRatePolicy {
+
+  /**
+   * Cap that leaves the frame rate to the device.
+   */
+  int DEVICE_MAX_FPS = Integer.MAX_VALUE;
+
+  /**
+   * @param inputs current rendering, motion, route and battery signals
+   * @return maximum frames per second for the map
+   */
+  int mapFpsFor(FrameRateInputs inputs);
+
+  /**
+   * @param inputs current rendering, motion, route and battery signals
+   * @return maximum frames per second for the location icon animation
+   */
+  int locationFpsFor(FrameRateInputs inputs);
+}
@@ -1,33 +1,25 @@
 package com.mapbox.services.android.navigation.ui.v5.map;
 
 import android.content.Context;
-import android.content.Intent;
-import android.content.IntentFilter;
-import android.os.BatteryManager;
-import android.os.Build;
+
+import com.mapbox.services.android.navigation.ui.v5.utils.BatteryStateMonitor;
 
 class MapBatteryMonitor {
 
-  private static final int DEFAULT_BATTERY_LEVEL = -1;
+  private BatteryStateMonitor batteryStateMonitor;
 
   boolean isPluggedIn(Context context) {
-    Intent batteryStatus = registerBatteryUpdates(context);
-    if (batteryStatus == null) {
-      return false;
-    }
+    return retrieveBatteryStateMonitor(context).isPluggedIn();
+  }
 
-    int chargePlug = batteryStatus.getIntExtra(BatteryManager.EXTRA_PLUGGED, DEFAULT_BATTERY_LEVEL);
-    boolean pluggedUsb = chargePlug == BatteryManager.BATTERY_PLUGGED_USB;
-    boolean pluggedAc = chargePlug == BatteryManager.BATTERY_PLUGGED_AC;
-    boolean isPlugged = pluggedUsb || pluggedAc;
-    if (Build.VERSION.SDK_INT > Build.VERSION_CODES.JELLY_BEAN) {
-      isPlugged = isPlugged || chargePlug == BatteryManager.BATTERY_PLUGGED_WIRELESS;
-    }
-    return isPlugged;
+  float retrieveBatteryLevel(Context context) {
+    return retrieveBatteryStateMonitor(context).retrieveBatteryLevel();
   }
 
-  private static Intent registerBatteryUpdates(Context context) {
-    IntentFilter filter = new IntentFilter(Intent.ACTION_BATTERY_CHANGED);
-    return context.registerReceiver(null, filter);
+  private BatteryStateMonitor retrieveBatteryStateMonitor(Context context) {
+    if (batteryStateMonitor == null) {
+      batteryStateMonitor = BatteryStateMonitor.getInstance(context);
+    }
+    return batteryStateMonitor;
   }
-}
\ No newline at end of file
+}
@@ -2,14 +2,15 @@ package com.mapbox.services.android.navigation.ui.v5.map;
 
 import android.graphics.PointF;
 import android.location.Location;
-import android.os.AsyncTask;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 
+import com.mapbox.api.directions.v5.models.LegStep;
 import com.mapbox.geojson.Feature;
-import com.mapbox.geojson.Point;
+import com.mapbox.services.android.navigation.ui.v5.route.RouteGeometry;
+import com.mapbox.services.android.navigation.ui.v5.utils.NavigationComputeExecutor;
 import com.mapbox.services.android.navigation.v5.navigation.MapboxNavigation;
 
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -22,11 +23,15 @@ class MapWayName {
   private static final String EMPTY_CURRENT_WAY_NAME = "";
   private final MapWaynameProgressChangeListener progressChangeListener = new MapWaynameProgressChangeListener(this);
   private final Set<OnWayNameChangedListener> onWayNameChangedListeners;
+  private final WaynameQueryScheduler queryScheduler = new WaynameQueryScheduler();
+  private final WaynameRouteResolver routeResolver = new WaynameRouteResolver();
   private WaynameFeatureFinder featureInteractor;
-  private List<Point> currentStepPoints = new ArrayList<>();
+  private RouteGeometry currentStepGeometry;
   private Location currentLocation = null;
   private MapboxNavigation navigation;
   private boolean isAutoQueryEnabled;
+  private boolean isRouteDataEnabled;
+  private String routeWayName;
   private FeatureFilterTask filterTask;
   private String wayName = EMPTY_CURRENT_WAY_NAME;
 
@@ -36,6 +41,24 @@ class MapWayName {
     this.onWayNameChangedListeners = new HashSet<>();
   }
 
+  /**
+   * Queries the road under the given location, unless {@link WaynameQueryScheduler} finds the
+   * current way name is still valid, which avoids the screen projection and rendered feature query.
+   *
+   * @param location of the latest fix
+   */
+  void updateWayNameWithLocation(Location location) {
+    if (!isAutoQueryEnabled || hasRouteWayName()) {
+      return;
+    }
+    long elapsedTime = SystemClock.elapsedRealtime();
+    if (!queryScheduler.shouldQuery(location, currentStepGeometry, elapsedTime)) {
+      return;
+    }
+    queryScheduler.onQueried(location, currentStepGeometry, elapsedTime);
+    updateWayNameWithPoint(featureInteractor.toScreenLocation(location));
+  }
+
   void updateWayNameWithPoint(PointF point) {
     if (!isAutoQueryEnabled) {
       return;
@@ -43,22 +66,50 @@ class MapWayName {
     List<Feature> roadLabelFeatures = findRoadLabelFeatures(point);
     boolean invalidLabelFeatures = roadLabelFeatures.isEmpty();
     if (invalidLabelFeatures) {
+      queryScheduler.onNoFeatureMatched();
       return;
     }
     executeFeatureFilterTask(roadLabelFeatures);
   }
 
-  void updateProgress(Location currentLocation, List<Point> currentStepPoints) {
-    if (!this.currentStepPoints.equals(currentStepPoints)) {
-      this.currentStepPoints = currentStepPoints;
-    }
+  void updateProgress(Location currentLocation, RouteGeometry currentStepGeometry, LegStep currentStep) {
+    this.currentStepGeometry = currentStepGeometry;
     if (this.currentLocation == null || !this.currentLocation.equals(currentLocation)) {
       this.currentLocation = currentLocation;
     }
+    routeWayName = isRouteDataEnabled ? routeResolver.resolve(currentStep) : null;
+    if (isAutoQueryEnabled && hasRouteWayName()) {
+      cancelFilterTask();
+      updateWayName(routeWayName);
+    }
   }
 
   void updateWayNameQueryMap(boolean isEnabled) {
     isAutoQueryEnabled = isEnabled;
+    queryScheduler.reset();
+  }
+
+  /**
+   * @param isEnabled true to take the way name from the current route step, falling back to
+   *                  the rendered road labels only when the step has no name
+   */
+  void updateRouteDataEnabled(boolean isEnabled) {
+    isRouteDataEnabled = isEnabled;
+    if (!isEnabled) {
+      routeWayName = null;
+    }
+  }
+
+  boolean isRouteDataEnabled() {
+    return isRouteDataEnabled;
+  }
+
+  void updateQueryDistance(double queryDistance) {
+    queryScheduler.updateQueryDistance(queryDistance);
+  }
+
+  double retrieveQueryDistance() {
+    return queryScheduler.retrieveQueryDistance();
   }
 
   void addProgressChangeListener(MapboxNavigation navigation) {
@@ -81,9 +132,7 @@ class MapWayName {
   }
 
   void onStop() {
-    if (isTaskRunning()) {
-      filterTask.cancel(true);
-    }
+    cancelFilterTask();
     if (navigation != null) {
       navigation.removeProgressChangeListener(progressChangeListener);
     }
@@ -95,46 +144,55 @@ class MapWayName {
   }
 
   private void executeFeatureFilterTask(List<Feature> roadFeatures) {
-    if (isTaskRunning()) {
-      filterTask.cancel(true);
-    }
+    cancelFilterTask();
 
     if (hasValidProgressData()) {
-      filterTask = new FeatureFilterTask(roadFeatures, currentLocation, currentStepPoints,
+      filterTask = new FeatureFilterTask(roadFeatures, currentLocation, currentStepGeometry,
         new OnFeatureFilteredCallback() {
           @Override
           public void onFeatureFiltered(@NonNull Feature feature) {
+            queryScheduler.onFeatureMatched(feature);
             updateWayNameLayerWithNameProperty(feature);
           }
         });
-      filterTask.execute();
+      NavigationComputeExecutor.getInstance().execute(filterTask, NavigationComputeExecutor.PRIORITY_WAYNAME);
+    } else {
+      queryScheduler.onNoFeatureMatched();
     }
   }
 
-  private boolean isTaskRunning() {
-    return filterTask != null
-      && (filterTask.getStatus() == AsyncTask.Status.PENDING
-      || filterTask.getStatus() == AsyncTask.Status.RUNNING);
+  private void cancelFilterTask() {
+    if (filterTask != null) {
+      filterTask.cancel();
+      filterTask = null;
+    }
+  }
+
+  private boolean hasRouteWayName() {
+    return routeWayName != null;
   }
 
   private boolean hasValidProgressData() {
-    return currentLocation != null && !currentStepPoints.isEmpty();
+    return currentLocation != null && currentStepGeometry != null && currentStepGeometry.size() > 0;
   }
 
   private void updateWayNameLayerWithNameProperty(Feature roadFeature) {
     boolean hasValidNameProperty = roadFeature.hasNonNullValueForProperty(NAME_PROPERTY);
     if (hasValidNameProperty) {
-      String currentWayName = roadFeature.getStringProperty(NAME_PROPERTY);
-      boolean newWayName = !wayName.contentEquals(currentWayName);
-      if (newWayName) {
-        updateListenersWith(currentWayName);
-        wayName = currentWayName;
-      }
+      updateWayName(roadFeature.getStringProperty(NAME_PROPERTY));
     } else {
       updateListenersWith(EMPTY_CURRENT_WAY_NAME);
     }
   }
 
+  private void updateWayName(String currentWayName) {
+    boolean newWayName = !wayName.contentEquals(currentWayName);
+    if (newWayName) {
+      updateListenersWith(currentWayName);
+      wayName = currentWayName;
+    }
+  }
+
   private void updateListenersWith(String currentWayName) {
     for (OnWayNameChangedListener listener : onWayNameChangedListeners) {
       listener.onWayNameChanged(currentWayName);
@@ -2,6 +2,8 @@ package com.mapbox.services.android.navigation.ui.v5.map;
 
 import android.location.Location;
 
+import com.mapbox.services.android.navigation.ui.v5.route.RouteGeometry;
+import com.mapbox.services.android.navigation.ui.v5.route.RouteGeometryCache;
 import com.mapbox.services.android.navigation.v5.routeprogress.ProgressChangeListener;
 import com.mapbox.services.android.navigation.v5.routeprogress.RouteProgress;
 
@@ -15,6 +17,8 @@ class MapWaynameProgressChangeListener implements ProgressChangeListener {
 
   @Override
   public void onProgressChange(Location location, RouteProgress routeProgress) {
-    mapWayName.updateProgress(location, routeProgress.currentStepPoints());
+    RouteGeometry currentStepGeometry = RouteGeometryCache.getInstance().obtainStepGeometry(
+      routeProgress.directionsRoute(), routeProgress.legIndex(), routeProgress.currentLegProgress().stepIndex());
+    mapWayName.updateProgress(location, currentStepGeometry, routeProgress.currentLegProgress().currentStep());
   }
 }
@@ -6,6 +6,7 @@ import android.os.Parcelable;
 import com.mapbox.services.android.navigation.ui.v5.camera.NavigationCamera;
 
 import static com.mapbox.services.android.navigation.ui.v5.map.MapFpsDelegate.DEFAULT_MAX_FPS_THRESHOLD;
+import static com.mapbox.services.android.navigation.ui.v5.map.WaynameQueryScheduler.DEFAULT_QUERY_DISTANCE;
 
 class NavigationMapSettings implements Parcelable {
 
@@ -15,6 +16,8 @@ class NavigationMapSettings implements Parcelable {
   private int maxFps = DEFAULT_MAX_FPS_THRESHOLD;
   private boolean maxFpsEnabled = true;
   private boolean mapWayNameEnabled;
+  private double mapWayNameQueryDistance = DEFAULT_QUERY_DISTANCE;
+  private boolean mapWayNameRouteDataEnabled;
   private boolean locationFpsEnabled = true;
 
   NavigationMapSettings() {
@@ -69,6 +72,22 @@ class NavigationMapSettings implements Parcelable {
     return mapWayNameEnabled;
   }
 
+  void updateWayNameQueryDistance(double mapWayNameQueryDistance) {
+    this.mapWayNameQueryDistance = mapWayNameQueryDistance;
+  }
+
+  double retrieveWayNameQueryDistance() {
+    return mapWayNameQueryDistance;
+  }
+
+  void updateWayNameRouteDataEnabled(boolean mapWayNameRouteDataEnabled) {
+    this.mapWayNameRouteDataEnabled = mapWayNameRouteDataEnabled;
+  }
+
+  boolean isMapWayNameRouteDataEnabled() {
+    return mapWayNameRouteDataEnabled;
+  }
+
   void updateLocationFpsEnabled(boolean locationFpsEnabled) {
     this.locationFpsEnabled = locationFpsEnabled;
   }
@@ -85,6 +104,8 @@ class NavigationMapSettings implements Parcelable {
     maxFpsEnabled = in.readByte() != 0;
     mapWayNameEnabled = in.readByte() != 0;
     locationFpsEnabled = in.readByte() != 0;
+    mapWayNameQueryDistance = in.readDouble();
+    mapWayNameRouteDataEnabled = in.readByte() != 0;
   }
 
   @Override
@@ -96,6 +117,8 @@ class NavigationMapSettings implements Parcelable {
     dest.writeByte((byte) (maxFpsEnabled ? 1 : 0));
     dest.writeByte((byte) (mapWayNameEnabled ? 1 : 0));
     dest.writeByte((byte) (locationFpsEnabled ? 1 : 0));
+    dest.writeDouble(mapWayNameQueryDistance);
+    dest.writeByte((byte) (mapWayNameRouteDataEnabled ? 1 : 0));
   }
 
   @Override
@@ -3,7 +3,6 @@ package com.mapbox.services.android.navigation.ui.v5.map;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.PointF;
 import android.location.Location;
 import android.os.Bundle;
 import android.os.PersistableBundle;
@@ -14,7 +13,6 @@ import android.support.v4.app.FragmentActivity;
 
 import com.mapbox.api.directions.v5.models.DirectionsRoute;
 import com.mapbox.geojson.Point;
-import com.mapbox.mapboxsdk.geometry.LatLng;
 import com.mapbox.mapboxsdk.location.LocationComponent;
 import com.mapbox.mapboxsdk.location.LocationComponentActivationOptions;
 import com.mapbox.mapboxsdk.location.LocationComponentOptions;
@@ -80,6 +78,7 @@ public class NavigationMapboxMap {
     @Nullable
     private MapFpsDelegate mapFpsDelegate;
     private LocationFpsDelegate locationFpsDelegate;
+    private FrameRateGovernor frameRateGovernor;
 
     /**
      * Constructor that can be used once {@link com.mapbox.mapboxsdk.maps.OnMapReadyCallback}
@@ -97,6 +96,7 @@ public class NavigationMapboxMap {
         initializeMapLayerInteractor(mapboxMap);
         initializeRoute(mapView, mapboxMap);
         initializeCamera(mapboxMap, locationComponent);
+        initializeFrameRateGovernor(mapView);
         initializeLocationFpsDelegate(mapboxMap, locationComponent);
     }
 
@@ -250,6 +250,20 @@ public class NavigationMapboxMap {
         locationFpsDelegate.updateEnabled(isEnabled);
     }
 
+    /**
+     * Replaces the policy deciding the map and location icon frame rate caps. The default policy
+     * throttles while cruising and renders faster around maneuvers or while charging.
+     * <p>
+     * Caps from the policy are only applied while throttling is enabled, see
+     * {@link NavigationMapboxMap#updateMapFpsThrottleEnabled(boolean)} and
+     * {@link NavigationMapboxMap#updateLocationFpsThrottleEnabled(boolean)}.
+     *
+     * @param policy deciding the frame rate caps
+     */
+    public void updateFrameRatePolicy(@NonNull FrameRatePolicy policy) {
+        frameRateGovernor.updatePolicy(policy);
+    }
+
     /**
      * Updates how the user location is shown on the map.
      * <p>
@@ -297,6 +311,10 @@ public class NavigationMapboxMap {
         settings.updateShouldUseDefaultPadding(mapPaddingAdjustor.isUsingDefault());
         settings.updateCameraTrackingMode(mapCamera.getCameraTrackingMode());
         settings.updateLocationFpsEnabled(locationFpsDelegate.isEnabled());
+        if (mapWayName != null) {
+            settings.updateWayNameQueryDistance(mapWayName.retrieveQueryDistance());
+            settings.updateWayNameRouteDataEnabled(mapWayName.isRouteDataEnabled());
+        }
         NavigationMapboxMapInstanceState instanceState = new NavigationMapboxMapInstanceState(settings);
         outState.putParcelable(key, instanceState);
     }
@@ -445,6 +463,36 @@ public class NavigationMapboxMap {
         mapCamera.showRouteOverview(padding);
     }
 
+    /**
+     * Sets how far the user has to travel before the road underneath the location icon is
+     * queried again for the way name chip. Queries are also skipped while the user stays on the
+     * road that was last matched for the current step. By default, this is 15 meters.
+     *
+     * @param queryDistance in meters
+     */
+    public void updateWaynameQueryDistance(double queryDistance) {
+        if (mapWayName != null) {
+            mapWayName.updateQueryDistance(queryDistance);
+        } else {
+            settings.updateWayNameQueryDistance(queryDistance);
+        }
+    }
+
+    /**
+     * Disabled by default, the way name chip can take the road name from the current step of the
+     * route instead of querying the rendered road labels. This works offline and without a
+     * rendered frame. The road labels are still queried when the step has no name.
+     *
+     * @param isEnabled true to read the way name from the route, false to query the map (default)
+     */
+    public void updateWaynameRouteDataEnabled(boolean isEnabled) {
+        if (mapWayName != null) {
+            mapWayName.updateRouteDataEnabled(isEnabled);
+        } else {
+            settings.updateWayNameRouteDataEnabled(isEnabled);
+        }
+    }
+
     /**
      * Enables or disables the way name chip underneath the location icon.
      *
@@ -664,8 +712,12 @@ public class NavigationMapboxMap {
         mapCamera = new NavigationCamera(map, locationComponent);
     }
 
+    private void initializeFrameRateGovernor(MapView mapView) {
+        frameRateGovernor = new FrameRateGovernor(mapView);
+    }
+
     private void initializeLocationFpsDelegate(MapboxMap map, LocationComponent locationComponent) {
-        locationFpsDelegate = new LocationFpsDelegate(map, locationComponent);
+        locationFpsDelegate = new LocationFpsDelegate(map, locationComponent, frameRateGovernor);
     }
 
     private void initializeWayName(MapboxMap mapboxMap, MapPaddingAdjustor paddingAdjustor) {
@@ -676,6 +728,8 @@ public class NavigationMapboxMap {
         WaynameFeatureFinder featureFinder = new WaynameFeatureFinder(mapboxMap);
         mapWayName = new MapWayName(featureFinder, paddingAdjustor);
         mapWayName.updateWayNameQueryMap(settings.isMapWayNameEnabled());
+        mapWayName.updateQueryDistance(settings.retrieveWayNameQueryDistance());
+        mapWayName.updateRouteDataEnabled(settings.isMapWayNameRouteDataEnabled());
         mapWayName.addOnWayNameChangedListener(internalWayNameChangedListener);
     }
 
@@ -713,8 +767,7 @@ public class NavigationMapboxMap {
         if (mapFpsDelegate != null) {
             return;
         }
-        MapBatteryMonitor batteryMonitor = new MapBatteryMonitor();
-        mapFpsDelegate = new MapFpsDelegate(mapView, batteryMonitor);
+        mapFpsDelegate = new MapFpsDelegate(mapView, frameRateGovernor);
         mapFpsDelegate.updateEnabled(settings.isMaxFpsEnabled());
         mapFpsDelegate.updateMaxFpsThreshold(settings.retrieveMaxFps());
         addFpsListenersToCamera();
@@ -734,9 +787,7 @@ public class NavigationMapboxMap {
         if (mapWayName == null) {
             return;
         }
-        LatLng latLng = new LatLng(location);
-        PointF mapPoint = mapboxMap.getProjection().toScreenLocation(latLng);
-        mapWayName.updateWayNameWithPoint(mapPoint);
+        mapWayName.updateWayNameWithLocation(location);
     }
 
     private void restoreMapWith(NavigationMapSettings settings) {
@@ -749,6 +800,8 @@ public class NavigationMapboxMap {
         }
         if (mapWayName != null) {
             mapWayName.updateWayNameQueryMap(settings.isMapWayNameEnabled());
+            mapWayName.updateQueryDistance(settings.retrieveWayNameQueryDistance());
+            mapWayName.updateRouteDataEnabled(settings.isMapWayNameRouteDataEnabled());
         }
         if (mapFpsDelegate != null) {
             mapFpsDelegate.updateMaxFpsThreshold(settings.retrieveMaxFps());
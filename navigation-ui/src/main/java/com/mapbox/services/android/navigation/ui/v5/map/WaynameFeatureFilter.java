@@ -1,161 +1,181 @@
 package com.mapbox.services.android.navigation.ui.v5.map;
 
-import android.location.Location;
 import android.support.annotation.NonNull;
-import android.support.annotation.Nullable;
 
 import com.mapbox.geojson.Feature;
 import com.mapbox.geojson.Geometry;
 import com.mapbox.geojson.LineString;
 import com.mapbox.geojson.MultiLineString;
 import com.mapbox.geojson.Point;
-import com.mapbox.turf.TurfMeasurement;
+import com.mapbox.services.android.navigation.ui.v5.route.RouteGeometry;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
-
-import static com.mapbox.turf.TurfConstants.UNIT_METRES;
-import static com.mapbox.turf.TurfMeasurement.along;
-import static com.mapbox.turf.TurfMisc.lineSlice;
-import static com.mapbox.turf.TurfMisc.lineSliceAlong;
-
+import java.util.Set;
+
+/**
+ * Picks the queried road feature the user is travelling on.
+ * <p>
+ * The user's location is projected onto each candidate road, and the points 10 meters ahead and
+ * behind on that road are compared with the point 10 meters ahead on the current step. The
+ * closest road wins. Road coordinates are flattened into reusable arrays in meters around the
+ * user's location, so the filter does not slice or copy any geometry.
+ */
 class WaynameFeatureFilter {
 
   private static final int FIRST = 0;
   private static final int ONE_FEATURE = 1;
   private static final int TWO_POINTS = 2;
-  private static final double ZERO_METERS = 0d;
+  private static final int INITIAL_CAPACITY = 32;
   private static final double TEN = 10d;
+  private static final double METERS_PER_DEGREE = 111319.49d;
   private final List<Feature> queriedFeatures;
-  private final Point currentPoint;
-  private final LineString currentStepLineString;
-
-  WaynameFeatureFilter(List<Feature> queriedFeatures, Location currentLocation, List<Point> currentStepPoints) {
-    this.queriedFeatures = new ArrayList<>(new HashSet<>(queriedFeatures));
-    this.currentPoint = Point.fromLngLat(currentLocation.getLongitude(), currentLocation.getLatitude());
-    this.currentStepLineString = LineString.fromLngLats(currentStepPoints);
+  private final double currentLongitude;
+  private final double currentLatitude;
+  private final double longitudeScale;
+  private final RouteGeometry currentStepGeometry;
+  private double[] lineX = new double[INITIAL_CAPACITY];
+  private double[] lineY = new double[INITIAL_CAPACITY];
+  private double[] lineDistances = new double[INITIAL_CAPACITY];
+  private double stepAheadX;
+  private double stepAheadY;
+
+  WaynameFeatureFilter(List<Feature> queriedFeatures, double currentLongitude, double currentLatitude,
+                       RouteGeometry currentStepGeometry) {
+    this.queriedFeatures = queriedFeatures;
+    this.currentLongitude = currentLongitude;
+    this.currentLatitude = currentLatitude;
+    this.longitudeScale = METERS_PER_DEGREE * Math.cos(Math.toRadians(currentLatitude));
+    this.currentStepGeometry = currentStepGeometry;
   }
 
   @NonNull
   Feature filterFeatures() {
-    return filterQueriedFeatures();
-  }
-
-  @NonNull
-  private Feature filterQueriedFeatures() {
     Feature filteredFeature = queriedFeatures.get(FIRST);
-    if (queriedFeatures.size() == ONE_FEATURE) {
+    if (countRoads(queriedFeatures) == ONE_FEATURE) {
+      return filteredFeature;
+    }
+    int stepCoordinatesSize = currentStepGeometry.size();
+    if (stepCoordinatesSize < TWO_POINTS) {
       return filteredFeature;
     }
+    int lastStepCoordinate = stepCoordinatesSize - 1;
+    if (currentLongitude == currentStepGeometry.longitude(lastStepCoordinate)
+      && currentLatitude == currentStepGeometry.latitude(lastStepCoordinate)) {
+      return filteredFeature;
+    }
+    double currentDistanceAlongStep = currentStepGeometry.projectDistanceAlong(currentLongitude, currentLatitude);
+    Point pointAheadUserOnStep = currentStepGeometry.pointAlong(currentDistanceAlongStep + TEN);
+    stepAheadX = (pointAheadUserOnStep.longitude() - currentLongitude) * longitudeScale;
+    stepAheadY = (pointAheadUserOnStep.latitude() - currentLatitude) * METERS_PER_DEGREE;
+
     double smallestUserDistanceToFeature = Double.POSITIVE_INFINITY;
     for (Feature feature : queriedFeatures) {
-      Geometry featureGeometry = feature.geometry();
-      if (featureGeometry == null) {
-        continue;
+      double distanceToFeature = distanceToFeature(feature.geometry());
+      if (distanceToFeature < smallestUserDistanceToFeature) {
+        smallestUserDistanceToFeature = distanceToFeature;
+        filteredFeature = feature;
       }
-      List<LineString> featureLineStrings = new ArrayList<>();
-      if (featureGeometry instanceof LineString) {
-        featureLineStrings.add((LineString) featureGeometry);
-      } else if (featureGeometry instanceof MultiLineString) {
-        featureLineStrings = ((MultiLineString) featureGeometry).lineStrings();
-      }
-
-      for (LineString featureLineString : featureLineStrings) {
-        List<Point> currentStepCoordinates = currentStepLineString.coordinates();
-        int stepCoordinatesSize = currentStepCoordinates.size();
-        if (stepCoordinatesSize < TWO_POINTS) {
-          return filteredFeature;
-        }
-        int lastStepCoordinate = stepCoordinatesSize - 1;
-        Point lastStepPoint = currentStepCoordinates.get(lastStepCoordinate);
-        if (currentPoint.equals(lastStepPoint)) {
-          return filteredFeature;
-        }
-        List<Point> lineCoordinates = featureLineString.coordinates();
-        int lineCoordinatesSize = lineCoordinates.size();
-        if (lineCoordinatesSize < TWO_POINTS) {
-          return filteredFeature;
-        }
-        int lastLineCoordinate = lineCoordinatesSize - 1;
-        Point lastLinePoint = lineCoordinates.get(lastLineCoordinate);
-        if (currentPoint.equals(lastLinePoint)) {
-          return filteredFeature;
-        }
-
-        Point firstLinePoint = lineCoordinates.get(FIRST);
-        if (currentPoint.equals(firstLinePoint)) {
-          return filteredFeature;
-        }
-
-        LineString stepSliceFromCurrentPoint = lineSlice(currentPoint, lastStepPoint, currentStepLineString);
-        Point pointAheadUserOnStep = along(stepSliceFromCurrentPoint, TEN, UNIT_METRES);
-        LineString reversedFeatureLine = reverseFeatureLineStringCoordinates(featureLineString);
-        LineString currentAheadLine = reversedFeatureLine;
-        LineString currentBehindLine = featureLineString;
-
-        Point currentDirectionAhead = firstLinePoint;
-        Point currentDirectionBehind = lastLinePoint;
-
-        double distanceCurrentFirst = calculateDistance(currentPoint, firstLinePoint);
-        double distanceAheadFirst = calculateDistance(pointAheadUserOnStep, firstLinePoint);
-        if (distanceAheadFirst >= distanceCurrentFirst) {
-          currentAheadLine = featureLineString;
-          currentBehindLine = reversedFeatureLine;
-          currentDirectionAhead = lastLinePoint;
-          currentDirectionBehind = firstLinePoint;
-        }
-
-        LineString sliceFromCurrentPoint = lineSlice(currentPoint, currentDirectionAhead, currentAheadLine);
-        Point pointAheadFeature = along(sliceFromCurrentPoint, TEN, UNIT_METRES);
-        LineString reverseSliceFromCurrentPoint = lineSlice(currentPoint, currentDirectionBehind, currentBehindLine);
-        Point pointBehindFeature = along(reverseSliceFromCurrentPoint, TEN, UNIT_METRES);
-
-        double userDistanceToAheadFeature = calculateDistance(pointAheadUserOnStep, pointAheadFeature);
-        double userDistanceToBehindFeature = calculateDistance(pointAheadUserOnStep, pointBehindFeature);
-        double minDistanceToFeature = Math.min(userDistanceToAheadFeature, userDistanceToBehindFeature);
+    }
+    return filteredFeature;
+  }
 
-        if (minDistanceToFeature < smallestUserDistanceToFeature) {
-          smallestUserDistanceToFeature = minDistanceToFeature;
-          filteredFeature = feature;
-        }
+  private double distanceToFeature(Geometry featureGeometry) {
+    if (featureGeometry instanceof LineString) {
+      return distanceToLine(((LineString) featureGeometry).coordinates());
+    }
+    double smallestDistance = Double.POSITIVE_INFINITY;
+    if (featureGeometry instanceof MultiLineString) {
+      for (List<Point> line : ((MultiLineString) featureGeometry).coordinates()) {
+        smallestDistance = Math.min(smallestDistance, distanceToLine(line));
       }
     }
-    return filteredFeature;
+    return smallestDistance;
   }
 
-  private double calculateDistance(Point lhs, Point rhs) {
-    if (lhs == null || rhs == null) {
+  /**
+   * Projects the user onto the line and measures how far the points 10 meters ahead and behind
+   * on the line are from the look-ahead point on the step.
+   */
+  private double distanceToLine(List<Point> coordinates) {
+    int size = coordinates.size();
+    if (size < TWO_POINTS) {
       return Double.POSITIVE_INFINITY;
     }
-    return TurfMeasurement.distance(lhs, rhs);
+    packLine(coordinates, size);
+
+    double closestDistanceSquared = Double.POSITIVE_INFINITY;
+    double distanceAlongLine = 0;
+    for (int i = 0; i < size - 1; i++) {
+      double segmentX = lineX[i + 1] - lineX[i];
+      double segmentY = lineY[i + 1] - lineY[i];
+      double segmentLengthSquared = segmentX * segmentX + segmentY * segmentY;
+      double fraction = 0;
+      if (segmentLengthSquared > 0) {
+        fraction = -(lineX[i] * segmentX + lineY[i] * segmentY) / segmentLengthSquared;
+        fraction = Math.max(0, Math.min(1, fraction));
+      }
+      double projectedX = lineX[i] + fraction * segmentX;
+      double projectedY = lineY[i] + fraction * segmentY;
+      double distanceSquared = projectedX * projectedX + projectedY * projectedY;
+      if (distanceSquared < closestDistanceSquared) {
+        closestDistanceSquared = distanceSquared;
+        distanceAlongLine = lineDistances[i] + fraction * (lineDistances[i + 1] - lineDistances[i]);
+      }
+    }
+    double aheadDistance = distanceToStepAhead(distanceAlongLine + TEN, size);
+    double behindDistance = distanceToStepAhead(distanceAlongLine - TEN, size);
+    return Math.min(aheadDistance, behindDistance);
   }
 
-  @Nullable
-  Point findPointFromCurrentPoint(Point currentPoint, LineString lineString) {
-    List<Point> lineStringCoordinates = lineString.coordinates();
-    int coordinateSize = lineStringCoordinates.size();
-    if (coordinateSize < TWO_POINTS) {
-      return null;
+  private double distanceToStepAhead(double distanceAlongLine, int size) {
+    double clampedDistance = Math.max(0, Math.min(distanceAlongLine, lineDistances[size - 1]));
+    int segment = Arrays.binarySearch(lineDistances, 0, size, clampedDistance);
+    if (segment < 0) {
+      segment = -segment - 2;
     }
-    Point lastLinePoint = lineStringCoordinates.get(coordinateSize - 1);
-    if (currentPoint == null || currentPoint.equals(lastLinePoint)) {
-      return null;
+    segment = Math.max(0, Math.min(segment, size - TWO_POINTS));
+    double segmentLength = lineDistances[segment + 1] - lineDistances[segment];
+    double fraction = segmentLength > 0 ? (clampedDistance - lineDistances[segment]) / segmentLength : 0;
+    double pointX = lineX[segment] + fraction * (lineX[segment + 1] - lineX[segment]);
+    double pointY = lineY[segment] + fraction * (lineY[segment + 1] - lineY[segment]);
+    return Math.hypot(pointX - stepAheadX, pointY - stepAheadY);
+  }
+
+  private void packLine(List<Point> coordinates, int size) {
+    if (lineX.length < size) {
+      int capacity = Math.max(size, lineX.length * 2);
+      lineX = new double[capacity];
+      lineY = new double[capacity];
+      lineDistances = new double[capacity];
     }
-    LineString sliceFromCurrentPoint = lineSlice(currentPoint, lastLinePoint, lineString);
-    LineString meterSlice = lineSliceAlong(sliceFromCurrentPoint, ZERO_METERS, (double) 10, UNIT_METRES);
-    List<Point> slicePoints = meterSlice.coordinates();
-    if (slicePoints.isEmpty()) {
-      return null;
+    for (int i = 0; i < size; i++) {
+      Point point = coordinates.get(i);
+      lineX[i] = (point.longitude() - currentLongitude) * longitudeScale;
+      lineY[i] = (point.latitude() - currentLatitude) * METERS_PER_DEGREE;
+      if (i == 0) {
+        lineDistances[i] = 0;
+      } else {
+        lineDistances[i] = lineDistances[i - 1] + Math.hypot(lineX[i] - lineX[i - 1], lineY[i] - lineY[i - 1]);
+      }
     }
-    return slicePoints.get(FIRST);
   }
 
-  @NonNull
-  private LineString reverseFeatureLineStringCoordinates(LineString featureLineString) {
-    List<Point> reversedFeatureCoordinates = new ArrayList<>(featureLineString.coordinates());
-    Collections.reverse(reversedFeatureCoordinates);
-    return LineString.fromLngLats(reversedFeatureCoordinates);
+  /**
+   * Rendered features are repeated once per tile they cross, with a differently clipped geometry
+   * each time, so roads are told apart by feature id. Every clipped piece is still measured, as
+   * only the piece under the user is meaningful. Features without an id count as separate roads.
+   */
+  private static int countRoads(List<Feature> queriedFeatures) {
+    Set<String> featureIds = new HashSet<>();
+    int roads = 0;
+    for (Feature feature : queriedFeatures) {
+      String id = feature.id();
+      if (id == null || featureIds.add(id)) {
+        roads++;
+      }
+    }
+    return roads;
   }
 }
@@ -1,8 +1,10 @@
 package com.mapbox.services.android.navigation.ui.v5.map;
 
 import android.graphics.PointF;
+import android.location.Location;
 
 import com.mapbox.geojson.Feature;
+import com.mapbox.mapboxsdk.geometry.LatLng;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
 
 import java.util.List;
@@ -18,4 +20,8 @@ class WaynameFeatureFinder {
   List<Feature> queryRenderedFeatures(PointF point, String[] layerIds) {
     return mapboxMap.queryRenderedFeatures(point, layerIds);
   }
+
+  PointF toScreenLocation(Location location) {
+    return mapboxMap.getProjection().toScreenLocation(new LatLng(location));
+  }
 }
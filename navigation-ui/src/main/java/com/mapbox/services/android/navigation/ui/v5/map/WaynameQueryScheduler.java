@@ -0,0 +1,122 @@
+package com.mapbox.services.android.navigation.ui.v5.map;
+
+import android.location.Location;
+import android.support.annotation.Nullable;
+
+import com.mapbox.geojson.Feature;
+import com.mapbox.geojson.Geometry;
+import com.mapbox.geojson.LineString;
+import com.mapbox.geojson.MultiLineString;
+import com.mapbox.geojson.Point;
+import com.mapbox.services.android.navigation.ui.v5.route.RouteGeometry;
+
+import java.util.List;
+
+/**
+ * Decides whether a location fix should trigger a new rendered feature query for the way name.
+ * <p>
+ * A query is skipped while the rider has moved less than the query distance since the last one,
+ * and while they are still on the same route step inside the extent of the last matched road.
+ * Queries are never made more often than {@link #MIN_QUERY_INTERVAL_MILLIS}.
+ */
+class WaynameQueryScheduler {
+
+  static final double DEFAULT_QUERY_DISTANCE = 15d;
+  private static final long MIN_QUERY_INTERVAL_MILLIS = 500;
+  /**
+   * Roughly 5 meters of slack, so GPS noise alone does not take the rider outside the matched road.
+   */
+  private static final double EXTENT_MARGIN_DEGREES = 0.00005;
+  private double queryDistance = DEFAULT_QUERY_DISTANCE;
+  private Location lastQueryLocation;
+  private long lastQueryTime;
+  private RouteGeometry lastQueryStepGeometry;
+  private double[] matchedExtent;
+
+  void updateQueryDistance(double queryDistance) {
+    this.queryDistance = queryDistance;
+  }
+
+  double retrieveQueryDistance() {
+    return queryDistance;
+  }
+
+  boolean shouldQuery(Location location, @Nullable RouteGeometry currentStepGeometry, long elapsedTime) {
+    if (lastQueryLocation == null) {
+      return true;
+    }
+    if (elapsedTime - lastQueryTime < MIN_QUERY_INTERVAL_MILLIS) {
+      return false;
+    }
+    if (currentStepGeometry != lastQueryStepGeometry) {
+      return true;
+    }
+    if (lastQueryLocation.distanceTo(location) < queryDistance) {
+      return false;
+    }
+    // Without a step to follow, a turn onto a crossing road could stay inside the extent
+    boolean isFollowingStep = currentStepGeometry != null;
+    return !isFollowingStep || !isInsideMatchedExtent(location);
+  }
+
+  void onQueried(Location location, @Nullable RouteGeometry currentStepGeometry, long elapsedTime) {
+    if (currentStepGeometry != lastQueryStepGeometry) {
+      // The road matched on the previous step says nothing about the road after the turn
+      matchedExtent = null;
+    }
+    lastQueryLocation = location;
+    lastQueryStepGeometry = currentStepGeometry;
+    lastQueryTime = elapsedTime;
+  }
+
+  void onFeatureMatched(Feature feature) {
+    matchedExtent = buildExtent(feature.geometry());
+  }
+
+  void onNoFeatureMatched() {
+    matchedExtent = null;
+  }
+
+  void reset() {
+    lastQueryLocation = null;
+    lastQueryStepGeometry = null;
+    matchedExtent = null;
+  }
+
+  private boolean isInsideMatchedExtent(Location location) {
+    if (matchedExtent == null) {
+      return false;
+    }
+    return location.getLongitude() >= matchedExtent[0] - EXTENT_MARGIN_DEGREES
+      && location.getLatitude() >= matchedExtent[1] - EXTENT_MARGIN_DEGREES
+      && location.getLongitude() <= matchedExtent[2] + EXTENT_MARGIN_DEGREES
+      && location.getLatitude() <= matchedExtent[3] + EXTENT_MARGIN_DEGREES;
+  }
+
+  /**
+   * @return west, south, east and north bounds of a road geometry, or null if it is not a line
+   */
+  @Nullable
+  private double[] buildExtent(@Nullable Geometry geometry) {
+    double[] extent = {
+      Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY
+    };
+    if (geometry instanceof LineString) {
+      addToExtent(extent, ((LineString) geometry).coordinates());
+    } else if (geometry instanceof MultiLineString) {
+      for (List<Point> line : ((MultiLineString) geometry).coordinates()) {
+        addToExtent(extent, line);
+      }
+    }
+    return extent[0] > extent[2] ? null : extent;
+  }
+
+  private void addToExtent(double[] extent, List<Point> points) {
+    for (Point point : points) {
+      extent[0] = Math.min(extent[0], point.longitude());
+      extent[1] = Math.min(extent[1], point.latitude());
+      extent[2] = Math.max(extent[2], point.longitude());
+      extent[3] = Math.max(extent[3], point.latitude());
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package com.mapbox.services.android.navigation.ui.v5.map;
+
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+
+import com.mapbox.api.directions.v5.models.LegStep;
+
+/**
+ * Resolves the way name from the route itself, so no rendered frame or feature query is needed.
+ * <p>
+ * Every step is travelled on a single road, so the step name is the way name for the whole step.
+ * The road reference is used for unnamed roads such as highways.
+ */
+class WaynameRouteResolver {
+
+  /**
+   * @param currentStep the user is travelling on
+   * @return the way name, or null if the route has no name for this step
+   */
+  @Nullable
+  String resolve(@Nullable LegStep currentStep) {
+    if (currentStep == null) {
+      return null;
+    }
+    String name = currentStep.name();
+    if (!TextUtils.isEmpty(name)) {
+      return name;
+    }
+    String ref = currentStep.ref();
+    if (!TextUtils.isEmpty(ref)) {
+      return ref;
+    }
+    return null;
+  }
+}
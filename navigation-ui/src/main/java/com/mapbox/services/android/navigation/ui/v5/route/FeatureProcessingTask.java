@@ -1,95 +1,182 @@
 package com.mapbox.services.android.navigation.ui.v5.route;
 
-import android.os.AsyncTask;
-
 import com.mapbox.api.directions.v5.models.DirectionsRoute;
 import com.mapbox.api.directions.v5.models.RouteLeg;
-import com.mapbox.core.constants.Constants;
 import com.mapbox.geojson.Feature;
 import com.mapbox.geojson.FeatureCollection;
 import com.mapbox.geojson.LineString;
 import com.mapbox.geojson.Point;
+import com.mapbox.services.android.navigation.ui.v5.utils.NavigationComputeTask;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
-import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.PRIMARY_ROUTE_PROPERTY_KEY;
+import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.ROUTE_INDEX_PROPERTY_KEY;
 
-class FeatureProcessingTask extends AsyncTask<Void, Void, Void> {
+class FeatureProcessingTask extends NavigationComputeTask<Void> {
 
+  private static final RouteGeometry EMPTY_GEOMETRY = new RouteGeometry(new double[0]);
   private final List<DirectionsRoute> routes;
-  private final List<FeatureCollection> routeFeatureCollections = new ArrayList<>();
+  private final List<FeatureCollection> levelFeatureCollections = new ArrayList<>();
   private final WeakReference<OnRouteFeaturesProcessedCallback> callbackWeakReference;
   private final HashMap<LineString, DirectionsRoute> routeLineStrings = new HashMap<>();
+  private final List<RouteCongestionGradient> routeGradients = new ArrayList<>();
+  private final List<RouteSegmentIndex> routeSegmentIndices = new ArrayList<>();
+  private final boolean isGradientEnabled;
 
-  FeatureProcessingTask(List<DirectionsRoute> routes, OnRouteFeaturesProcessedCallback callback) {
+  FeatureProcessingTask(List<DirectionsRoute> routes, boolean isGradientEnabled,
+                        OnRouteFeaturesProcessedCallback callback) {
     this.routes = routes;
+    this.isGradientEnabled = isGradientEnabled;
     this.callbackWeakReference = new WeakReference<>(callback);
   }
 
   @Override
-  protected Void doInBackground(Void... voids) {
-    for (int i = 0; i < routes.size(); i++) {
+  protected Void doInBackground() {
+    List<List<Feature>> levelFeatures = new ArrayList<>(RouteLevelOfDetail.LEVEL_COUNT);
+    for (int level = 0; level < RouteLevelOfDetail.LEVEL_COUNT; level++) {
+      levelFeatures.add(new ArrayList<Feature>());
+    }
+    for (int i = 0; i < routes.size() && !isCancelled(); i++) {
       DirectionsRoute route = routes.get(i);
-      boolean isPrimary = i == 0;
-      FeatureCollection routeFeatureCollection = createRouteFeatureCollection(route, isPrimary);
-      routeFeatureCollections.add(routeFeatureCollection);
+      RouteGeometry routeGeometry = RouteGeometryCache.getInstance().obtainRouteGeometry(route);
+      if (routeGeometry == null) {
+        addEmptyRoute(route);
+        continue;
+      }
+      LineString routeLineString = routeGeometry.toLineString();
+      routeLineStrings.put(routeLineString, route);
+      routeSegmentIndices.add(RouteSegmentIndex.from(routeGeometry));
+      if (isGradientEnabled) {
+        routeGradients.add(RouteCongestionGradient.from(route, routeGeometry));
+      }
+      for (int level = 0; level < RouteLevelOfDetail.LEVEL_COUNT; level++) {
+        boolean[] keep = buildSimplificationMask(routeGeometry, level);
+        LineString levelLineString = keep == null ? routeLineString
+          : LineString.fromLngLats(buildPoints(routeGeometry, 0, routeGeometry.size() - 1, keep));
+        levelFeatures.get(level).addAll(createRouteFeatures(route, routeGeometry, levelLineString, keep, i));
+      }
+    }
+    for (List<Feature> features : levelFeatures) {
+      levelFeatureCollections.add(FeatureCollection.fromFeatures(features));
     }
     return null;
   }
 
   @Override
   protected void onPostExecute(Void result) {
-    super.onPostExecute(result);
-    Runtime.getRuntime().gc();
     OnRouteFeaturesProcessedCallback callback = callbackWeakReference.get();
     if (callback != null) {
-      callback.onRouteFeaturesProcessed(routeFeatureCollections, routeLineStrings);
+      callback.onRouteFeaturesProcessed(levelFeatureCollections, routeLineStrings, routeGradients,
+        routeSegmentIndices);
     }
   }
 
-  private FeatureCollection createRouteFeatureCollection(DirectionsRoute route, boolean isPrimary) {
+  /**
+   * A route without geometry is not drawn, but keeps its place in the indices and gradients so
+   * they still line up with the routes.
+   */
+  private void addEmptyRoute(DirectionsRoute route) {
+    routeSegmentIndices.add(RouteSegmentIndex.from(EMPTY_GEOMETRY));
+    if (isGradientEnabled) {
+      routeGradients.add(RouteCongestionGradient.from(route, EMPTY_GEOMETRY));
+    }
+  }
+
+  /**
+   * @return mask of the coordinates kept at the given level, or null to keep all of them
+   */
+  private boolean[] buildSimplificationMask(RouteGeometry routeGeometry, int level) {
+    if (level == RouteLevelOfDetail.FULL_DETAIL_LEVEL || routeGeometry.size() < 2) {
+      return null;
+    }
+    double tolerance = RouteLevelOfDetail.toleranceFor(level, routeGeometry.latitude(0));
+    return RouteLevelOfDetail.simplify(routeGeometry, tolerance);
+  }
+
+  private List<Feature> createRouteFeatures(DirectionsRoute route, RouteGeometry routeGeometry,
+                                            LineString routeLineString, boolean[] keep, int routeIndex) {
     final List<Feature> features = new ArrayList<>();
 
-    LineString routeGeometry = LineString.fromPolyline(route.geometry(), Constants.PRECISION_6);
-    Feature routeFeature = Feature.fromGeometry(routeGeometry);
-    routeFeature.addBooleanProperty(PRIMARY_ROUTE_PROPERTY_KEY, isPrimary);
+    Feature routeFeature = Feature.fromGeometry(routeLineString);
+    routeFeature.addNumberProperty(ROUTE_INDEX_PROPERTY_KEY, routeIndex);
     features.add(routeFeature);
-    routeLineStrings.put(routeGeometry, route);
 
-    List<Feature> congestionFeatures = buildCongestionFeaturesFromRoute(route, routeGeometry, isPrimary);
+    if (isGradientEnabled) {
+      return features;
+    }
+    List<Feature> congestionFeatures = buildCongestionFeaturesFromRoute(route, routeGeometry, routeLineString,
+      keep, routeIndex);
     features.addAll(congestionFeatures);
-    return FeatureCollection.fromFeatures(features);
+    return features;
   }
 
-  private List<Feature> buildCongestionFeaturesFromRoute(DirectionsRoute route, LineString lineString,
-                                                         boolean isPrimary) {
+  // Package private (no modifier) for testing purposes
+  List<Feature> buildCongestionFeaturesFromRoute(DirectionsRoute route, RouteGeometry routeGeometry,
+                                                 LineString lineString, boolean[] keep, int routeIndex) {
     final List<Feature> features = new ArrayList<>();
+    int legOffset = 0;
     for (RouteLeg leg : route.legs()) {
       if (leg.annotation() != null && leg.annotation().congestion() != null) {
-        for (int i = 0; i < leg.annotation().congestion().size(); i++) {
-          // See https://github.com/mapbox/mapbox-navigation-android/issues/353
-          if (leg.annotation().congestion().size() + 1 <= lineString.coordinates().size()) {
-
-            List<Point> points = new ArrayList<>();
-            points.add(lineString.coordinates().get(i));
-            points.add(lineString.coordinates().get(i + 1));
-
-            LineString congestionLineString = LineString.fromLngLats(points);
-            Feature feature = Feature.fromGeometry(congestionLineString);
-            String congestionValue = leg.annotation().congestion().get(i);
-            feature.addStringProperty(RouteConstants.CONGESTION_KEY, congestionValue);
-            feature.addBooleanProperty(PRIMARY_ROUTE_PROPERTY_KEY, isPrimary);
-            features.add(feature);
-          }
+        List<String> congestion = leg.annotation().congestion();
+        // See https://github.com/mapbox/mapbox-navigation-android/issues/353
+        if (legOffset + congestion.size() + 1 <= routeGeometry.size()) {
+          addCongestionRuns(features, routeGeometry, congestion, legOffset, keep, routeIndex);
         }
+        legOffset += congestion.size();
       } else {
         Feature feature = Feature.fromGeometry(lineString);
+        feature.addNumberProperty(ROUTE_INDEX_PROPERTY_KEY, routeIndex);
         features.add(feature);
       }
     }
     return features;
   }
+
+  /**
+   * Merges consecutive coordinate pairs sharing the same congestion value into a single
+   * {@link LineString}, so a leg produces one feature per congestion run rather than one per pair.
+   */
+  private void addCongestionRuns(List<Feature> features, RouteGeometry routeGeometry, List<String> congestion,
+                                 int legOffset, boolean[] keep, int routeIndex) {
+    int runStart = 0;
+    for (int i = 1; i <= congestion.size(); i++) {
+      if (i < congestion.size() && isSameCongestion(congestion.get(runStart), congestion.get(i))) {
+        continue;
+      }
+      List<Point> runPoints = buildPoints(routeGeometry, legOffset + runStart, legOffset + i, keep);
+      Feature feature = Feature.fromGeometry(LineString.fromLngLats(runPoints));
+      feature.addStringProperty(RouteConstants.CONGESTION_KEY, congestion.get(runStart));
+      feature.addNumberProperty(ROUTE_INDEX_PROPERTY_KEY, routeIndex);
+      features.add(feature);
+      runStart = i;
+    }
+  }
+
+  /**
+   * Builds the points between two indices (both inclusive), skipping coordinates dropped by
+   * the simplification mask. Both ends are always kept so congestion runs stay connected.
+   */
+  private List<Point> buildPoints(RouteGeometry routeGeometry, int fromIndex, int toIndex, boolean[] keep) {
+    if (keep == null) {
+      return routeGeometry.points(fromIndex, toIndex);
+    }
+    List<Point> points = new ArrayList<>();
+    points.add(routeGeometry.pointAt(fromIndex));
+    for (int i = fromIndex + 1; i < toIndex; i++) {
+      if (keep[i]) {
+        points.add(routeGeometry.pointAt(i));
+      }
+    }
+    if (toIndex > fromIndex) {
+      points.add(routeGeometry.pointAt(toIndex));
+    }
+    return points;
+  }
+
+  private boolean isSameCongestion(String congestion, String otherCongestion) {
+    return congestion == null ? otherCongestion == null : congestion.equals(otherCongestion);
+  }
 }
@@ -10,6 +10,7 @@ import android.support.v4.content.ContextCompat;
 import android.support.v4.graphics.drawable.DrawableCompat;
 import android.support.v7.content.res.AppCompatResources;
 
+import com.mapbox.api.directions.v5.models.DirectionsRoute;
 import com.mapbox.geojson.Feature;
 import com.mapbox.geojson.FeatureCollection;
 import com.mapbox.geojson.LineString;
@@ -26,13 +27,11 @@ import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
 import com.mapbox.mapboxsdk.utils.MathUtils;
 import com.mapbox.services.android.navigation.ui.v5.R;
 import com.mapbox.services.android.navigation.ui.v5.utils.MapImageUtils;
+import com.mapbox.services.android.navigation.ui.v5.utils.RouteFingerprint;
 import com.mapbox.services.android.navigation.v5.routeprogress.RouteProgress;
-import com.mapbox.turf.TurfConstants;
 import com.mapbox.turf.TurfMeasurement;
-import com.mapbox.turf.TurfMisc;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 import static com.mapbox.mapboxsdk.style.expressions.Expression.color;
@@ -87,6 +86,10 @@ class MapRouteArrow {
   private List<Layer> arrowLayers;
   private GeoJsonSource arrowShaftGeoJsonSource;
   private GeoJsonSource arrowHeadGeoJsonSource;
+  private Long currentStepFingerprint;
+  private boolean isVisibilityRequested = true;
+  private boolean hasStepArrow;
+  private Boolean isArrowVisible;
 
   private final MapView mapView;
   private final MapboxMap mapboxMap;
@@ -106,45 +109,66 @@ class MapRouteArrow {
     initialize();
   }
 
+  /**
+   * Draws the arrow between the current and the upcoming step. The arrow only depends on the
+   * step, so the sources are left untouched until the step changes. An arrow hidden through
+   * {@link #updateVisibilityTo(boolean)} stays hidden across steps.
+   *
+   * @param routeProgress with the current step
+   */
   void addUpcomingManeuverArrow(RouteProgress routeProgress) {
-    boolean invalidUpcomingStepPoints = routeProgress.upcomingStepPoints() == null
-      || routeProgress.upcomingStepPoints().size() < TWO_POINTS;
-    boolean invalidCurrentStepPoints = routeProgress.currentStepPoints().size() < TWO_POINTS;
-    if (invalidUpcomingStepPoints || invalidCurrentStepPoints) {
-      updateVisibilityTo(false);
+    long stepFingerprint = RouteFingerprint.ofStep(routeProgress);
+    if (currentStepFingerprint != null && currentStepFingerprint == stepFingerprint) {
+      return;
+    }
+    currentStepFingerprint = stepFingerprint;
+    DirectionsRoute route = routeProgress.directionsRoute();
+    int legIndex = routeProgress.legIndex();
+    int stepIndex = routeProgress.currentLegProgress().stepIndex();
+    RouteGeometryCache geometryCache = RouteGeometryCache.getInstance();
+    RouteGeometry currentStepGeometry = geometryCache.obtainStepGeometry(route, legIndex, stepIndex);
+    RouteGeometry upcomingStepGeometry = geometryCache.obtainStepGeometry(route, legIndex, stepIndex + 1);
+    boolean invalidUpcomingStepPoints = upcomingStepGeometry == null
+      || upcomingStepGeometry.size() < TWO_POINTS;
+    boolean invalidCurrentStepPoints = currentStepGeometry == null
+      || currentStepGeometry.size() < TWO_POINTS;
+    hasStepArrow = !invalidUpcomingStepPoints && !invalidCurrentStepPoints;
+    updateArrowLayerVisibility();
+    if (!hasStepArrow) {
       return;
     }
-    updateVisibilityTo(true);
 
-    List<Point> maneuverPoints = obtainArrowPointsFrom(routeProgress);
+    List<Point> maneuverPoints = obtainArrowPointsFrom(currentStepGeometry, upcomingStepGeometry);
     updateArrowShaftWith(maneuverPoints);
     updateArrowHeadWith(maneuverPoints);
   }
 
+  /**
+   * @param visible false to hide the arrow until shown again, true to show it whenever the
+   *                current step has one
+   */
   void updateVisibilityTo(boolean visible) {
+    isVisibilityRequested = visible;
+    updateArrowLayerVisibility();
+  }
+
+  private void updateArrowLayerVisibility() {
+    boolean visible = isVisibilityRequested && hasStepArrow;
+    if (isArrowVisible != null && isArrowVisible == visible) {
+      return;
+    }
+    isArrowVisible = visible;
+    String targetVisibility = visible ? VISIBLE : NONE;
     for (Layer layer : arrowLayers) {
-      String targetVisibility = visible ? VISIBLE : NONE;
-      if (!targetVisibility.equals(layer.getVisibility().getValue())) {
-        layer.setProperties(visibility(targetVisibility));
-      }
+      layer.setProperties(visibility(targetVisibility));
     }
   }
 
-  private List<Point> obtainArrowPointsFrom(RouteProgress routeProgress) {
-    List<Point> reversedCurrent = new ArrayList<>(routeProgress.currentStepPoints());
-    Collections.reverse(reversedCurrent);
-
-    LineString arrowLineCurrent = LineString.fromLngLats(reversedCurrent);
-    LineString arrowLineUpcoming = LineString.fromLngLats(routeProgress.upcomingStepPoints());
-
-    LineString arrowCurrentSliced = TurfMisc.lineSliceAlong(arrowLineCurrent, 0, THIRTY, TurfConstants.UNIT_METERS);
-    LineString arrowUpcomingSliced = TurfMisc.lineSliceAlong(arrowLineUpcoming, 0, THIRTY, TurfConstants.UNIT_METERS);
-
-    Collections.reverse(arrowCurrentSliced.coordinates());
-
+  private List<Point> obtainArrowPointsFrom(RouteGeometry currentStepGeometry, RouteGeometry upcomingStepGeometry) {
+    double currentStepLength = currentStepGeometry.length();
     List<Point> combined = new ArrayList<>();
-    combined.addAll(arrowCurrentSliced.coordinates());
-    combined.addAll(arrowUpcomingSliced.coordinates());
+    combined.addAll(currentStepGeometry.slice(currentStepLength - THIRTY, currentStepLength));
+    combined.addAll(upcomingStepGeometry.slice(0, THIRTY));
     return combined;
   }
 
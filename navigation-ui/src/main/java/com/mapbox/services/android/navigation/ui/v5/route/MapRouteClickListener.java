@@ -3,18 +3,9 @@ package com.mapbox.services.android.navigation.ui.v5.route;
 import android.support.annotation.NonNull;
 
 import com.mapbox.api.directions.v5.models.DirectionsRoute;
-import com.mapbox.geojson.Feature;
-import com.mapbox.geojson.LineString;
-import com.mapbox.geojson.Point;
 import com.mapbox.mapboxsdk.geometry.LatLng;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
-import com.mapbox.turf.TurfConstants;
-import com.mapbox.turf.TurfMeasurement;
-import com.mapbox.turf.TurfMisc;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 
 class MapRouteClickListener implements MapboxMap.OnMapClickListener {
@@ -30,12 +21,12 @@ class MapRouteClickListener implements MapboxMap.OnMapClickListener {
 
   @Override
   public boolean onMapClick(@NonNull LatLng point) {
-    HashMap<LineString, DirectionsRoute> routeLineStrings = routeLine.retrieveRouteLineStrings();
-    if (invalidMapClick(routeLineStrings)) {
+    List<RouteSegmentIndex> routeSegmentIndices = routeLine.retrieveRouteSegmentIndices();
+    if (invalidMapClick(routeSegmentIndices)) {
       return false;
     }
     List<DirectionsRoute> directionsRoutes = routeLine.retrieveDirectionsRoutes();
-    findClickedRoute(point, routeLineStrings, directionsRoutes);
+    findClickedRoute(point, routeSegmentIndices, directionsRoutes);
     return false;
   }
 
@@ -47,43 +38,35 @@ class MapRouteClickListener implements MapboxMap.OnMapClickListener {
     this.alternativesVisible = alternativesVisible;
   }
 
-  private boolean invalidMapClick(HashMap<LineString, DirectionsRoute> routeLineStrings) {
-    return routeLineStrings == null || routeLineStrings.isEmpty() || !alternativesVisible;
+  private boolean invalidMapClick(List<RouteSegmentIndex> routeSegmentIndices) {
+    return routeSegmentIndices == null || routeSegmentIndices.isEmpty() || !alternativesVisible;
   }
 
-  private void findClickedRoute(@NonNull LatLng point, HashMap<LineString, DirectionsRoute> routeLineStrings,
+  private void findClickedRoute(@NonNull LatLng point, List<RouteSegmentIndex> routeSegmentIndices,
                                 List<DirectionsRoute> directionsRoutes) {
-
-    HashMap<Double, DirectionsRoute> routeDistancesAwayFromClick = new HashMap<>();
-    Point clickPoint = Point.fromLngLat(point.getLongitude(), point.getLatitude());
-
-    calculateClickDistances(routeDistancesAwayFromClick, clickPoint, routeLineStrings);
-    List<Double> distancesAwayFromClick = new ArrayList<>(routeDistancesAwayFromClick.keySet());
-    Collections.sort(distancesAwayFromClick);
-
-    DirectionsRoute clickedRoute = routeDistancesAwayFromClick.get(distancesAwayFromClick.get(0));
-    int newPrimaryRouteIndex = directionsRoutes.indexOf(clickedRoute);
+    int newPrimaryRouteIndex = findClosestRouteIndex(point, routeSegmentIndices);
+    if (newPrimaryRouteIndex < 0 || newPrimaryRouteIndex >= directionsRoutes.size()) {
+      return;
+    }
     if (routeLine.updatePrimaryRouteIndex(newPrimaryRouteIndex) && onRouteSelectionChangeListener != null) {
       DirectionsRoute selectedRoute = directionsRoutes.get(newPrimaryRouteIndex);
       onRouteSelectionChangeListener.onNewPrimaryRouteSelected(selectedRoute);
     }
   }
 
-  private void calculateClickDistances(HashMap<Double, DirectionsRoute> routeDistancesAwayFromClick,
-                                       Point clickPoint, HashMap<LineString, DirectionsRoute> routeLineStrings) {
-    for (LineString lineString : routeLineStrings.keySet()) {
-      Point pointOnLine = findPointOnLine(clickPoint, lineString);
-      if (pointOnLine == null) {
-        return;
+  /**
+   * @return index of the route closest to the click, the lowest index wins a tie
+   */
+  private int findClosestRouteIndex(@NonNull LatLng point, List<RouteSegmentIndex> routeSegmentIndices) {
+    int closestRouteIndex = -1;
+    double closestDistance = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < routeSegmentIndices.size(); i++) {
+      double distance = routeSegmentIndices.get(i).distanceTo(point.getLongitude(), point.getLatitude());
+      if (distance < closestDistance) {
+        closestDistance = distance;
+        closestRouteIndex = i;
       }
-      double distance = TurfMeasurement.distance(clickPoint, pointOnLine, TurfConstants.UNIT_METERS);
-      routeDistancesAwayFromClick.put(distance, routeLineStrings.get(lineString));
     }
-  }
-
-  private Point findPointOnLine(Point clickPoint, LineString lineString) {
-    List<Point> linePoints = lineString.coordinates();
-    Feature feature = TurfMisc.nearestPointOnLine(clickPoint, linePoints);
-    return (Point) feature.geometry();
+    return closestRouteIndex;
   }
 }
@@ -1,6 +1,7 @@
 package com.mapbox.services.android.navigation.ui.v5.route;
 
 import android.graphics.Bitmap;
+import android.graphics.Color;
 import android.graphics.drawable.Drawable;
 import android.support.annotation.NonNull;
 
@@ -12,12 +13,16 @@ import com.mapbox.mapboxsdk.style.layers.SymbolLayer;
 import com.mapbox.services.android.navigation.ui.v5.utils.MapImageUtils;
 
 import static com.mapbox.mapboxsdk.style.expressions.Expression.color;
+import static com.mapbox.mapboxsdk.style.expressions.Expression.eq;
 import static com.mapbox.mapboxsdk.style.expressions.Expression.exponential;
 import static com.mapbox.mapboxsdk.style.expressions.Expression.get;
 import static com.mapbox.mapboxsdk.style.expressions.Expression.interpolate;
+import static com.mapbox.mapboxsdk.style.expressions.Expression.lineProgress;
 import static com.mapbox.mapboxsdk.style.expressions.Expression.literal;
 import static com.mapbox.mapboxsdk.style.expressions.Expression.match;
+import static com.mapbox.mapboxsdk.style.expressions.Expression.neq;
 import static com.mapbox.mapboxsdk.style.expressions.Expression.product;
+import static com.mapbox.mapboxsdk.style.expressions.Expression.step;
 import static com.mapbox.mapboxsdk.style.expressions.Expression.stop;
 import static com.mapbox.mapboxsdk.style.expressions.Expression.switchCase;
 import static com.mapbox.mapboxsdk.style.expressions.Expression.zoom;
@@ -30,11 +35,12 @@ import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.lineCap;
 import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.lineColor;
 import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.lineJoin;
 import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.lineWidth;
+import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.ALTERNATIVE_ROUTE_LAYER_ID;
 import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.DESTINATION_MARKER_NAME;
 import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.HEAVY_CONGESTION_VALUE;
 import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.MODERATE_CONGESTION_VALUE;
 import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.ORIGIN_MARKER_NAME;
-import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.PRIMARY_ROUTE_PROPERTY_KEY;
+import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.ROUTE_INDEX_PROPERTY_KEY;
 import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.ROUTE_LAYER_ID;
 import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.ROUTE_SHIELD_LAYER_ID;
 import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.ROUTE_SOURCE_ID;
@@ -47,8 +53,9 @@ import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.
 
 class MapRouteLayerProvider {
 
-  LineLayer initializeRouteShieldLayer(MapboxMap mapboxMap, float routeScale, float alternativeRouteScale,
-                                       int routeShieldColor, int alternativeRouteShieldColor) {
+  LineLayer initializeRouteShieldLayer(MapboxMap mapboxMap, int primaryRouteIndex, float routeScale,
+                                       float alternativeRouteScale, int routeShieldColor,
+                                       int alternativeRouteShieldColor) {
     LineLayer shieldLayer = mapboxMap.getStyle().getLayerAs(ROUTE_SHIELD_LAYER_ID);
     if (shieldLayer != null) {
       mapboxMap.getStyle().removeLayer(shieldLayer);
@@ -56,107 +63,117 @@ class MapRouteLayerProvider {
 
     shieldLayer = new LineLayer(ROUTE_SHIELD_LAYER_ID, ROUTE_SOURCE_ID).withProperties(
       lineCap(Property.LINE_CAP_ROUND),
-      lineJoin(Property.LINE_JOIN_ROUND),
+      lineJoin(Property.LINE_JOIN_ROUND)
+    );
+    updateRouteShieldLayer(shieldLayer, primaryRouteIndex, routeScale, alternativeRouteScale,
+      routeShieldColor, alternativeRouteShieldColor);
+    return shieldLayer;
+  }
+
+  /**
+   * Re-targets the shield paint properties to a new primary route. Features keep the route index
+   * they were tagged with, so only the expressions change and the source is not re-uploaded.
+   */
+  void updateRouteShieldLayer(LineLayer shieldLayer, int primaryRouteIndex, float routeScale,
+                              float alternativeRouteScale, int routeShieldColor,
+                              int alternativeRouteShieldColor) {
+    Expression isPrimaryRoute = isPrimaryRoute(primaryRouteIndex);
+    shieldLayer.setProperties(
       lineWidth(
         interpolate(
           exponential(1.5f), zoom(),
           stop(10f, 7f),
           stop(14f, product(literal(10.5f),
             switchCase(
-              get(PRIMARY_ROUTE_PROPERTY_KEY), literal(routeScale),
+              isPrimaryRoute, literal(routeScale),
               literal(alternativeRouteScale)))),
           stop(16.5f, product(literal(15.5f),
             switchCase(
-              get(PRIMARY_ROUTE_PROPERTY_KEY), literal(routeScale),
+              isPrimaryRoute, literal(routeScale),
               literal(alternativeRouteScale)))),
           stop(19f, product(literal(24f),
             switchCase(
-              get(PRIMARY_ROUTE_PROPERTY_KEY), literal(routeScale),
+              isPrimaryRoute, literal(routeScale),
               literal(alternativeRouteScale)))),
           stop(22f, product(literal(29f),
             switchCase(
-              get(PRIMARY_ROUTE_PROPERTY_KEY), literal(routeScale),
+              isPrimaryRoute, literal(routeScale),
               literal(alternativeRouteScale))))
         )
       ),
       lineColor(
         switchCase(
-          get(PRIMARY_ROUTE_PROPERTY_KEY), color(routeShieldColor),
+          isPrimaryRoute, color(routeShieldColor),
           color(alternativeRouteShieldColor)
         )
       )
     );
-    return shieldLayer;
   }
 
-  LineLayer initializeRouteLayer(MapboxMap mapboxMap, boolean roundedLineCap, float routeScale,
-                                 float alternativeRouteScale, int routeDefaultColor, int routeModerateColor,
-                                 int routeSevereColor, int alternativeRouteDefaultColor,
-                                 int alternativeRouteModerateColor, int alternativeRouteSevereColor) {
-    LineLayer routeLayer = mapboxMap.getStyle().getLayerAs(ROUTE_LAYER_ID);
-    if (routeLayer != null) {
-      mapboxMap.getStyle().removeLayer(routeLayer);
-    }
+  LineLayer initializeRouteLayer(MapboxMap mapboxMap, boolean roundedLineCap, int primaryRouteIndex,
+                                 float routeScale, int routeDefaultColor, int routeModerateColor,
+                                 int routeSevereColor) {
+    LineLayer routeLayer = buildRouteLayer(mapboxMap, ROUTE_LAYER_ID, roundedLineCap, routeScale,
+      routeDefaultColor, routeModerateColor, routeSevereColor);
+    routeLayer.setFilter(isPrimaryRoute(primaryRouteIndex));
+    return routeLayer;
+  }
 
-    String lineCap = Property.LINE_CAP_ROUND;
-    String lineJoin = Property.LINE_JOIN_ROUND;
-    if (!roundedLineCap) {
-      lineCap = Property.LINE_CAP_BUTT;
-      lineJoin = Property.LINE_JOIN_BEVEL;
+  LineLayer initializeAlternativeRouteLayer(MapboxMap mapboxMap, boolean roundedLineCap, int primaryRouteIndex,
+                                            float alternativeRouteScale, int alternativeRouteDefaultColor,
+                                            int alternativeRouteModerateColor, int alternativeRouteSevereColor) {
+    LineLayer alternativeRouteLayer = buildRouteLayer(mapboxMap, ALTERNATIVE_ROUTE_LAYER_ID, roundedLineCap,
+      alternativeRouteScale, alternativeRouteDefaultColor, alternativeRouteModerateColor,
+      alternativeRouteSevereColor);
+    alternativeRouteLayer.setFilter(isAlternativeRoute(primaryRouteIndex));
+    return alternativeRouteLayer;
+  }
+
+  Expression isPrimaryRoute(int primaryRouteIndex) {
+    return eq(get(ROUTE_INDEX_PROPERTY_KEY), literal(primaryRouteIndex));
+  }
+
+  Expression isAlternativeRoute(int primaryRouteIndex) {
+    return neq(get(ROUTE_INDEX_PROPERTY_KEY), literal(primaryRouteIndex));
+  }
+
+  /**
+   * Builds a line-gradient expression that steps through the congestion colors at the
+   * line-progress where each congestion run begins. Everything before the traveled fraction
+   * is transparent, so the line vanishes behind the puck.
+   */
+  Expression buildCongestionGradient(RouteCongestionGradient gradient, float traveledFraction,
+                                     int routeDefaultColor, int routeModerateColor, int routeSevereColor) {
+    if (traveledFraction <= 0) {
+      Expression.Stop[] stops = new Expression.Stop[gradient.size() - 1];
+      for (int i = 1; i < gradient.size(); i++) {
+        stops[i - 1] = stop(gradient.progressAt(i), congestionColor(gradient.congestionAt(i),
+          routeDefaultColor, routeModerateColor, routeSevereColor));
+      }
+      Expression startColor = congestionColor(gradient.congestionAt(0),
+        routeDefaultColor, routeModerateColor, routeSevereColor);
+      return step(lineProgress(), startColor, stops);
+    }
+    int traveledRun = 0;
+    while (traveledRun + 1 < gradient.size() && gradient.progressAt(traveledRun + 1) <= traveledFraction) {
+      traveledRun++;
+    }
+    Expression.Stop[] stops = new Expression.Stop[gradient.size() - traveledRun];
+    stops[0] = stop(traveledFraction, congestionColor(gradient.congestionAt(traveledRun),
+      routeDefaultColor, routeModerateColor, routeSevereColor));
+    for (int i = traveledRun + 1; i < gradient.size(); i++) {
+      stops[i - traveledRun] = stop(gradient.progressAt(i), congestionColor(gradient.congestionAt(i),
+        routeDefaultColor, routeModerateColor, routeSevereColor));
     }
+    return step(lineProgress(), color(Color.TRANSPARENT), stops);
+  }
 
-    routeLayer = new LineLayer(ROUTE_LAYER_ID, ROUTE_SOURCE_ID).withProperties(
-      lineCap(lineCap),
-      lineJoin(lineJoin),
-      lineWidth(
-        interpolate(
-          exponential(1.5f), zoom(),
-          stop(4f, product(literal(3f),
-            switchCase(
-              get(PRIMARY_ROUTE_PROPERTY_KEY), literal(routeScale),
-              literal(alternativeRouteScale)))),
-          stop(10f, product(literal(4f),
-            switchCase(
-              get(PRIMARY_ROUTE_PROPERTY_KEY), literal(routeScale),
-              literal(alternativeRouteScale)))),
-          stop(13f, product(literal(6f),
-            switchCase(
-              get(PRIMARY_ROUTE_PROPERTY_KEY), literal(routeScale),
-              literal(alternativeRouteScale)))),
-          stop(16f, product(literal(10f),
-            switchCase(
-              get(PRIMARY_ROUTE_PROPERTY_KEY), literal(routeScale),
-              literal(alternativeRouteScale)))),
-          stop(19f, product(literal(14f),
-            switchCase(
-              get(PRIMARY_ROUTE_PROPERTY_KEY), literal(routeScale),
-              literal(alternativeRouteScale)))),
-          stop(22f, product(literal(18f),
-            switchCase(
-              get(PRIMARY_ROUTE_PROPERTY_KEY), literal(routeScale),
-              literal(alternativeRouteScale))))
-        )
-      ),
-      lineColor(
-        switchCase(
-          get(PRIMARY_ROUTE_PROPERTY_KEY), match(
-            Expression.toString(get(RouteConstants.CONGESTION_KEY)),
-            color(routeDefaultColor),
-            stop(MODERATE_CONGESTION_VALUE, color(routeModerateColor)),
-            stop(HEAVY_CONGESTION_VALUE, color(routeSevereColor)),
-            stop(SEVERE_CONGESTION_VALUE, color(routeSevereColor))
-          ),
-          match(
-            Expression.toString(get(RouteConstants.CONGESTION_KEY)),
-            color(alternativeRouteDefaultColor),
-            stop(MODERATE_CONGESTION_VALUE, color(alternativeRouteModerateColor)),
-            stop(HEAVY_CONGESTION_VALUE, color(alternativeRouteSevereColor)),
-            stop(SEVERE_CONGESTION_VALUE, color(alternativeRouteSevereColor))
-          )
-        )
-      )
-    );
-    return routeLayer;
+  /**
+   * Builds a line-gradient expression with a single color that is transparent up to the
+   * traveled fraction, used for the casing of a vanishing route line.
+   */
+  Expression buildVanishingGradient(float traveledFraction, int lineColor) {
+    return step(lineProgress(), color(Color.TRANSPARENT), stop(traveledFraction, color(lineColor)));
   }
 
   SymbolLayer initializeWayPointLayer(@NonNull MapboxMap mapboxMap, Drawable originIcon,
@@ -193,4 +210,54 @@ class MapRouteLayerProvider {
     );
     return wayPointLayer;
   }
+
+  private LineLayer buildRouteLayer(MapboxMap mapboxMap, String layerId, boolean roundedLineCap, float scale,
+                                    int defaultColor, int moderateColor, int severeColor) {
+    LineLayer routeLayer = mapboxMap.getStyle().getLayerAs(layerId);
+    if (routeLayer != null) {
+      mapboxMap.getStyle().removeLayer(routeLayer);
+    }
+
+    String lineCap = Property.LINE_CAP_ROUND;
+    String lineJoin = Property.LINE_JOIN_ROUND;
+    if (!roundedLineCap) {
+      lineCap = Property.LINE_CAP_BUTT;
+      lineJoin = Property.LINE_JOIN_BEVEL;
+    }
+
+    return new LineLayer(layerId, ROUTE_SOURCE_ID).withProperties(
+      lineCap(lineCap),
+      lineJoin(lineJoin),
+      lineWidth(
+        interpolate(
+          exponential(1.5f), zoom(),
+          stop(4f, product(literal(3f), literal(scale))),
+          stop(10f, product(literal(4f), literal(scale))),
+          stop(13f, product(literal(6f), literal(scale))),
+          stop(16f, product(literal(10f), literal(scale))),
+          stop(19f, product(literal(14f), literal(scale))),
+          stop(22f, product(literal(18f), literal(scale)))
+        )
+      ),
+      lineColor(
+        match(
+          Expression.toString(get(RouteConstants.CONGESTION_KEY)),
+          color(defaultColor),
+          stop(MODERATE_CONGESTION_VALUE, color(moderateColor)),
+          stop(HEAVY_CONGESTION_VALUE, color(severeColor)),
+          stop(SEVERE_CONGESTION_VALUE, color(severeColor))
+        )
+      )
+    );
+  }
+
+  private Expression congestionColor(String congestion, int routeDefaultColor,
+                                     int routeModerateColor, int routeSevereColor) {
+    if (MODERATE_CONGESTION_VALUE.equals(congestion)) {
+      return color(routeModerateColor);
+    } else if (HEAVY_CONGESTION_VALUE.equals(congestion) || SEVERE_CONGESTION_VALUE.equals(congestion)) {
+      return color(routeSevereColor);
+    }
+    return color(routeDefaultColor);
+  }
 }
\ No newline at end of file
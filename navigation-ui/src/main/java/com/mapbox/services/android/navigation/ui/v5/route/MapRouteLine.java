@@ -21,18 +21,19 @@ import com.mapbox.mapboxsdk.style.sources.GeoJsonOptions;
 import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
 import com.mapbox.services.android.navigation.ui.v5.R;
 import com.mapbox.services.android.navigation.ui.v5.utils.MapUtils;
+import com.mapbox.services.android.navigation.ui.v5.utils.NavigationComputeExecutor;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.mapbox.mapboxsdk.style.expressions.Expression.literal;
 import static com.mapbox.mapboxsdk.style.layers.Property.NONE;
 import static com.mapbox.mapboxsdk.style.layers.Property.VISIBLE;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.lineGradient;
 import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.visibility;
-import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.PRIMARY_ROUTE_PROPERTY_KEY;
-import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.ROUTE_LAYER_ID;
-import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.ROUTE_SHIELD_LAYER_ID;
+import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.ALTERNATIVE_ROUTE_LAYER_ID;
 import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.ROUTE_SOURCE_ID;
 import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.WAYPOINT_DESTINATION_VALUE;
 import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.WAYPOINT_ORIGIN_VALUE;
@@ -41,6 +42,8 @@ import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.
 
 class MapRouteLine {
 
+  private static final float DEFAULT_VANISHING_UPDATE_DISTANCE = 5f;
+
   @ColorInt
   private int routeDefaultColor;
   @ColorInt
@@ -60,19 +63,31 @@ class MapRouteLine {
   private float routeScale;
   private float alternativeRouteScale;
   private boolean roundedLineCap;
+  private boolean isGradientEnabled;
+  private boolean isVanishingEnabled;
+  private float vanishingUpdateDistance;
 
   private final HashMap<LineString, DirectionsRoute> routeLineStrings = new HashMap<>();
-  private final List<FeatureCollection> routeFeatureCollections = new ArrayList<>();
+  private final List<FeatureCollection> levelFeatureCollections = new ArrayList<>();
   private final List<DirectionsRoute> directionsRoutes = new ArrayList<>();
+  private final List<RouteCongestionGradient> routeGradients = new ArrayList<>();
+  private final List<RouteSegmentIndex> routeSegmentIndices = new ArrayList<>();
   private final List<Layer> routeLayers;
 
   private MapboxMap mapboxMap;
+  private MapRouteLayerProvider layerProvider;
   private Drawable originIcon;
   private Drawable destinationIcon;
   private GeoJsonSource wayPointSource;
   private GeoJsonSource routeLineSource;
+  private LineLayer routeShieldLayer;
+  private LineLayer alternativeRouteLayer;
+  private LineLayer routeLayer;
+  private FeatureProcessingTask featureProcessingTask;
   private String belowLayer;
   private int primaryRouteIndex;
+  private int levelOfDetail = RouteLevelOfDetail.FULL_DETAIL_LEVEL;
+  private float vanishingPointFraction;
   private boolean isVisible = true;
   private boolean alternativesVisible = true;
 
@@ -85,6 +100,7 @@ class MapRouteLine {
                MapRouteLayerProvider layerProvider) {
     this.mapboxMap = mapboxMap;
     this.belowLayer = belowLayer;
+    this.layerProvider = layerProvider;
     this.routeLayers = new ArrayList<>();
 
     TypedArray typedArray = context.obtainStyledAttributes(styleRes, R.styleable.NavigationMapRoute);
@@ -101,6 +117,12 @@ class MapRouteLine {
       ContextCompat.getColor(context, R.color.mapbox_navigation_route_shield_layer_color));
     routeScale = typedArray.getFloat(R.styleable.NavigationMapRoute_routeScale, 1.0f);
     roundedLineCap = typedArray.getBoolean(R.styleable.NavigationMapRoute_roundedLineCap, true);
+    isVanishingEnabled = typedArray.getBoolean(R.styleable.NavigationMapRoute_routeLineVanishing, false);
+    vanishingUpdateDistance = typedArray.getFloat(
+      R.styleable.NavigationMapRoute_routeLineVanishingUpdateDistance, DEFAULT_VANISHING_UPDATE_DISTANCE);
+    // Vanishing is drawn with line-progress, so it needs a single gradient line per route
+    isGradientEnabled = typedArray.getBoolean(R.styleable.NavigationMapRoute_routeLineGradient, false)
+      || isVanishingEnabled;
 
     // Secondary Routes attributes
     alternativeRouteDefaultColor = typedArray.getColor(
@@ -134,12 +156,14 @@ class MapRouteLine {
     wayPointSource = sourceProvider.build(WAYPOINT_SOURCE_ID, emptyWayPointFeatureCollection, wayPointGeoJsonOptions);
     mapboxMap.getStyle().addSource(wayPointSource);
 
-    GeoJsonOptions routeLineGeoJsonOptions = new GeoJsonOptions().withMaxZoom(16);
+    GeoJsonOptions routeLineGeoJsonOptions = new GeoJsonOptions().withMaxZoom(16)
+      .withLineMetrics(isGradientEnabled);
     FeatureCollection emptyRouteLineFeatureCollection = FeatureCollection.fromFeatures(new Feature[] {});
     routeLineSource = sourceProvider.build(ROUTE_SOURCE_ID, emptyRouteLineFeatureCollection, routeLineGeoJsonOptions);
     mapboxMap.getStyle().addSource(routeLineSource);
 
     initializeLayers(mapboxMap, layerProvider);
+    levelOfDetail = RouteLevelOfDetail.levelFor(mapboxMap.getCameraPosition().zoom);
   }
 
   // For testing only
@@ -159,9 +183,14 @@ class MapRouteLine {
     if (directionsRoutes.isEmpty()) {
       return;
     }
+    if (isGradientEnabled && hasSameGeometries(directionsRoutes)) {
+      refreshCongestionGradients(directionsRoutes);
+      return;
+    }
     clearRouteData();
     this.directionsRoutes.addAll(directionsRoutes);
     primaryRouteIndex = 0;
+    vanishingPointFraction = 0;
     alternativesVisible = directionsRoutes.size() > 1;
     isVisible = true;
     generateRouteFeatureCollectionsFrom(directionsRoutes);
@@ -200,12 +229,21 @@ class MapRouteLine {
     return directionsRoutes;
   }
 
+  /**
+   * @return segment indices in the same order as {@link #retrieveDirectionsRoutes()}, empty
+   * until the routes have been processed
+   */
+  List<RouteSegmentIndex> retrieveRouteSegmentIndices() {
+    return routeSegmentIndices;
+  }
+
   boolean updatePrimaryRouteIndex(int primaryRouteIndex) {
     boolean isNewIndex = this.primaryRouteIndex != primaryRouteIndex
       && primaryRouteIndex < directionsRoutes.size() && primaryRouteIndex >= 0;
     if (isNewIndex) {
       this.primaryRouteIndex = primaryRouteIndex;
-      updateRoutesFor(primaryRouteIndex);
+      vanishingPointFraction = 0;
+      updatePrimaryRouteLayers();
     }
     return isNewIndex;
   }
@@ -214,12 +252,48 @@ class MapRouteLine {
     return primaryRouteIndex;
   }
 
-  private void drawRoutes(List<FeatureCollection> routeFeatureCollections) {
-    List<Feature> routeFeatures = new ArrayList<>();
-    for (int i = routeFeatureCollections.size() - 1; i >= 0; i--) {
-      routeFeatures.addAll(routeFeatureCollections.get(i).features());
+  boolean isVanishingEnabled() {
+    return isVanishingEnabled;
+  }
+
+  float retrieveVanishingUpdateDistance() {
+    return vanishingUpdateDistance;
+  }
+
+  /**
+   * Hides the traveled portion of the primary route by moving the transparent stop of the
+   * line-gradient, leaving the route source untouched.
+   *
+   * @param fractionTraveled of the primary route, from 0 to 1
+   */
+  void updateVanishingPointTo(float fractionTraveled) {
+    if (!isVanishingEnabled) {
+      return;
+    }
+    vanishingPointFraction = Math.max(0f, Math.min(1f, fractionTraveled));
+    updateCongestionGradient();
+  }
+
+  /**
+   * Uploads the simplified route features matching the camera zoom. The source is only reset
+   * when the zoom crosses into another band, e.g. when entering or leaving the route overview.
+   *
+   * @param zoom of the camera
+   */
+  void updateZoomLevelTo(double zoom) {
+    int levelOfDetail = RouteLevelOfDetail.levelFor(zoom);
+    if (this.levelOfDetail == levelOfDetail) {
+      return;
+    }
+    this.levelOfDetail = levelOfDetail;
+    drawRoutes();
+  }
+
+  private void drawRoutes() {
+    if (levelFeatureCollections.isEmpty()) {
+      return;
     }
-    routeLineSource.setGeoJson(FeatureCollection.fromFeatures(routeFeatures));
+    routeLineSource.setGeoJson(levelFeatureCollections.get(levelOfDetail));
   }
 
   private void clearRouteData() {
@@ -235,25 +309,109 @@ class MapRouteLine {
     if (!routeLineStrings.isEmpty()) {
       routeLineStrings.clear();
     }
-    if (!routeFeatureCollections.isEmpty()) {
-      routeFeatureCollections.clear();
+    if (!levelFeatureCollections.isEmpty()) {
+      levelFeatureCollections.clear();
+    }
+    if (!routeGradients.isEmpty()) {
+      routeGradients.clear();
+    }
+    if (!routeSegmentIndices.isEmpty()) {
+      routeSegmentIndices.clear();
     }
   }
 
   private void generateRouteFeatureCollectionsFrom(List<DirectionsRoute> routes) {
-    new FeatureProcessingTask(routes, routeFeaturesProcessedCallback).execute();
+    if (featureProcessingTask != null) {
+      featureProcessingTask.cancel();
+    }
+    featureProcessingTask = new FeatureProcessingTask(routes, isGradientEnabled, routeFeaturesProcessedCallback);
+    NavigationComputeExecutor.getInstance().execute(featureProcessingTask,
+      NavigationComputeExecutor.PRIORITY_ROUTE_FEATURES);
+  }
+
+  private boolean hasSameGeometries(List<DirectionsRoute> routes) {
+    if (routes.size() != directionsRoutes.size() || routeGradients.size() != directionsRoutes.size()) {
+      return false;
+    }
+    for (int i = 0; i < routes.size(); i++) {
+      String geometry = routes.get(i).geometry();
+      if (geometry == null || !geometry.equals(directionsRoutes.get(i).geometry())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Routes with unchanged geometry (e.g. a traffic refresh) only need new congestion stops,
+   * so the decoded geometry is reused and the route source is left untouched.
+   */
+  private void refreshCongestionGradients(List<DirectionsRoute> routes) {
+    for (int i = 0; i < routes.size(); i++) {
+      DirectionsRoute route = routes.get(i);
+      LineString routeLineString = findRouteLineString(directionsRoutes.get(i));
+      RouteGeometry routeGeometry = RouteGeometryCache.getInstance().obtainRouteGeometry(route);
+      if (routeLineString == null || routeGeometry == null) {
+        continue;
+      }
+      routeLineStrings.put(routeLineString, route);
+      routeGradients.set(i, RouteCongestionGradient.from(route, routeGeometry));
+    }
+    directionsRoutes.clear();
+    directionsRoutes.addAll(routes);
+    updateCongestionGradient();
+  }
+
+  private LineString findRouteLineString(DirectionsRoute route) {
+    for (Map.Entry<LineString, DirectionsRoute> entry : routeLineStrings.entrySet()) {
+      if (entry.getValue() == route) {
+        return entry.getKey();
+      }
+    }
+    return null;
+  }
+
+  private void updateCongestionGradient() {
+    if (!isGradientEnabled || routeLayer == null
+      || primaryRouteIndex < 0 || primaryRouteIndex >= routeGradients.size()) {
+      return;
+    }
+    RouteCongestionGradient gradient = routeGradients.get(primaryRouteIndex);
+    routeLayer.setProperties(lineGradient(layerProvider.buildCongestionGradient(gradient,
+      vanishingPointFraction, routeDefaultColor, routeModerateColor, routeSevereColor)));
+    updateShieldVanishingPoint();
+  }
+
+  /**
+   * The shield layer also draws alternatives, so its casing can only vanish while the
+   * primary route is the sole line in it.
+   */
+  private void updateShieldVanishingPoint() {
+    if (!isVanishingEnabled || routeShieldLayer == null) {
+      return;
+    }
+    boolean isPrimaryShieldOnly = directionsRoutes.size() == 1 || !alternativesVisible;
+    if (vanishingPointFraction > 0 && isPrimaryShieldOnly) {
+      routeShieldLayer.setProperties(lineGradient(
+        layerProvider.buildVanishingGradient(vanishingPointFraction, routeShieldColor)));
+    } else {
+      routeShieldLayer.setProperties(lineGradient((Expression) null));
+    }
   }
 
   private OnRouteFeaturesProcessedCallback routeFeaturesProcessedCallback = new OnRouteFeaturesProcessedCallback() {
     @Override
-    public void onRouteFeaturesProcessed(List<FeatureCollection> routeFeatureCollections,
-                                         HashMap<LineString, DirectionsRoute> routeLineStrings) {
-      MapRouteLine.this.routeFeatureCollections.addAll(routeFeatureCollections);
+    public void onRouteFeaturesProcessed(List<FeatureCollection> levelFeatureCollections,
+                                         HashMap<LineString, DirectionsRoute> routeLineStrings,
+                                         List<RouteCongestionGradient> routeGradients,
+                                         List<RouteSegmentIndex> routeSegmentIndices) {
+      MapRouteLine.this.levelFeatureCollections.addAll(levelFeatureCollections);
       MapRouteLine.this.routeLineStrings.putAll(routeLineStrings);
-      drawRoutes(routeFeatureCollections);
+      MapRouteLine.this.routeGradients.addAll(routeGradients);
+      MapRouteLine.this.routeSegmentIndices.addAll(routeSegmentIndices);
+      drawRoutes();
       drawWayPoints();
-      updateAlternativeVisibilityTo(alternativesVisible);
-      updateRoutesFor(primaryRouteIndex);
+      updatePrimaryRouteLayers();
       updateVisibilityTo(isVisible);
     }
   };
@@ -282,20 +440,22 @@ class MapRouteLine {
     return feature;
   }
 
-  private void updateRoutesFor(int newPrimaryIndex) {
-    if (newPrimaryIndex < 0 || newPrimaryIndex > routeFeatureCollections.size() - 1) {
+  /**
+   * Every route feature is tagged with its route index when processed, so selecting a new
+   * primary route only swaps filters and paint expressions on the existing layers.
+   */
+  private void updatePrimaryRouteLayers() {
+    if (routeLayer == null) {
       return;
     }
-    new PrimaryRouteUpdateTask(newPrimaryIndex, routeFeatureCollections, primaryRouteUpdatedCallback).execute();
+    routeLayer.setFilter(layerProvider.isPrimaryRoute(primaryRouteIndex));
+    alternativeRouteLayer.setFilter(layerProvider.isAlternativeRoute(primaryRouteIndex));
+    layerProvider.updateRouteShieldLayer(routeShieldLayer, primaryRouteIndex, routeScale,
+      alternativeRouteScale, routeShieldColor, alternativeRouteShieldColor);
+    updateAlternativeVisibilityTo(alternativesVisible);
+    updateCongestionGradient();
   }
 
-  private OnPrimaryRouteUpdatedCallback primaryRouteUpdatedCallback = new OnPrimaryRouteUpdatedCallback() {
-    @Override
-    public void onPrimaryRouteUpdated(List<FeatureCollection> updatedRouteCollections) {
-      drawRoutes(updatedRouteCollections);
-    }
-  };
-
   private void findRouteBelowLayerId() {
     if (belowLayer == null || belowLayer.isEmpty()) {
       List<Layer> styleLayers = mapboxMap.getStyle().getLayers();
@@ -310,18 +470,23 @@ class MapRouteLine {
   }
 
   private void initializeLayers(MapboxMap mapboxMap, MapRouteLayerProvider layerProvider) {
-    LineLayer routeShieldLayer = layerProvider.initializeRouteShieldLayer(
-      mapboxMap, routeScale, alternativeRouteScale,
+    routeShieldLayer = layerProvider.initializeRouteShieldLayer(
+      mapboxMap, primaryRouteIndex, routeScale, alternativeRouteScale,
       routeShieldColor, alternativeRouteShieldColor
     );
     MapUtils.addLayerToMap(mapboxMap, routeShieldLayer, belowLayer);
     routeLayers.add(routeShieldLayer);
 
-    LineLayer routeLayer = layerProvider.initializeRouteLayer(
-      mapboxMap, roundedLineCap, routeScale, alternativeRouteScale,
-      routeDefaultColor, routeModerateColor, routeSevereColor,
-      alternativeRouteDefaultColor, alternativeRouteModerateColor,
-      alternativeRouteSevereColor
+    alternativeRouteLayer = layerProvider.initializeAlternativeRouteLayer(
+      mapboxMap, roundedLineCap, primaryRouteIndex, alternativeRouteScale,
+      alternativeRouteDefaultColor, alternativeRouteModerateColor, alternativeRouteSevereColor
+    );
+    MapUtils.addLayerToMap(mapboxMap, alternativeRouteLayer, belowLayer);
+    routeLayers.add(alternativeRouteLayer);
+
+    routeLayer = layerProvider.initializeRouteLayer(
+      mapboxMap, roundedLineCap, primaryRouteIndex, routeScale,
+      routeDefaultColor, routeModerateColor, routeSevereColor
     );
     MapUtils.addLayerToMap(mapboxMap, routeLayer, belowLayer);
     routeLayers.add(routeLayer);
@@ -334,24 +499,24 @@ class MapRouteLine {
   }
 
   private void updateAlternativeVisibilityTo(boolean isVisible) {
-    for (Layer layer : routeLayers) {
-      String layerId = layer.getId();
-      if (layerId.equals(ROUTE_LAYER_ID) || layerId.equals(ROUTE_SHIELD_LAYER_ID)) {
-        LineLayer route = (LineLayer) layer;
-        if (isVisible) {
-          route.setFilter(literal(true));
-        } else {
-          route.setFilter(Expression.eq(Expression.get(PRIMARY_ROUTE_PROPERTY_KEY), true));
-        }
-      }
+    if (routeShieldLayer == null) {
+      return;
+    }
+    alternativeRouteLayer.setProperties(visibility(isVisible && this.isVisible ? VISIBLE : NONE));
+    if (isVisible) {
+      routeShieldLayer.setFilter(literal(true));
+    } else {
+      routeShieldLayer.setFilter(layerProvider.isPrimaryRoute(primaryRouteIndex));
     }
+    updateShieldVanishingPoint();
   }
 
   private void updateAllLayersVisibilityTo(boolean isVisible) {
     this.isVisible = isVisible;
     for (Layer layer : routeLayers) {
+      boolean isHiddenAlternative = layer.getId().equals(ALTERNATIVE_ROUTE_LAYER_ID) && !alternativesVisible;
       layer.setProperties(
-        visibility(isVisible ? VISIBLE : NONE)
+        visibility(isVisible && !isHiddenAlternative ? VISIBLE : NONE)
       );
     }
   }
@@ -3,6 +3,7 @@ package com.mapbox.services.android.navigation.ui.v5.route;
 import android.location.Location;
 
 import com.mapbox.api.directions.v5.models.DirectionsRoute;
+import com.mapbox.services.android.navigation.ui.v5.utils.RouteFingerprint;
 import com.mapbox.services.android.navigation.v5.routeprogress.ProgressChangeListener;
 import com.mapbox.services.android.navigation.v5.routeprogress.RouteProgress;
 
@@ -10,9 +11,11 @@ import java.util.List;
 
 class MapRouteProgressChangeListener implements ProgressChangeListener {
 
+  private static final double NO_VANISHING_DISTANCE = -1;
   private final MapRouteLine routeLine;
   private final MapRouteArrow routeArrow;
   private boolean isVisible = true;
+  private double lastVanishingDistance = NO_VANISHING_DISTANCE;
 
   MapRouteProgressChangeListener(MapRouteLine routeLine, MapRouteArrow routeArrow) {
     this.routeLine = routeLine;
@@ -28,6 +31,7 @@ class MapRouteProgressChangeListener implements ProgressChangeListener {
     List<DirectionsRoute> directionsRoutes = routeLine.retrieveDirectionsRoutes();
     int primaryRouteIndex = routeLine.retrievePrimaryRouteIndex();
     addNewRoute(currentRoute, directionsRoutes, primaryRouteIndex);
+    updateVanishingPoint(routeProgress);
     routeArrow.addUpcomingManeuverArrow(routeProgress);
   }
 
@@ -39,12 +43,27 @@ class MapRouteProgressChangeListener implements ProgressChangeListener {
                            int primaryRouteIndex) {
     if (isANewRoute(currentRoute, directionsRoutes, primaryRouteIndex)) {
       routeLine.draw(currentRoute);
+      lastVanishingDistance = NO_VANISHING_DISTANCE;
     }
   }
 
+  private void updateVanishingPoint(RouteProgress routeProgress) {
+    if (!routeLine.isVanishingEnabled()) {
+      return;
+    }
+    double distanceTraveled = routeProgress.distanceTraveled();
+    boolean isFirstUpdate = lastVanishingDistance == NO_VANISHING_DISTANCE;
+    if (!isFirstUpdate
+      && Math.abs(distanceTraveled - lastVanishingDistance) < routeLine.retrieveVanishingUpdateDistance()) {
+      return;
+    }
+    lastVanishingDistance = distanceTraveled;
+    routeLine.updateVanishingPointTo(routeProgress.fractionTraveled());
+  }
+
   private boolean isANewRoute(DirectionsRoute currentRoute, List<DirectionsRoute> directionsRoutes,
                               int primaryRouteIndex) {
     boolean noRoutes = directionsRoutes.isEmpty();
-    return noRoutes || !currentRoute.equals(directionsRoutes.get(primaryRouteIndex));
+    return noRoutes || !RouteFingerprint.isSameRoute(currentRoute, directionsRoutes.get(primaryRouteIndex));
   }
 }
@@ -47,6 +47,8 @@ public class NavigationMapRoute implements LifecycleObserver {
   private boolean isMapClickListenerAdded = false;
   private MapView.OnDidFinishLoadingStyleListener didFinishLoadingStyleListener;
   private boolean isDidFinishLoadingStyleListenerAdded = false;
+  private MapboxMap.OnCameraIdleListener cameraIdleListener;
+  private boolean isCameraIdleListenerAdded = false;
   private MapboxNavigation navigation;
   private MapRouteLine routeLine;
   private MapRouteArrow routeArrow;
@@ -141,6 +143,7 @@ public class NavigationMapRoute implements LifecycleObserver {
     this.mapRouteClickListener = new MapRouteClickListener(routeLine);
     this.mapRouteProgressChangeListener = new MapRouteProgressChangeListener(routeLine, routeArrow);
     initializeDidFinishLoadingStyleListener();
+    initializeCameraIdleListener();
     addListeners();
   }
 
@@ -158,6 +161,7 @@ public class NavigationMapRoute implements LifecycleObserver {
     this.mapRouteClickListener = mapClickListener;
     this.didFinishLoadingStyleListener = didFinishLoadingStyleListener;
     this.mapRouteProgressChangeListener = progressChangeListener;
+    initializeCameraIdleListener();
     addListeners();
   }
 
@@ -179,6 +183,7 @@ public class NavigationMapRoute implements LifecycleObserver {
     this.mapRouteProgressChangeListener = progressChangeListener;
     this.routeLine = routeLine;
     this.routeArrow = routeArrow;
+    initializeCameraIdleListener();
   }
 
   /**
@@ -333,6 +338,15 @@ public class NavigationMapRoute implements LifecycleObserver {
     };
   }
 
+  private void initializeCameraIdleListener() {
+    cameraIdleListener = new MapboxMap.OnCameraIdleListener() {
+      @Override
+      public void onCameraIdle() {
+        routeLine.updateZoomLevelTo(mapboxMap.getCameraPosition().zoom);
+      }
+    };
+  }
+
   private void addListeners() {
     if (!isMapClickListenerAdded) {
       mapboxMap.addOnMapClickListener(mapRouteClickListener);
@@ -345,6 +359,10 @@ public class NavigationMapRoute implements LifecycleObserver {
       mapView.addOnDidFinishLoadingStyleListener(didFinishLoadingStyleListener);
       isDidFinishLoadingStyleListenerAdded = true;
     }
+    if (!isCameraIdleListenerAdded) {
+      mapboxMap.addOnCameraIdleListener(cameraIdleListener);
+      isCameraIdleListenerAdded = true;
+    }
   }
 
   private void removeListeners() {
@@ -359,6 +377,10 @@ public class NavigationMapRoute implements LifecycleObserver {
       mapView.removeOnDidFinishLoadingStyleListener(didFinishLoadingStyleListener);
       isDidFinishLoadingStyleListenerAdded = false;
     }
+    if (isCameraIdleListenerAdded) {
+      mapboxMap.removeOnCameraIdleListener(cameraIdleListener);
+      isCameraIdleListenerAdded = false;
+    }
   }
 
   private void redraw() {
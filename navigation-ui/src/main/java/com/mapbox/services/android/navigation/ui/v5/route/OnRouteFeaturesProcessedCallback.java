@@ -8,6 +8,8 @@ import java.util.HashMap;
 import java.util.List;
 
 interface OnRouteFeaturesProcessedCallback {
-  void onRouteFeaturesProcessed(List<FeatureCollection> routeFeatureCollections,
-                                HashMap<LineString, DirectionsRoute> routeLineStrings);
+  void onRouteFeaturesProcessed(List<FeatureCollection> levelFeatureCollections,
+                                HashMap<LineString, DirectionsRoute> routeLineStrings,
+                                List<RouteCongestionGradient> routeGradients,
+                                List<RouteSegmentIndex> routeSegmentIndices);
 }
@@ -0,0 +1,74 @@
+package com.mapbox.services.android.navigation.ui.v5.route;
+
+import android.support.annotation.NonNull;
+
+import com.mapbox.geojson.Point;
+import com.mapbox.mapboxsdk.geometry.LatLngBounds;
+
+/**
+ * Bounding boxes of a {@link RouteGeometry} and of what remains of it from any distance along.
+ * <p>
+ * A single backwards pass stores the running min / max from each coordinate to the end, so the
+ * remaining route bounds are a binary search plus one interpolated point away.
+ */
+public final class RouteBounds {
+
+  private static final int WEST = 0;
+  private static final int SOUTH = 1;
+  private static final int EAST = 2;
+  private static final int NORTH = 3;
+  private static final int BOUNDS_SIZE = 4;
+  private final RouteGeometry geometry;
+  private final double[] suffixBounds;
+
+  RouteBounds(RouteGeometry geometry) {
+    this.geometry = geometry;
+    this.suffixBounds = buildSuffixBounds(geometry);
+  }
+
+  /**
+   * @return bounds of the whole route
+   */
+  @NonNull
+  public LatLngBounds toLatLngBounds() {
+    return LatLngBounds.from(suffixBounds[NORTH], suffixBounds[EAST], suffixBounds[SOUTH], suffixBounds[WEST]);
+  }
+
+  /**
+   * @param distanceTraveled in meters from the first coordinate
+   * @return bounds of the route ahead of the given distance
+   */
+  @NonNull
+  public LatLngBounds remainingLatLngBounds(double distanceTraveled) {
+    int segment = geometry.segmentIndexAt(distanceTraveled);
+    int offset = Math.min(segment + 1, geometry.size() - 1) * BOUNDS_SIZE;
+    Point currentPoint = geometry.pointAlong(distanceTraveled);
+    return LatLngBounds.from(
+      Math.max(suffixBounds[offset + NORTH], currentPoint.latitude()),
+      Math.max(suffixBounds[offset + EAST], currentPoint.longitude()),
+      Math.min(suffixBounds[offset + SOUTH], currentPoint.latitude()),
+      Math.min(suffixBounds[offset + WEST], currentPoint.longitude())
+    );
+  }
+
+  private static double[] buildSuffixBounds(RouteGeometry geometry) {
+    int size = geometry.size();
+    double[] bounds = new double[Math.max(size, 1) * BOUNDS_SIZE];
+    double west = Double.POSITIVE_INFINITY;
+    double south = Double.POSITIVE_INFINITY;
+    double east = Double.NEGATIVE_INFINITY;
+    double north = Double.NEGATIVE_INFINITY;
+    for (int i = size - 1; i >= 0; i--) {
+      west = Math.min(west, geometry.longitude(i));
+      south = Math.min(south, geometry.latitude(i));
+      east = Math.max(east, geometry.longitude(i));
+      north = Math.max(north, geometry.latitude(i));
+      int offset = i * BOUNDS_SIZE;
+      bounds[offset + WEST] = west;
+      bounds[offset + SOUTH] = south;
+      bounds[offset + EAST] = east;
+      bounds[offset + NORTH] = north;
+    }
+    return bounds;
+  }
+}
@@ -0,0 +1,81 @@
+package com.mapbox.services.android.navigation.ui.v5.route;
+
+import com.mapbox.api.directions.v5.models.DirectionsRoute;
+import com.mapbox.api.directions.v5.models.RouteLeg;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Congestion runs of a route expressed as fractions of the total route distance, used to
+ * color a single route {@link com.mapbox.geojson.LineString} with a line-progress gradient.
+ */
+class RouteCongestionGradient {
+
+  private final List<Float> runProgress;
+  private final List<String> runCongestion;
+
+  private RouteCongestionGradient(List<Float> runProgress, List<String> runCongestion) {
+    this.runProgress = runProgress;
+    this.runCongestion = runCongestion;
+  }
+
+  static RouteCongestionGradient from(DirectionsRoute route, RouteGeometry routeGeometry) {
+    List<Float> runProgress = new ArrayList<>();
+    List<String> runCongestion = new ArrayList<>();
+    runProgress.add(0f);
+    runCongestion.add(null);
+    double totalDistance = routeGeometry.length();
+    if (totalDistance <= 0) {
+      return new RouteCongestionGradient(runProgress, runCongestion);
+    }
+
+    int legOffset = 0;
+    for (RouteLeg leg : route.legs()) {
+      if (leg.annotation() == null || leg.annotation().congestion() == null) {
+        break;
+      }
+      List<String> congestion = leg.annotation().congestion();
+      // See https://github.com/mapbox/mapbox-navigation-android/issues/353
+      if (legOffset + congestion.size() + 1 > routeGeometry.size()) {
+        break;
+      }
+      for (int i = 0; i < congestion.size(); i++) {
+        String value = congestion.get(i);
+        int lastRun = runCongestion.size() - 1;
+        if (isSameCongestion(runCongestion.get(lastRun), value)) {
+          continue;
+        }
+        float progress = (float) (routeGeometry.distanceAt(legOffset + i) / totalDistance);
+        if (progress <= runProgress.get(lastRun)) {
+          runCongestion.set(lastRun, value);
+        } else {
+          runProgress.add(progress);
+          runCongestion.add(value);
+        }
+      }
+      legOffset += congestion.size();
+    }
+    return new RouteCongestionGradient(runProgress, runCongestion);
+  }
+
+  int size() {
+    return runProgress.size();
+  }
+
+  /**
+   * @param index of the congestion run
+   * @return the line-progress (0 to 1) at which this run starts, strictly increasing by index
+   */
+  float progressAt(int index) {
+    return runProgress.get(index);
+  }
+
+  String congestionAt(int index) {
+    return runCongestion.get(index);
+  }
+
+  private static boolean isSameCongestion(String congestion, String otherCongestion) {
+    return congestion == null ? otherCongestion == null : congestion.equals(otherCongestion);
+  }
+}
@@ -6,6 +6,7 @@ class RouteConstants {
   static final String ROUTE_SOURCE_ID = "mapbox-navigation-route-source";
   static final String ROUTE_LAYER_ID = "mapbox-navigation-route-layer";
   static final String ROUTE_SHIELD_LAYER_ID = "mapbox-navigation-route-shield-layer";
+  static final String ALTERNATIVE_ROUTE_LAYER_ID = "mapbox-navigation-alternative-route-layer";
   static final String WAYPOINT_SOURCE_ID = "mapbox-navigation-waypoint-source";
   static final String WAYPOINT_LAYER_ID = "mapbox-navigation-waypoint-layer";
   static final int TWO_POINTS = 2;
@@ -36,11 +37,10 @@ class RouteConstants {
   static final int ARROW_HIDDEN_ZOOM_LEVEL = 14;
   static final float TRANSPARENT = 1.0f;
   static final String LAYER_ABOVE_UPCOMING_MANEUVER_ARROW = "com.mapbox.annotations.points";
-  static final int FIRST_COLLECTION_INDEX = 0;
   static final String WAYPOINT_PROPERTY_KEY = "wayPoint";
   static final String WAYPOINT_ORIGIN_VALUE = "origin";
   static final String WAYPOINT_DESTINATION_VALUE = "destination";
-  static final String PRIMARY_ROUTE_PROPERTY_KEY = "primary-route";
+  static final String ROUTE_INDEX_PROPERTY_KEY = "route-index";
   static final String MODERATE_CONGESTION_VALUE = "moderate";
   static final String HEAVY_CONGESTION_VALUE = "heavy";
   static final String SEVERE_CONGESTION_VALUE = "severe";
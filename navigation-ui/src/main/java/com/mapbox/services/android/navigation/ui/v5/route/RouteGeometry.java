@@ -0,0 +1,275 @@
+package com.mapbox.services.android.navigation.ui.v5.route;
+
+import android.support.annotation.NonNull;
+
+import com.mapbox.geojson.LineString;
+import com.mapbox.geojson.Point;
+import com.mapbox.turf.TurfConstants;
+import com.mapbox.turf.TurfConversion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A decoded polyline stored as packed longitude / latitude pairs, along with the cumulative
+ * distance in meters from the first coordinate to each coordinate.
+ * <p>
+ * Instances are immutable and obtained from {@link RouteGeometryCache} so the same geometry
+ * is only decoded once, no matter how many components read it. Route geometries also carry
+ * their {@link RouteBounds}, built when the geometry is first obtained.
+ */
+public final class RouteGeometry {
+
+  private static final int FIRST = 0;
+  private static final int TWO_POINTS = 2;
+  private final double[] coordinates;
+  private final double[] distances;
+  private RouteBounds bounds;
+
+  RouteGeometry(double[] coordinates) {
+    this.coordinates = coordinates;
+    this.distances = buildCumulativeDistances(coordinates);
+  }
+
+  static RouteGeometry fromPolyline(String polyline, int precision) {
+    return new RouteGeometry(decode(polyline, precision));
+  }
+
+  /**
+   * @return number of coordinates in this geometry
+   */
+  public int size() {
+    return distances.length;
+  }
+
+  public double longitude(int index) {
+    return coordinates[index * 2];
+  }
+
+  public double latitude(int index) {
+    return coordinates[index * 2 + 1];
+  }
+
+  /**
+   * @param index of the coordinate
+   * @return distance in meters from the first coordinate, measured along the geometry
+   */
+  public double distanceAt(int index) {
+    return distances[index];
+  }
+
+  /**
+   * @return total length of the geometry in meters
+   */
+  public double length() {
+    return distances.length == 0 ? 0 : distances[distances.length - 1];
+  }
+
+  /**
+   * @return bounds of this geometry, built on first use
+   */
+  @NonNull
+  public synchronized RouteBounds bounds() {
+    if (bounds == null) {
+      bounds = new RouteBounds(this);
+    }
+    return bounds;
+  }
+
+  @NonNull
+  public Point pointAt(int index) {
+    return Point.fromLngLat(longitude(index), latitude(index));
+  }
+
+  /**
+   * Builds the coordinates between two indices (both inclusive) as {@link Point}s.
+   *
+   * @param fromIndex first coordinate
+   * @param toIndex   last coordinate
+   * @return new list of points
+   */
+  @NonNull
+  public List<Point> points(int fromIndex, int toIndex) {
+    List<Point> points = new ArrayList<>(Math.max(toIndex - fromIndex + 1, 0));
+    for (int i = fromIndex; i <= toIndex; i++) {
+      points.add(pointAt(i));
+    }
+    return points;
+  }
+
+  @NonNull
+  public LineString toLineString() {
+    return LineString.fromLngLats(points(FIRST, size() - 1));
+  }
+
+  /**
+   * Finds the segment containing the given distance along the geometry.
+   *
+   * @param distance in meters from the first coordinate
+   * @return index of the segment start coordinate, clamped to the valid segment range
+   */
+  public int segmentIndexAt(double distance) {
+    if (size() < TWO_POINTS) {
+      return FIRST;
+    }
+    int index = Arrays.binarySearch(distances, distance);
+    if (index < 0) {
+      index = -index - 2;
+    }
+    return Math.max(FIRST, Math.min(index, size() - TWO_POINTS));
+  }
+
+  /**
+   * @param distance in meters from the first coordinate, clamped to the geometry length
+   * @return the interpolated point at the given distance along the geometry
+   */
+  @NonNull
+  public Point pointAlong(double distance) {
+    if (size() < TWO_POINTS) {
+      return pointAt(FIRST);
+    }
+    double clampedDistance = Math.max(0, Math.min(distance, length()));
+    int segment = segmentIndexAt(clampedDistance);
+    double fraction = segmentFraction(segment, clampedDistance);
+    return Point.fromLngLat(
+      interpolate(longitude(segment), longitude(segment + 1), fraction),
+      interpolate(latitude(segment), latitude(segment + 1), fraction)
+    );
+  }
+
+  /**
+   * Slices the geometry between two distances, interpolating the first and last point.
+   *
+   * @param startDistance in meters from the first coordinate
+   * @param endDistance   in meters from the first coordinate
+   * @return points of the slice, in order
+   */
+  @NonNull
+  public List<Point> slice(double startDistance, double endDistance) {
+    List<Point> slice = new ArrayList<>();
+    if (size() < TWO_POINTS) {
+      return slice;
+    }
+    double start = Math.max(0, Math.min(startDistance, length()));
+    double end = Math.max(start, Math.min(endDistance, length()));
+    slice.add(pointAlong(start));
+    int lastSegment = segmentIndexAt(end);
+    for (int i = segmentIndexAt(start) + 1; i <= lastSegment; i++) {
+      if (distances[i] > start && distances[i] < end) {
+        slice.add(pointAt(i));
+      }
+    }
+    slice.add(pointAlong(end));
+    return slice;
+  }
+
+  /**
+   * Projects a location onto the geometry and returns how far along the geometry the closest
+   * point lies.
+   *
+   * @param longitude of the location
+   * @param latitude  of the location
+   * @return distance in meters from the first coordinate to the projected location
+   */
+  public double projectDistanceAlong(double longitude, double latitude) {
+    if (size() < TWO_POINTS) {
+      return 0;
+    }
+    double longitudeScale = Math.cos(Math.toRadians(latitude));
+    double closestDistanceSquared = Double.POSITIVE_INFINITY;
+    double closestDistanceAlong = 0;
+    for (int i = 0; i < size() - 1; i++) {
+      double startX = (longitude(i) - longitude) * longitudeScale;
+      double startY = latitude(i) - latitude;
+      double segmentX = (longitude(i + 1) - longitude(i)) * longitudeScale;
+      double segmentY = latitude(i + 1) - latitude(i);
+      double segmentLengthSquared = segmentX * segmentX + segmentY * segmentY;
+      double fraction = 0;
+      if (segmentLengthSquared > 0) {
+        fraction = -(startX * segmentX + startY * segmentY) / segmentLengthSquared;
+        fraction = Math.max(0, Math.min(1, fraction));
+      }
+      double projectedX = startX + fraction * segmentX;
+      double projectedY = startY + fraction * segmentY;
+      double distanceSquared = projectedX * projectedX + projectedY * projectedY;
+      if (distanceSquared < closestDistanceSquared) {
+        closestDistanceSquared = distanceSquared;
+        closestDistanceAlong = interpolate(distances[i], distances[i + 1], fraction);
+      }
+    }
+    return closestDistanceAlong;
+  }
+
+  /**
+   * Great-circle distance between two coordinates, using the same earth radius as Turf.
+   */
+  static double distanceBetween(double fromLongitude, double fromLatitude,
+                                double toLongitude, double toLatitude) {
+    double latitudeDelta = Math.toRadians(toLatitude - fromLatitude);
+    double longitudeDelta = Math.toRadians(toLongitude - fromLongitude);
+    double a = Math.pow(Math.sin(latitudeDelta / 2), 2)
+      + Math.pow(Math.sin(longitudeDelta / 2), 2)
+      * Math.cos(Math.toRadians(fromLatitude)) * Math.cos(Math.toRadians(toLatitude));
+    return TurfConversion.radiansToLength(2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a)), TurfConstants.UNIT_METERS);
+  }
+
+  private double segmentFraction(int segment, double distance) {
+    double segmentLength = distances[segment + 1] - distances[segment];
+    if (segmentLength <= 0) {
+      return 0;
+    }
+    return Math.max(0, Math.min(1, (distance - distances[segment]) / segmentLength));
+  }
+
+  private static double interpolate(double from, double to, double fraction) {
+    return from + (to - from) * fraction;
+  }
+
+  private static double[] buildCumulativeDistances(double[] coordinates) {
+    int size = coordinates.length / 2;
+    double[] distances = new double[size];
+    for (int i = 1; i < size; i++) {
+      distances[i] = distances[i - 1] + distanceBetween(
+        coordinates[(i - 1) * 2], coordinates[(i - 1) * 2 + 1],
+        coordinates[i * 2], coordinates[i * 2 + 1]
+      );
+    }
+    return distances;
+  }
+
+  /**
+   * Decodes an encoded polyline straight into packed longitude / latitude pairs, skipping the
+   * intermediate {@link Point} list built by {@link LineString#fromPolyline(String, int)}.
+   */
+  private static double[] decode(String polyline, int precision) {
+    double factor = Math.pow(10, precision);
+    // Every encoded coordinate uses at least two characters, so this is an upper bound
+    double[] coordinates = new double[polyline.length()];
+    int count = 0;
+    int index = 0;
+    long latitude = 0;
+    long longitude = 0;
+    while (index < polyline.length()) {
+      for (int axis = 0; axis < 2; axis++) {
+        long result = 0;
+        int shift = 0;
+        int value;
+        do {
+          value = polyline.charAt(index++) - 63;
+          result |= (long) (value & 0x1f) << shift;
+          shift += 5;
+        } while (value >= 0x20 && index < polyline.length());
+        long delta = (result & 1) != 0 ? ~(result >> 1) : (result >> 1);
+        if (axis == 0) {
+          latitude += delta;
+        } else {
+          longitude += delta;
+        }
+      }
+      coordinates[count++] = longitude / factor;
+      coordinates[count++] = latitude / factor;
+    }
+    return Arrays.copyOf(coordinates, count);
+  }
+}
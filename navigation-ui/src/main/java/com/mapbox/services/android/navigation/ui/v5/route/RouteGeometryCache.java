@@ -0,0 +1,134 @@
+package com.mapbox.services.android.navigation.ui.v5.route;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mapbox.api.directions.v5.models.DirectionsRoute;
+import com.mapbox.api.directions.v5.models.LegStep;
+import com.mapbox.api.directions.v5.models.RouteLeg;
+import com.mapbox.api.directions.v5.models.RouteOptions;
+import com.mapbox.core.constants.Constants;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide cache of decoded route and step geometries.
+ * <p>
+ * Geometries are keyed by route identity (request UUID plus route index) so the route line,
+ * camera, maneuver arrow and way name components all share one decoded copy of each polyline.
+ * Route and step geometries are held in separate LRUs, so the steps of a long route never evict
+ * the route itself; the least recently used entries are evicted once {@link #MAX_ROUTE_ENTRIES}
+ * or {@link #MAX_STEP_ENTRIES} is reached.
+ */
+public final class RouteGeometryCache {
+
+  static final int MAX_ROUTE_ENTRIES = 8;
+  static final int MAX_STEP_ENTRIES = 512;
+  private static final String KEY_SEPARATOR = "/";
+  private static RouteGeometryCache instance;
+  private final Map<String, RouteGeometry> routeGeometries = buildLruMap(MAX_ROUTE_ENTRIES);
+  private final Map<String, RouteGeometry> stepGeometries = buildLruMap(MAX_STEP_ENTRIES);
+
+  private RouteGeometryCache() {
+  }
+
+  /**
+   * @return the shared cache instance
+   */
+  @NonNull
+  public static synchronized RouteGeometryCache getInstance() {
+    if (instance == null) {
+      instance = new RouteGeometryCache();
+    }
+    return instance;
+  }
+
+  /**
+   * Returns the decoded geometry of the whole route, decoding it and building its
+   * {@link RouteBounds} only on first access.
+   *
+   * @param route with a polyline6 geometry
+   * @return the decoded geometry, or null if the route has no geometry
+   */
+  @Nullable
+  public RouteGeometry obtainRouteGeometry(@NonNull DirectionsRoute route) {
+    RouteGeometry geometry = obtain(routeGeometries, buildRouteKey(route), route.geometry());
+    if (geometry != null) {
+      geometry.bounds();
+    }
+    return geometry;
+  }
+
+  /**
+   * Returns the decoded geometry of a single step, decoding it only on first access.
+   *
+   * @param route     the step belongs to
+   * @param legIndex  of the leg in the route
+   * @param stepIndex of the step in the leg
+   * @return the decoded geometry, or null if the step does not exist or has no geometry
+   */
+  @Nullable
+  public RouteGeometry obtainStepGeometry(@NonNull DirectionsRoute route, int legIndex, int stepIndex) {
+    List<RouteLeg> legs = route.legs();
+    if (legs == null || legIndex < 0 || legIndex >= legs.size()) {
+      return null;
+    }
+    List<LegStep> steps = legs.get(legIndex).steps();
+    if (steps == null || stepIndex < 0 || stepIndex >= steps.size()) {
+      return null;
+    }
+    String key = buildRouteKey(route) + KEY_SEPARATOR + legIndex + KEY_SEPARATOR + stepIndex;
+    return obtain(stepGeometries, key, steps.get(stepIndex).geometry());
+  }
+
+  /**
+   * Drops every cached geometry.
+   */
+  public synchronized void clear() {
+    routeGeometries.clear();
+    stepGeometries.clear();
+  }
+
+  @NonNull
+  static String buildRouteKey(@NonNull DirectionsRoute route) {
+    RouteOptions routeOptions = route.routeOptions();
+    String requestUuid = routeOptions == null ? null : routeOptions.requestUuid();
+    String routeIndex = route.routeIndex();
+    if (requestUuid == null || requestUuid.isEmpty() || routeIndex == null) {
+      // Offline and hand-built routes have no request identity, so fall back to the polyline itself
+      return String.valueOf(route.geometry());
+    }
+    return requestUuid + KEY_SEPARATOR + routeIndex;
+  }
+
+  @NonNull
+  private static Map<String, RouteGeometry> buildLruMap(final int maxEntries) {
+    return new LinkedHashMap<String, RouteGeometry>(maxEntries, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, RouteGeometry> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  @Nullable
+  private RouteGeometry obtain(Map<String, RouteGeometry> geometries, String key, @Nullable String polyline) {
+    if (polyline == null) {
+      return null;
+    }
+    synchronized (this) {
+      RouteGeometry geometry = geometries.get(key);
+      if (geometry != null) {
+        return geometry;
+      }
+    }
+    // Decode outside of the lock so a large route does not block readers on other threads
+    RouteGeometry geometry = RouteGeometry.fromPolyline(polyline, Constants.PRECISION_6);
+    synchronized (this) {
+      geometries.put(key, geometry);
+    }
+    return geometry;
+  }
+}
@@ -0,0 +1,112 @@
+package com.mapbox.services.android.navigation.ui.v5.route;
+
+/**
+ * Zoom bands for the route line and the Douglas-Peucker simplification used for each band.
+ * <p>
+ * Each band below {@link #FULL_DETAIL_LEVEL} is simplified with a tolerance of one pixel at the
+ * highest zoom of the band, so an overview of a long route uploads a few hundred vertices while
+ * the tracking view keeps every coordinate of the polyline.
+ */
+class RouteLevelOfDetail {
+
+  /**
+   * Upper zoom bound (exclusive) of each simplified level, in ascending order.
+   */
+  private static final double[] LEVEL_MAX_ZOOMS = {8d, 11d, 14d};
+  static final int LEVEL_COUNT = LEVEL_MAX_ZOOMS.length + 1;
+  static final int FULL_DETAIL_LEVEL = LEVEL_COUNT - 1;
+  private static final double EARTH_CIRCUMFERENCE_METERS = 40075016.686;
+  private static final double TILE_SIZE_PIXELS = 512d;
+  private static final double METERS_PER_DEGREE_LATITUDE = EARTH_CIRCUMFERENCE_METERS / 360d;
+
+  private RouteLevelOfDetail() {
+  }
+
+  static int levelFor(double zoom) {
+    for (int level = 0; level < LEVEL_MAX_ZOOMS.length; level++) {
+      if (zoom < LEVEL_MAX_ZOOMS[level]) {
+        return level;
+      }
+    }
+    return FULL_DETAIL_LEVEL;
+  }
+
+  /**
+   * @param level    simplified level, below {@link #FULL_DETAIL_LEVEL}
+   * @param latitude where the tolerance is measured, as ground resolution shrinks towards the poles
+   * @return simplification tolerance in meters
+   */
+  static double toleranceFor(int level, double latitude) {
+    double metersPerPixel = EARTH_CIRCUMFERENCE_METERS * Math.cos(Math.toRadians(latitude))
+      / (TILE_SIZE_PIXELS * Math.pow(2, LEVEL_MAX_ZOOMS[level]));
+    return Math.abs(metersPerPixel);
+  }
+
+  /**
+   * Iterative Douglas-Peucker over a locally flattened copy of the geometry.
+   *
+   * @param geometry  to simplify
+   * @param tolerance in meters
+   * @return mask of the coordinates to keep, the first and last coordinate are always kept
+   */
+  static boolean[] simplify(RouteGeometry geometry, double tolerance) {
+    int size = geometry.size();
+    boolean[] keep = new boolean[size];
+    if (size < 3) {
+      for (int i = 0; i < size; i++) {
+        keep[i] = true;
+      }
+      return keep;
+    }
+    double longitudeScale = METERS_PER_DEGREE_LATITUDE * Math.cos(Math.toRadians(geometry.latitude(0)));
+    double[] x = new double[size];
+    double[] y = new double[size];
+    for (int i = 0; i < size; i++) {
+      x[i] = geometry.longitude(i) * longitudeScale;
+      y[i] = geometry.latitude(i) * METERS_PER_DEGREE_LATITUDE;
+    }
+    double toleranceSquared = tolerance * tolerance;
+    keep[0] = true;
+    keep[size - 1] = true;
+    int[] stack = new int[size * 2];
+    int stackSize = 0;
+    stack[stackSize++] = 0;
+    stack[stackSize++] = size - 1;
+    while (stackSize > 0) {
+      int last = stack[--stackSize];
+      int first = stack[--stackSize];
+      double maxDistanceSquared = 0;
+      int farthest = -1;
+      for (int i = first + 1; i < last; i++) {
+        double distanceSquared = segmentDistanceSquared(x[i], y[i], x[first], y[first], x[last], y[last]);
+        if (distanceSquared > maxDistanceSquared) {
+          maxDistanceSquared = distanceSquared;
+          farthest = i;
+        }
+      }
+      if (farthest != -1 && maxDistanceSquared > toleranceSquared) {
+        keep[farthest] = true;
+        stack[stackSize++] = first;
+        stack[stackSize++] = farthest;
+        stack[stackSize++] = farthest;
+        stack[stackSize++] = last;
+      }
+    }
+    return keep;
+  }
+
+  private static double segmentDistanceSquared(double pointX, double pointY, double startX, double startY,
+                                               double endX, double endY) {
+    double segmentX = endX - startX;
+    double segmentY = endY - startY;
+    double lengthSquared = segmentX * segmentX + segmentY * segmentY;
+    double fraction = 0;
+    if (lengthSquared > 0) {
+      fraction = ((pointX - startX) * segmentX + (pointY - startY) * segmentY) / lengthSquared;
+      fraction = Math.max(0, Math.min(1, fraction));
+    }
+    double deltaX = startX + fraction * segmentX - pointX;
+    double deltaY = startY + fraction * segmentY - pointY;
+    return deltaX * deltaX + deltaY * deltaY;
+  }
+}
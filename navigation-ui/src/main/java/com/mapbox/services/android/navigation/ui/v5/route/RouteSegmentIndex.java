@@ -0,0 +1,194 @@
+package com.mapbox.services.android.navigation.ui.v5.route;
+
+/**
+ * Uniform grid over the segment bounding boxes of a {@link RouteGeometry}, used to find the
+ * closest point of a route to a map tap without visiting every segment.
+ * <p>
+ * Coordinates are flattened around the middle latitude of the route, so the grid cells are
+ * roughly square on the ground. Segments are stored per cell in packed arrays.
+ */
+class RouteSegmentIndex {
+
+  private static final int SEGMENTS_PER_CELL = 2;
+  private static final double MIN_CELL_SIZE = 1e-7;
+  private final RouteGeometry geometry;
+  private final double longitudeScale;
+  private final double minX;
+  private final double minY;
+  private final double cellSize;
+  private final int columns;
+  private final int rows;
+  private final int[] cellStarts;
+  private final int[] cellSegments;
+
+  private RouteSegmentIndex(RouteGeometry geometry, double longitudeScale, double minX, double minY,
+                            double cellSize, int columns, int rows, int[] cellStarts, int[] cellSegments) {
+    this.geometry = geometry;
+    this.longitudeScale = longitudeScale;
+    this.minX = minX;
+    this.minY = minY;
+    this.cellSize = cellSize;
+    this.columns = columns;
+    this.rows = rows;
+    this.cellStarts = cellStarts;
+    this.cellSegments = cellSegments;
+  }
+
+  static RouteSegmentIndex from(RouteGeometry geometry) {
+    int segmentCount = Math.max(geometry.size() - 1, 0);
+    double minLatitude = Double.POSITIVE_INFINITY;
+    double maxLatitude = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < geometry.size(); i++) {
+      minLatitude = Math.min(minLatitude, geometry.latitude(i));
+      maxLatitude = Math.max(maxLatitude, geometry.latitude(i));
+    }
+    double longitudeScale = geometry.size() == 0 ? 1 : Math.cos(Math.toRadians((minLatitude + maxLatitude) / 2));
+    double minX = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < geometry.size(); i++) {
+      double x = geometry.longitude(i) * longitudeScale;
+      minX = Math.min(minX, x);
+      maxX = Math.max(maxX, x);
+    }
+    if (segmentCount == 0) {
+      return new RouteSegmentIndex(geometry, longitudeScale, 0, 0, MIN_CELL_SIZE, 1, 1, new int[2], new int[0]);
+    }
+
+    double width = maxX - minX;
+    double height = maxLatitude - minLatitude;
+    int targetCells = Math.max(1, segmentCount / SEGMENTS_PER_CELL);
+    double cellSize = Math.max(Math.sqrt(width * height / targetCells),
+      Math.max(width, height) / targetCells);
+    cellSize = Math.max(cellSize, MIN_CELL_SIZE);
+    int columns = (int) (width / cellSize) + 1;
+    int rows = (int) (height / cellSize) + 1;
+
+    int[] cellStarts = new int[columns * rows + 1];
+    for (int segment = 0; segment < segmentCount; segment++) {
+      int[] range = cellRange(geometry, segment, longitudeScale, minX, minLatitude, cellSize, columns, rows);
+      for (int row = range[1]; row <= range[3]; row++) {
+        for (int column = range[0]; column <= range[2]; column++) {
+          cellStarts[row * columns + column + 1]++;
+        }
+      }
+    }
+    for (int cell = 0; cell < columns * rows; cell++) {
+      cellStarts[cell + 1] += cellStarts[cell];
+    }
+    int[] cellSegments = new int[cellStarts[columns * rows]];
+    int[] cellFill = new int[columns * rows];
+    for (int segment = 0; segment < segmentCount; segment++) {
+      int[] range = cellRange(geometry, segment, longitudeScale, minX, minLatitude, cellSize, columns, rows);
+      for (int row = range[1]; row <= range[3]; row++) {
+        for (int column = range[0]; column <= range[2]; column++) {
+          int cell = row * columns + column;
+          cellSegments[cellStarts[cell] + cellFill[cell]++] = segment;
+        }
+      }
+    }
+    return new RouteSegmentIndex(geometry, longitudeScale, minX, minLatitude, cellSize, columns, rows,
+      cellStarts, cellSegments);
+  }
+
+  /**
+   * Finds the distance from a location to the closest point on the route, visiting grid rings
+   * around the location until no unvisited cell can hold a closer segment.
+   *
+   * @param longitude of the location
+   * @param latitude  of the location
+   * @return distance in meters, or {@link Double#POSITIVE_INFINITY} if the route has no segments
+   */
+  double distanceTo(double longitude, double latitude) {
+    if (cellSegments.length == 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double x = longitude * longitudeScale;
+    int column = (int) Math.floor((x - minX) / cellSize);
+    int row = (int) Math.floor((latitude - minY) / cellSize);
+    int firstRing = Math.max(Math.max(-column, column - (columns - 1)), Math.max(-row, row - (rows - 1)));
+    firstRing = Math.max(firstRing, 0);
+    int lastRing = Math.max(Math.max(column, columns - 1 - column), Math.max(row, rows - 1 - row));
+
+    double closestDistanceSquared = Double.POSITIVE_INFINITY;
+    int closestSegment = -1;
+    double closestFraction = 0;
+    for (int ring = firstRing; ring <= lastRing; ring++) {
+      double ringDistance = (ring - 1) * cellSize;
+      if (closestSegment != -1 && ring > firstRing && ringDistance * ringDistance > closestDistanceSquared) {
+        break;
+      }
+      for (int cellRow = row - ring; cellRow <= row + ring; cellRow++) {
+        if (cellRow < 0 || cellRow >= rows) {
+          continue;
+        }
+        boolean isEdgeRow = cellRow == row - ring || cellRow == row + ring;
+        int step = isEdgeRow ? 1 : Math.max(2 * ring, 1);
+        for (int cellColumn = column - ring; cellColumn <= column + ring; cellColumn += step) {
+          if (cellColumn < 0 || cellColumn >= columns) {
+            continue;
+          }
+          int cell = cellRow * columns + cellColumn;
+          for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+            int segment = cellSegments[i];
+            double fraction = projectOnSegment(segment, x, latitude);
+            double distanceSquared = distanceSquaredTo(segment, fraction, x, latitude);
+            if (distanceSquared < closestDistanceSquared) {
+              closestDistanceSquared = distanceSquared;
+              closestSegment = segment;
+              closestFraction = fraction;
+            }
+          }
+        }
+      }
+    }
+    double closestLongitude = geometry.longitude(closestSegment)
+      + (geometry.longitude(closestSegment + 1) - geometry.longitude(closestSegment)) * closestFraction;
+    double closestLatitude = geometry.latitude(closestSegment)
+      + (geometry.latitude(closestSegment + 1) - geometry.latitude(closestSegment)) * closestFraction;
+    return RouteGeometry.distanceBetween(longitude, latitude, closestLongitude, closestLatitude);
+  }
+
+  private double projectOnSegment(int segment, double x, double y) {
+    double startX = geometry.longitude(segment) * longitudeScale;
+    double startY = geometry.latitude(segment);
+    double segmentX = geometry.longitude(segment + 1) * longitudeScale - startX;
+    double segmentY = geometry.latitude(segment + 1) - startY;
+    double lengthSquared = segmentX * segmentX + segmentY * segmentY;
+    if (lengthSquared <= 0) {
+      return 0;
+    }
+    double fraction = ((x - startX) * segmentX + (y - startY) * segmentY) / lengthSquared;
+    return Math.max(0, Math.min(1, fraction));
+  }
+
+  private double distanceSquaredTo(int segment, double fraction, double x, double y) {
+    double startX = geometry.longitude(segment) * longitudeScale;
+    double startY = geometry.latitude(segment);
+    double projectedX = startX + (geometry.longitude(segment + 1) * longitudeScale - startX) * fraction;
+    double projectedY = startY + (geometry.latitude(segment + 1) - startY) * fraction;
+    double deltaX = projectedX - x;
+    double deltaY = projectedY - y;
+    return deltaX * deltaX + deltaY * deltaY;
+  }
+
+  /**
+   * @return first column, first row, last column and last row covered by the segment bounds
+   */
+  private static int[] cellRange(RouteGeometry geometry, int segment, double longitudeScale, double minX,
+                                 double minY, double cellSize, int columns, int rows) {
+    double startX = geometry.longitude(segment) * longitudeScale;
+    double endX = geometry.longitude(segment + 1) * longitudeScale;
+    double startY = geometry.latitude(segment);
+    double endY = geometry.latitude(segment + 1);
+    return new int[] {
+      clamp((int) ((Math.min(startX, endX) - minX) / cellSize), columns),
+      clamp((int) ((Math.min(startY, endY) - minY) / cellSize), rows),
+      clamp((int) ((Math.max(startX, endX) - minX) / cellSize), columns),
+      clamp((int) ((Math.max(startY, endY) - minY) / cellSize), rows)
+    };
+  }
+
+  private static int clamp(int cell, int count) {
+    return Math.max(0, Math.min(cell, count - 1));
+  }
+}
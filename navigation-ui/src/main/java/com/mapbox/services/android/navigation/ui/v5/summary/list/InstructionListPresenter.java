@@ -7,6 +7,7 @@ import android.view.View;
 import com.mapbox.api.directions.v5.models.BannerInstructions;
 import com.mapbox.api.directions.v5.models.LegStep;
 import com.mapbox.api.directions.v5.models.RouteLeg;
+import com.mapbox.services.android.navigation.ui.v5.utils.RouteFingerprint;
 import com.mapbox.services.android.navigation.v5.routeprogress.RouteLegProgress;
 import com.mapbox.services.android.navigation.v5.routeprogress.RouteProgress;
 import com.mapbox.services.android.navigation.v5.utils.DistanceFormatter;
@@ -25,7 +26,7 @@ class InstructionListPresenter {
   private final RouteUtils routeUtils;
   private DistanceFormatter distanceFormatter;
   private List<BannerInstructions> instructions;
-  private RouteLeg currentLeg;
+  private Long currentLegFingerprint;
   private String drivingSide;
 
   InstructionListPresenter(RouteUtils routeUtils, DistanceFormatter distanceFormatter) {
@@ -113,7 +114,8 @@ class InstructionListPresenter {
   private void addBannerInstructions(RouteProgress routeProgress) {
     if (isNewLeg(routeProgress)) {
       instructions = new ArrayList<>();
-      currentLeg = routeProgress.currentLeg();
+      currentLegFingerprint = RouteFingerprint.ofLeg(routeProgress);
+      RouteLeg currentLeg = routeProgress.currentLeg();
       drivingSide = routeProgress.currentLegProgress().currentStep().drivingSide();
       List<LegStep> steps = currentLeg.steps();
       for (LegStep step : steps) {
@@ -126,7 +128,7 @@ class InstructionListPresenter {
   }
 
   private boolean isNewLeg(RouteProgress routeProgress) {
-    return currentLeg == null || !currentLeg.equals(routeProgress.currentLeg());
+    return currentLegFingerprint == null || currentLegFingerprint != RouteFingerprint.ofLeg(routeProgress);
   }
 
   private boolean updateInstructionList(RouteProgress routeProgress) {
@@ -0,0 +1,103 @@
+package com.mapbox.services.android.navigation.ui.v5.utils;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.support.annotation.NonNull;
+
+/**
+ * Process-wide cache of the charging state and battery level.
+ * <p>
+ * A single receiver for power connected, power disconnected and battery changed broadcasts is
+ * registered on the application context the first time the monitor is requested. Reads are plain
+ * field reads, so power-sensitive components can check the state on every progress update.
+ */
+public final class BatteryStateMonitor {
+
+  public static final float UNKNOWN_BATTERY_LEVEL = -1f;
+  private static final int DEFAULT_EXTRA_VALUE = -1;
+  private static BatteryStateMonitor instance;
+  private volatile boolean isPluggedIn;
+  private volatile float batteryLevel = UNKNOWN_BATTERY_LEVEL;
+
+  private BatteryStateMonitor() {
+  }
+
+  /**
+   * @param context to register the battery receiver with, its application context is used
+   * @return the shared monitor
+   */
+  public static synchronized BatteryStateMonitor getInstance(@NonNull Context context) {
+    if (instance == null) {
+      instance = new BatteryStateMonitor();
+      instance.register(context.getApplicationContext());
+    }
+    return instance;
+  }
+
+  /**
+   * @return true if the device is charging from USB, AC or a wireless charger
+   */
+  public boolean isPluggedIn() {
+    return isPluggedIn;
+  }
+
+  /**
+   * @return battery level between 0 and 1, or {@link #UNKNOWN_BATTERY_LEVEL} if not reported yet
+   */
+  public float retrieveBatteryLevel() {
+    return batteryLevel;
+  }
+
+  private void register(Context context) {
+    IntentFilter filter = new IntentFilter(Intent.ACTION_BATTERY_CHANGED);
+    filter.addAction(Intent.ACTION_POWER_CONNECTED);
+    filter.addAction(Intent.ACTION_POWER_DISCONNECTED);
+    Intent stickyBatteryStatus = context.registerReceiver(new BatteryStateReceiver(), filter);
+    if (stickyBatteryStatus != null) {
+      update(stickyBatteryStatus);
+    }
+  }
+
+  private void update(Intent intent) {
+    String action = intent.getAction();
+    if (Intent.ACTION_POWER_CONNECTED.equals(action)) {
+      isPluggedIn = true;
+    } else if (Intent.ACTION_POWER_DISCONNECTED.equals(action)) {
+      isPluggedIn = false;
+    } else if (Intent.ACTION_BATTERY_CHANGED.equals(action)) {
+      isPluggedIn = isPluggedIn(intent.getIntExtra(BatteryManager.EXTRA_PLUGGED, DEFAULT_EXTRA_VALUE));
+      batteryLevel = calculateBatteryLevel(intent);
+    }
+  }
+
+  private static boolean isPluggedIn(int chargePlug) {
+    boolean pluggedUsb = chargePlug == BatteryManager.BATTERY_PLUGGED_USB;
+    boolean pluggedAc = chargePlug == BatteryManager.BATTERY_PLUGGED_AC;
+    boolean isPlugged = pluggedUsb || pluggedAc;
+    if (Build.VERSION.SDK_INT > Build.VERSION_CODES.JELLY_BEAN) {
+      isPlugged = isPlugged || chargePlug == BatteryManager.BATTERY_PLUGGED_WIRELESS;
+    }
+    return isPlugged;
+  }
+
+  private static float calculateBatteryLevel(Intent batteryStatus) {
+    int level = batteryStatus.getIntExtra(BatteryManager.EXTRA_LEVEL, DEFAULT_EXTRA_VALUE);
+    int scale = batteryStatus.getIntExtra(BatteryManager.EXTRA_SCALE, DEFAULT_EXTRA_VALUE);
+    if (level < 0 || scale <= 0) {
+      return UNKNOWN_BATTERY_LEVEL;
+    }
+    return level / (float) scale;
+  }
+
+  private class BatteryStateReceiver extends BroadcastReceiver {
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+      update(intent);
+    }
+  }
+}
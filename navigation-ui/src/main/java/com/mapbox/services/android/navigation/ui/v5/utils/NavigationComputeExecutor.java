@@ -0,0 +1,167 @@
+package com.mapbox.services.android.navigation.ui.v5.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import timber.log.Timber;
+
+/**
+ * Runs navigation UI background work on a small, dedicated pool instead of the global
+ * {@link android.os.AsyncTask} executor.
+ * <p>
+ * Compute tasks are ordered by priority (lower values first, then submission order) across
+ * {@link #MAX_WORKER_THREADS} worker threads. Disk and voice IO runs on its own serial
+ * executor so it never queues behind route processing.
+ */
+public final class NavigationComputeExecutor {
+
+  /**
+   * Way name filtering, small and latency sensitive.
+   */
+  public static final int PRIORITY_WAYNAME = 0;
+  /**
+   * Building route line features from a list of routes.
+   */
+  public static final int PRIORITY_ROUTE_FEATURES = 1;
+  static final int MAX_WORKER_THREADS = 2;
+  private static final long KEEP_ALIVE_SECONDS = 30;
+  private static final String COMPUTE_THREAD_NAME = "navigation-compute-";
+  private static final String IO_THREAD_NAME = "navigation-io-";
+  private static NavigationComputeExecutor instance;
+  private final ThreadPoolExecutor computeExecutor;
+  private final ExecutorService ioExecutor;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final AtomicLong submissionSequence = new AtomicLong();
+
+  private NavigationComputeExecutor() {
+    computeExecutor = new ThreadPoolExecutor(MAX_WORKER_THREADS, MAX_WORKER_THREADS,
+      KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>(),
+      new BackgroundThreadFactory(COMPUTE_THREAD_NAME));
+    computeExecutor.allowCoreThreadTimeOut(true);
+    ioExecutor = Executors.newSingleThreadExecutor(new BackgroundThreadFactory(IO_THREAD_NAME));
+  }
+
+  @NonNull
+  public static synchronized NavigationComputeExecutor getInstance() {
+    if (instance == null) {
+      instance = new NavigationComputeExecutor();
+    }
+    return instance;
+  }
+
+  /**
+   * Queues a task with the given priority. Callers that replace older work with newer work
+   * should {@link NavigationComputeTask#cancel()} the previous task, which removes it from the
+   * queue or interrupts it so that only the latest result is delivered.
+   *
+   * @param task     to run
+   * @param priority one of the {@code PRIORITY_} constants, lower runs first
+   */
+  public <Result> void execute(@NonNull NavigationComputeTask<Result> task, int priority) {
+    PrioritizedTask<Result> prioritizedTask = new PrioritizedTask<>(task, priority,
+      submissionSequence.getAndIncrement());
+    task.attach(prioritizedTask);
+    computeExecutor.execute(prioritizedTask);
+  }
+
+  /**
+   * @return serial executor for disk and voice IO
+   */
+  @NonNull
+  public Executor ioExecutor() {
+    return ioExecutor;
+  }
+
+  private class PrioritizedTask<Result> extends FutureTask<Result> implements Comparable<PrioritizedTask<?>> {
+
+    private final NavigationComputeTask<Result> task;
+    private final int priority;
+    private final long sequence;
+
+    PrioritizedTask(final NavigationComputeTask<Result> task, int priority, long sequence) {
+      super(new Callable<Result>() {
+        @Override
+        public Result call() {
+          return task.isCancelled() ? null : task.doInBackground();
+        }
+      });
+      this.task = task;
+      this.priority = priority;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean isCancelled = super.cancel(mayInterruptIfRunning);
+      computeExecutor.remove(this);
+      return isCancelled;
+    }
+
+    @Override
+    protected void done() {
+      if (isCancelled() || task.isCancelled()) {
+        return;
+      }
+      try {
+        final Result result = get();
+        mainHandler.post(new Runnable() {
+          @Override
+          public void run() {
+            if (!task.isCancelled()) {
+              task.onPostExecute(result);
+            }
+          }
+        });
+      } catch (InterruptedException | CancellationException exception) {
+        Timber.d("Navigation compute task was cancelled");
+      } catch (ExecutionException exception) {
+        Timber.e(exception.getCause(), "Navigation compute task failed");
+      }
+    }
+
+    @Override
+    public int compareTo(@NonNull PrioritizedTask<?> other) {
+      if (priority != other.priority) {
+        return priority < other.priority ? -1 : 1;
+      }
+      return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+    }
+  }
+
+  private static class BackgroundThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final String namePrefix;
+
+    BackgroundThreadFactory(String namePrefix) {
+      this.namePrefix = namePrefix;
+    }
+
+    @Override
+    public Thread newThread(@NonNull final Runnable runnable) {
+      return new Thread(new Runnable() {
+        @Override
+        public void run() {
+          Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+          runnable.run();
+        }
+      }, namePrefix + threadCount.incrementAndGet());
+    }
+  }
+}
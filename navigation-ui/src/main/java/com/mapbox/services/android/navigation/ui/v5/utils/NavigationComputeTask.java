@@ -0,0 +1,44 @@
+package com.mapbox.services.android.navigation.ui.v5.utils;
+
+import java.util.concurrent.Future;
+
+/**
+ * A unit of background work run by {@link NavigationComputeExecutor}.
+ * <p>
+ * {@link #doInBackground()} runs on a navigation worker thread and {@link #onPostExecute(Object)}
+ * is delivered on the main thread, unless the task was cancelled in the meantime.
+ *
+ * @param <Result> type produced in the background and delivered on the main thread
+ */
+public abstract class NavigationComputeTask<Result> {
+
+  private volatile boolean isCancelled;
+  private volatile Future<?> future;
+
+  protected abstract Result doInBackground();
+
+  protected abstract void onPostExecute(Result result);
+
+  /**
+   * Cancels the task. A queued task will never run, a running task is interrupted and its
+   * result is dropped instead of being delivered to {@link #onPostExecute(Object)}.
+   */
+  public final void cancel() {
+    isCancelled = true;
+    Future<?> currentFuture = future;
+    if (currentFuture != null) {
+      currentFuture.cancel(true);
+    }
+  }
+
+  public final boolean isCancelled() {
+    return isCancelled;
+  }
+
+  void attach(Future<?> future) {
+    this.future = future;
+    if (isCancelled) {
+      future.cancel(true);
+    }
+  }
+}
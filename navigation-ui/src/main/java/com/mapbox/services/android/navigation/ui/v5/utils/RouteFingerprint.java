@@ -0,0 +1,154 @@
+package com.mapbox.services.android.navigation.ui.v5.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mapbox.api.directions.v5.models.DirectionsRoute;
+import com.mapbox.api.directions.v5.models.RouteLeg;
+import com.mapbox.api.directions.v5.models.RouteOptions;
+import com.mapbox.services.android.navigation.v5.routeprogress.RouteProgress;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Cheap identity for routes, legs and steps, used by progress listeners to detect changes
+ * without a deep {@link DirectionsRoute#equals(Object)} on every update.
+ * <p>
+ * The route fingerprint is a 64-bit FNV-1a hash of the request UUID, route index and geometry.
+ * A second hash covers the congestion annotations, which change on a traffic refresh while the
+ * route identity stays the same. Both are computed once per route instance and kept for the
+ * last few instances seen, so components passing different routes do not rehash them. Instances
+ * are matched by identity, as {@link DirectionsRoute#hashCode()} walks the whole route.
+ */
+public final class RouteFingerprint {
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+  private static final int NULL_MARKER = -1;
+  private static final int MAX_CACHED_ROUTES = 8;
+  private static final List<CachedFingerprints> cachedFingerprints = new ArrayList<>(MAX_CACHED_ROUTES);
+
+  private RouteFingerprint() {
+  }
+
+  /**
+   * @param route to identify
+   * @return fingerprint of the route
+   */
+  public static synchronized long ofRoute(@NonNull DirectionsRoute route) {
+    return obtainFingerprints(route).routeFingerprint;
+  }
+
+  /**
+   * @param routeProgress with the current leg
+   * @return fingerprint of the current leg of the current route
+   */
+  public static long ofLeg(@NonNull RouteProgress routeProgress) {
+    return mix(ofRoute(routeProgress.directionsRoute()), routeProgress.legIndex());
+  }
+
+  /**
+   * @param routeProgress with the current step
+   * @return fingerprint of the current step of the current leg
+   */
+  public static long ofStep(@NonNull RouteProgress routeProgress) {
+    return mix(ofLeg(routeProgress), routeProgress.currentLegProgress().stepIndex());
+  }
+
+  /**
+   * @return true if both routes are the same instance, or share both the route and the
+   * congestion annotation fingerprints
+   */
+  public static synchronized boolean isSameRoute(@Nullable DirectionsRoute route,
+                                                 @Nullable DirectionsRoute otherRoute) {
+    if (route == otherRoute) {
+      return true;
+    }
+    if (route == null || otherRoute == null) {
+      return false;
+    }
+    CachedFingerprints routeFingerprints = obtainFingerprints(route);
+    CachedFingerprints otherRouteFingerprints = obtainFingerprints(otherRoute);
+    return routeFingerprints.routeFingerprint == otherRouteFingerprints.routeFingerprint
+      && routeFingerprints.annotationFingerprint == otherRouteFingerprints.annotationFingerprint;
+  }
+
+  private static CachedFingerprints obtainFingerprints(DirectionsRoute route) {
+    Iterator<CachedFingerprints> iterator = cachedFingerprints.iterator();
+    while (iterator.hasNext()) {
+      CachedFingerprints fingerprints = iterator.next();
+      DirectionsRoute cachedRoute = fingerprints.route.get();
+      if (cachedRoute == route) {
+        return fingerprints;
+      } else if (cachedRoute == null) {
+        iterator.remove();
+      }
+    }
+    if (cachedFingerprints.size() >= MAX_CACHED_ROUTES) {
+      cachedFingerprints.remove(0);
+    }
+    CachedFingerprints fingerprints = new CachedFingerprints(route);
+    cachedFingerprints.add(fingerprints);
+    return fingerprints;
+  }
+
+  private static long computeRouteFingerprint(DirectionsRoute route) {
+    RouteOptions routeOptions = route.routeOptions();
+    long hash = FNV_OFFSET_BASIS;
+    hash = mix(hash, routeOptions == null ? null : routeOptions.requestUuid());
+    hash = mix(hash, route.routeIndex());
+    return mix(hash, route.geometry());
+  }
+
+  private static long computeAnnotationFingerprint(DirectionsRoute route) {
+    long hash = FNV_OFFSET_BASIS;
+    List<RouteLeg> legs = route.legs();
+    if (legs == null) {
+      return hash;
+    }
+    for (RouteLeg leg : legs) {
+      List<String> congestion = leg.annotation() == null ? null : leg.annotation().congestion();
+      if (congestion == null) {
+        hash = mix(hash, NULL_MARKER);
+        continue;
+      }
+      for (String value : congestion) {
+        hash = mix(hash, value);
+      }
+    }
+    return hash;
+  }
+
+  private static long mix(long hash, @Nullable String value) {
+    if (value == null) {
+      return mix(hash, NULL_MARKER);
+    }
+    for (int i = 0; i < value.length(); i++) {
+      hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+    }
+    return mix(hash, value.length());
+  }
+
+  private static long mix(long hash, int value) {
+    for (int shift = 0; shift < Integer.SIZE; shift += Byte.SIZE) {
+      hash = (hash ^ ((value >>> shift) & 0xff)) * FNV_PRIME;
+    }
+    return hash;
+  }
+
+  private static class CachedFingerprints {
+
+    private final WeakReference<DirectionsRoute> route;
+    private final long routeFingerprint;
+    private final long annotationFingerprint;
+
+    CachedFingerprints(DirectionsRoute route) {
+      this.route = new WeakReference<>(route);
+      this.routeFingerprint = computeRouteFingerprint(route);
+      this.annotationFingerprint = computeAnnotationFingerprint(route);
+    }
+  }
+}
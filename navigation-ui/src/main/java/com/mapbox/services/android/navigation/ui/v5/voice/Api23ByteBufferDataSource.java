@@ -0,0 +1,46 @@
+package com.mapbox.services.android.navigation.ui.v5.voice;
+
+import android.media.MediaDataSource;
+import android.os.Build;
+import android.support.annotation.RequiresApi;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Feeds a {@link android.media.MediaPlayer} from the remaining bytes of a buffer, either a pooled
+ * heap buffer or a slice of a memory mapped file.
+ * <p>
+ * The buffer stays owned by the caller, which releases it once the player is reset.
+ */
+@RequiresApi(api = Build.VERSION_CODES.M)
+class Api23ByteBufferDataSource extends MediaDataSource {
+
+  private static final int END_OF_STREAM = -1;
+  private final ByteBuffer buffer;
+
+  Api23ByteBufferDataSource(ByteBuffer buffer) {
+    this.buffer = buffer.slice();
+  }
+
+  @Override
+  public int readAt(long position, byte[] destination, int offset, int size) {
+    if (position >= buffer.limit()) {
+      return END_OF_STREAM;
+    }
+    int count = (int) Math.min(size, buffer.limit() - position);
+    ByteBuffer source = buffer.duplicate();
+    source.position((int) position);
+    source.get(destination, offset, count);
+    return count;
+  }
+
+  @Override
+  public long getSize() {
+    return buffer.limit();
+  }
+
+  @Override
+  public void close() {
+    // The buffer is released by its owner
+  }
+}
@@ -0,0 +1,60 @@
+package com.mapbox.services.android.navigation.ui.v5.voice;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded pool of byte arrays holding encoded announcements in memory.
+ * <p>
+ * Buffers are handed out best fit and returned once playback is done. Returned buffers are kept
+ * until {@link #DEFAULT_MAX_POOLED_BYTES} would be exceeded, after which they are left to the GC.
+ */
+class AudioBufferPool {
+
+  static final int DEFAULT_MAX_POOLED_BYTES = 1024 * 1024;
+  static final int MIN_BUFFER_SIZE = 16 * 1024;
+  private final int maxPooledBytes;
+  private final List<byte[]> buffers = new ArrayList<>();
+  private int pooledBytes;
+
+  AudioBufferPool() {
+    this(DEFAULT_MAX_POOLED_BYTES);
+  }
+
+  AudioBufferPool(int maxPooledBytes) {
+    this.maxPooledBytes = maxPooledBytes;
+  }
+
+  /**
+   * @param minimumSize in bytes the buffer must hold
+   * @return the smallest pooled buffer large enough, or a new one
+   */
+  synchronized byte[] acquire(int minimumSize) {
+    int bestIndex = -1;
+    for (int i = 0; i < buffers.size(); i++) {
+      int size = buffers.get(i).length;
+      if (size >= minimumSize && (bestIndex < 0 || size < buffers.get(bestIndex).length)) {
+        bestIndex = i;
+      }
+    }
+    if (bestIndex < 0) {
+      return new byte[Math.max(minimumSize, MIN_BUFFER_SIZE)];
+    }
+    byte[] buffer = buffers.remove(bestIndex);
+    pooledBytes -= buffer.length;
+    return buffer;
+  }
+
+  synchronized void release(byte[] buffer) {
+    if (pooledBytes + buffer.length > maxPooledBytes) {
+      return;
+    }
+    buffers.add(buffer);
+    pooledBytes += buffer.length;
+  }
+
+  synchronized void clear() {
+    buffers.clear();
+    pooledBytes = 0;
+  }
+}
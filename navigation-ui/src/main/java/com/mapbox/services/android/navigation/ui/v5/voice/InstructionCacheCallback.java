@@ -1,6 +1,9 @@
 package com.mapbox.services.android.navigation.ui.v5.voice;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
 
 import okhttp3.ResponseBody;
 import retrofit2.Call;
@@ -11,31 +14,51 @@ import timber.log.Timber;
 class InstructionCacheCallback implements Callback<ResponseBody> {
 
   private final VoiceInstructionLoader loader;
+  private final String instruction;
+  @Nullable
+  private final Callback<ResponseBody> cachedCallback;
+
+  InstructionCacheCallback(VoiceInstructionLoader loader, String instruction) {
+    this(loader, instruction, null);
+  }
 
-  InstructionCacheCallback(VoiceInstructionLoader loader) {
+  InstructionCacheCallback(VoiceInstructionLoader loader, String instruction,
+                           @Nullable Callback<ResponseBody> cachedCallback) {
     this.loader = loader;
+    this.instruction = instruction;
+    this.cachedCallback = cachedCallback;
   }
 
   @Override
   public void onResponse(@NonNull Call<ResponseBody> call, @NonNull Response<ResponseBody> response) {
-    if (closeResponseBody(response)) {
-      String url = call.request().url().toString();
-      loader.addCachedUrl(url);
+    storeResponseBody(response);
+    if (cachedCallback != null) {
+      cachedCallback.onResponse(call, response);
     }
   }
 
   @Override
   public void onFailure(@NonNull Call<ResponseBody> call, @NonNull Throwable throwable) {
     Timber.e(throwable, "onFailure cache instruction");
+    if (cachedCallback != null) {
+      cachedCallback.onFailure(call, throwable);
+    }
   }
 
-  private boolean closeResponseBody(@NonNull Response<ResponseBody> response) {
+  private void storeResponseBody(@NonNull Response<ResponseBody> response) {
     ResponseBody body = response.body();
-    if (body != null) {
-      body.byteStream();
+    if (body == null) {
+      return;
+    }
+    try {
+      if (response.isSuccessful()) {
+        // Retrofit buffers non-streaming bodies, so this does not touch the network
+        loader.storeInstruction(instruction, body.bytes());
+      }
+    } catch (IOException exception) {
+      Timber.e(exception, "Unable to read cached instruction");
+    } finally {
       body.close();
-      return true;
     }
-    return false;
   }
 }
\ No newline at end of file
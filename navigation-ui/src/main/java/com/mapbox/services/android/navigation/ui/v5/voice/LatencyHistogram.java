@@ -0,0 +1,89 @@
+package com.mapbox.services.android.navigation.ui.v5.voice;
+
+import java.util.Arrays;
+
+/**
+ * Latencies in milliseconds counted into buckets with doubling upper bounds.
+ */
+public final class LatencyHistogram {
+
+  private static final long[] BUCKET_UPPER_BOUNDS_MILLIS = {
+    25, 50, 100, 200, 400, 800, 1600, 3200, Long.MAX_VALUE
+  };
+  private final long[] bucketCounts;
+  private long count;
+  private long sumMillis;
+  private long maxMillis;
+
+  LatencyHistogram() {
+    bucketCounts = new long[BUCKET_UPPER_BOUNDS_MILLIS.length];
+  }
+
+  private LatencyHistogram(LatencyHistogram histogram) {
+    bucketCounts = Arrays.copyOf(histogram.bucketCounts, histogram.bucketCounts.length);
+    count = histogram.count;
+    sumMillis = histogram.sumMillis;
+    maxMillis = histogram.maxMillis;
+  }
+
+  /**
+   * @return upper bound in milliseconds of each bucket, the last one being unbounded
+   */
+  public static long[] retrieveBucketUpperBoundsMillis() {
+    return Arrays.copyOf(BUCKET_UPPER_BOUNDS_MILLIS, BUCKET_UPPER_BOUNDS_MILLIS.length);
+  }
+
+  /**
+   * @return number of latencies in each bucket
+   */
+  public long[] retrieveBucketCounts() {
+    return Arrays.copyOf(bucketCounts, bucketCounts.length);
+  }
+
+  public long retrieveCount() {
+    return count;
+  }
+
+  public long retrieveMeanMillis() {
+    return count == 0 ? 0 : sumMillis / count;
+  }
+
+  public long retrieveMaxMillis() {
+    return maxMillis;
+  }
+
+  /**
+   * @param percentile between 0 and 100
+   * @return upper bound of the bucket holding the percentile, capped to the maximum recorded
+   */
+  public long retrievePercentileMillis(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(percentile / 100 * count);
+    long seen = 0;
+    for (int i = 0; i < bucketCounts.length; i++) {
+      seen += bucketCounts[i];
+      if (seen >= rank) {
+        return Math.min(BUCKET_UPPER_BOUNDS_MILLIS[i], maxMillis);
+      }
+    }
+    return maxMillis;
+  }
+
+  void record(long latencyMillis) {
+    long latency = Math.max(0, latencyMillis);
+    int bucket = 0;
+    while (latency > BUCKET_UPPER_BOUNDS_MILLIS[bucket]) {
+      bucket++;
+    }
+    bucketCounts[bucket]++;
+    count++;
+    sumMillis += latency;
+    maxMillis = Math.max(maxMillis, latency);
+  }
+
+  LatencyHistogram copy() {
+    return new LatencyHistogram(this);
+  }
+}
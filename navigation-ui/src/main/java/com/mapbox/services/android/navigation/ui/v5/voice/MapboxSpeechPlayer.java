@@ -2,15 +2,22 @@ package com.mapbox.services.android.navigation.ui.v5.voice;
 
 import android.content.Context;
 import android.media.MediaPlayer;
-import android.os.AsyncTask;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.v4.util.Pair;
 import android.text.TextUtils;
 
+import com.mapbox.api.speech.v1.MapboxSpeech;
+import com.mapbox.services.android.navigation.ui.v5.utils.NavigationComputeExecutor;
 import com.mapbox.services.android.navigation.v5.utils.DownloadTask;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
@@ -24,22 +31,39 @@ import timber.log.Timber;
  * <p>
  * Will retrieve synthesized speech mp3s from Mapbox's API Voice.
  * </p>
+ * <p>
+ * From Android M, responses are played from pooled in-memory buffers through reused players;
+ * older versions write them to a temporary file first.
+ * </p>
  */
 class MapboxSpeechPlayer implements SpeechPlayer {
 
   private static final String MAPBOX_INSTRUCTION_CACHE = "mapbox_instruction_cache";
   private static final String ERROR_TEXT = "Unable to set data source for the media mediaPlayer! %s";
+  private static final String ERROR_DATA_SOURCE_TEXT = "Unable to play the synthesized voice instruction";
   private static final SpeechAnnouncementMap SPEECH_ANNOUNCEMENT_MAP = new SpeechAnnouncementMap();
   private static final String MP3_POSTFIX = "mp3";
+  private static final String SSML_TEXT_TYPE = "ssml";
+  private static final String FALLBACK_TEXT = "Synthesized voice missed its deadline, speaking on the device";
 
   private SpeechAnnouncement announcement;
   private SpeechListener speechListener;
   private MediaPlayer mediaPlayer;
-  private Queue<File> instructionQueue;
+  private Queue<SpeechAudio> instructionQueue;
   private File mapboxCache;
   private boolean isPlaying;
   private boolean isMuted;
   private VoiceInstructionLoader voiceInstructionLoader;
+  private final AudioBufferPool audioBufferPool = new AudioBufferPool();
+  private final MediaPlayerPool mediaPlayerPool = new MediaPlayerPool();
+  private final SpeechFallbackDeadline fallbackDeadline = new SpeechFallbackDeadline();
+  private final Handler fallbackHandler = new Handler(Looper.getMainLooper());
+  private final VoicePipelineMonitor pipelineMonitor = VoicePipelineMonitor.getInstance();
+  private final List<HedgedRequest> waitingRequests = new ArrayList<>();
+  @Nullable
+  private SpeechAudio playingInstruction;
+  private long networkRequestCount;
+  private long fallbackCount;
 
   /**
    * Construct an instance of {@link MapboxSpeechPlayer}
@@ -89,10 +113,31 @@ class MapboxSpeechPlayer implements SpeechPlayer {
 
   @Override
   public void onDestroy() {
+    fallbackHandler.removeCallbacksAndMessages(null);
+    waitingRequests.clear();
     stopMediaPlayerPlaying();
+    clearInstructionUrls();
+    mediaPlayerPool.clear();
+    audioBufferPool.clear();
     voiceInstructionLoader.flushCache();
   }
 
+  void updateDurationToManeuver(double durationToManeuverSeconds) {
+    fallbackDeadline.updateDurationToManeuver(durationToManeuverSeconds);
+  }
+
+  void updateFallbackDeadline(long minimumMillis, long maximumMillis, float maneuverFraction) {
+    fallbackDeadline.update(minimumMillis, maximumMillis, maneuverFraction);
+  }
+
+  long retrieveNetworkRequestCount() {
+    return networkRequestCount;
+  }
+
+  long retrieveFallbackCount() {
+    return fallbackCount;
+  }
+
   private void setupCaches(Context context) {
     mapboxCache = new File(context.getCacheDir(), MAPBOX_INSTRUCTION_CACHE);
     mapboxCache.mkdir();
@@ -120,56 +165,92 @@ class MapboxSpeechPlayer implements SpeechPlayer {
     if (isPlaying) {
       isPlaying = false;
       mediaPlayer.stop();
-      mediaPlayer.release();
+      recycleMediaPlayer();
       speechListener.onDone();
     }
   }
 
-  private void downloadVoiceFile(final String instruction, String textType) {
+  private void downloadVoiceFile(final String instruction, final String textType) {
     boolean isInvalidInstruction = TextUtils.isEmpty(instruction);
     if (isMuted || isInvalidInstruction) {
       return;
     }
+    VoicePipelineTrace trace = pipelineMonitor.takeTrace(announcement);
+    SpeechAudio packedInstruction = voiceInstructionLoader.retrieveVoicePackInstruction(instruction);
+    if (packedInstruction != null) {
+      enqueueTracedInstruction(packedInstruction, trace, VoicePipelineSource.VOICE_PACK);
+      return;
+    }
+    SpeechAudio storedInstruction = openStoredInstruction(instruction);
+    if (storedInstruction != null) {
+      enqueueTracedInstruction(storedInstruction, trace, VoicePipelineSource.VOICE_STORE);
+      return;
+    }
 
-    voiceInstructionLoader.requestInstruction(instruction, textType, new Callback<ResponseBody>() {
-      @Override
-      public void onResponse(Call<ResponseBody> call, Response<ResponseBody> response) {
-        if (response.isSuccessful()) {
-          executeInstructionTask(response.body());
-        } else {
-          try {
-            onError(response.errorBody().string());
-          } catch (IOException exception) {
-            onError(exception.getLocalizedMessage());
-          }
-        }
-      }
+    trace.mark(VoicePipelineStage.LOOKUP);
+    new HedgedRequest(instruction, textType, announcement, trace).start();
+  }
 
-      @Override
-      public void onFailure(Call<ResponseBody> call, Throwable throwable) {
-        onError(throwable.getLocalizedMessage());
-      }
-    });
+  /**
+   * @return the stored audio, or null if it is not stored or was evicted before it could be opened
+   */
+  @Nullable
+  private SpeechAudio openStoredInstruction(String instruction) {
+    File cachedInstruction = voiceInstructionLoader.retrieveCachedInstruction(instruction);
+    if (cachedInstruction == null) {
+      return null;
+    }
+    try {
+      return SpeechAudio.fromStoredFile(cachedInstruction);
+    } catch (IOException exception) {
+      Timber.w(exception);
+      return null;
+    }
   }
 
-  private void onError(String errorText) {
-    speechListener.onError(errorText, announcement);
+  private void enqueueTracedInstruction(SpeechAudio instruction, VoicePipelineTrace trace,
+                                        VoicePipelineSource source) {
+    trace.markSource(source);
+    trace.mark(VoicePipelineStage.LOOKUP);
+    instruction.attachTrace(trace);
+    instruction.attachAnnouncement(announcement);
+    enqueueInstruction(instruction);
   }
 
-  private void playInstruction(@NonNull File instruction) {
-    setupMediaPlayer(instruction.getPath());
+  private void onError(String errorText) {
+    speechListener.onError(errorText, announcement);
   }
 
-  private void setupMediaPlayer(String instructionPath) {
-    if (TextUtils.isEmpty(instructionPath)) {
+  private void playInstruction(@NonNull SpeechAudio instruction) {
+    playingInstruction = instruction;
+    VoicePipelineTrace trace = instruction.retrieveTrace();
+    if (trace != null) {
+      trace.mark(VoicePipelineStage.QUEUE);
+    }
+    mediaPlayer = mediaPlayerPool.acquire();
+    if (!setDataSource(instruction)) {
+      skipUnplayableInstruction(instruction);
       return;
     }
-    mediaPlayer = new MediaPlayer();
-    setDataSource(instructionPath);
     mediaPlayer.prepareAsync();
     addListeners();
   }
 
+  /**
+   * Moves on to the next queued instruction, letting the listener speak this one on the device.
+   */
+  private void skipUnplayableInstruction(SpeechAudio instruction) {
+    VoicePipelineTrace trace = instruction.retrieveTrace();
+    if (trace != null) {
+      trace.abandon();
+    }
+    recycleMediaPlayer();
+    SpeechAnnouncement instructionAnnouncement = instruction.retrieveAnnouncement();
+    speechListener.onError(ERROR_DATA_SOURCE_TEXT,
+      instructionAnnouncement == null ? announcement : instructionAnnouncement);
+    onInstructionFinishedPlaying();
+  }
+
   private void pauseInstruction() {
     if (isPlaying) {
       isPlaying = false;
@@ -177,11 +258,13 @@ class MapboxSpeechPlayer implements SpeechPlayer {
     }
   }
 
-  private void setDataSource(String instruction) {
+  private boolean setDataSource(SpeechAudio instruction) {
     try {
-      mediaPlayer.setDataSource(instruction);
+      instruction.applyTo(mediaPlayer);
+      return true;
     } catch (IOException ioException) {
       Timber.e(ERROR_TEXT, ioException.getMessage());
+      return false;
     }
   }
 
@@ -189,6 +272,7 @@ class MapboxSpeechPlayer implements SpeechPlayer {
     mediaPlayer.setOnPreparedListener(new MediaPlayer.OnPreparedListener() {
       @Override
       public void onPrepared(MediaPlayer mp) {
+        finishPlayingTrace();
         speechListener.onStart();
         isPlaying = true;
         mp.start();
@@ -197,7 +281,7 @@ class MapboxSpeechPlayer implements SpeechPlayer {
     mediaPlayer.setOnCompletionListener(new MediaPlayer.OnCompletionListener() {
       @Override
       public void onCompletion(MediaPlayer mp) {
-        mp.release();
+        recycleMediaPlayer();
         isPlaying = false;
         speechListener.onDone();
         onInstructionFinishedPlaying();
@@ -205,6 +289,20 @@ class MapboxSpeechPlayer implements SpeechPlayer {
     });
   }
 
+  private void finishPlayingTrace() {
+    VoicePipelineTrace trace = playingInstruction == null ? null : playingInstruction.retrieveTrace();
+    if (trace != null) {
+      trace.finish();
+    }
+  }
+
+  private void recycleMediaPlayer() {
+    if (mediaPlayer != null) {
+      mediaPlayerPool.recycle(mediaPlayer);
+      mediaPlayer = null;
+    }
+  }
+
   private void onInstructionFinishedPlaying() {
     deleteLastInstructionPlayed();
     startNextInstruction();
@@ -212,40 +310,225 @@ class MapboxSpeechPlayer implements SpeechPlayer {
 
   private void deleteLastInstructionPlayed() {
     if (!instructionQueue.isEmpty()) {
-      instructionQueue.poll().delete();
+      instructionQueue.poll().release(audioBufferPool);
     }
   }
 
   private void startNextInstruction() {
     if (!instructionQueue.isEmpty()) {
       playInstruction(instructionQueue.peek());
+    } else {
+      startWaitingDeadlines();
     }
   }
 
   private void clearInstructionUrls() {
+    // The player may still be reading the head of the queue
+    recycleMediaPlayer();
     while (!instructionQueue.isEmpty()) {
-      instructionQueue.remove().delete();
+      instructionQueue.remove().release(audioBufferPool);
+    }
+    startWaitingDeadlines();
+  }
+
+  /**
+   * The queue holds the instruction being played, so an empty queue means nothing is playing.
+   */
+  private boolean isIdle() {
+    return instructionQueue.isEmpty();
+  }
+
+  private void startWaitingDeadlines() {
+    List<HedgedRequest> requests = new ArrayList<>(waitingRequests);
+    waitingRequests.clear();
+    for (HedgedRequest request : requests) {
+      request.startDeadline();
     }
   }
 
-  private void executeInstructionTask(ResponseBody responseBody) {
+  private void executeInstructionTask(String instruction, String textType, ResponseBody responseBody,
+                                      final VoicePipelineTrace trace, final SpeechAnnouncement announcement) {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+      enqueueInMemory(instruction, textType, responseBody, trace, announcement);
+      return;
+    }
     new DownloadTask(mapboxCache.getPath(), MP3_POSTFIX, new DownloadTask.DownloadListener() {
       @Override
       public void onFinishedDownloading(@NonNull File instructionFile) {
-        playInstructionIfUpNext(instructionFile);
-        instructionQueue.add(instructionFile);
+        enqueueDownloadedInstruction(SpeechAudio.fromFile(instructionFile, true), trace, announcement);
       }
 
       @Override
       public void onErrorDownloading() {
+        trace.abandon();
         onError("There was an error downloading the voice files.");
       }
-    }).executeOnExecutor(AsyncTask.SERIAL_EXECUTOR, responseBody);
+    }).executeOnExecutor(NavigationComputeExecutor.getInstance().ioExecutor(), responseBody);
+  }
+
+  /**
+   * Retrofit buffers the response body, so copying it into a pooled buffer does not block on
+   * the network.
+   */
+  private void enqueueInMemory(String instruction, String textType, ResponseBody responseBody,
+                               VoicePipelineTrace trace, SpeechAnnouncement announcement) {
+    try {
+      SpeechAudio speechAudio = SpeechAudio.fromResponseBody(responseBody, audioBufferPool);
+      storeIfSsml(instruction, textType, speechAudio);
+      enqueueDownloadedInstruction(speechAudio, trace, announcement);
+    } catch (IOException exception) {
+      trace.abandon();
+      onError(exception.getLocalizedMessage());
+    }
+  }
+
+  private void enqueueDownloadedInstruction(SpeechAudio instruction, VoicePipelineTrace trace,
+                                            SpeechAnnouncement announcement) {
+    trace.mark(VoicePipelineStage.DOWNLOAD);
+    instruction.attachTrace(trace);
+    instruction.attachAnnouncement(announcement);
+    enqueueInstruction(instruction);
+  }
+
+  /**
+   * Keeps a copy so the same announcement is not synthesized again, on this route or a later one.
+   */
+  private void storeIfSsml(String instruction, String textType, SpeechAudio speechAudio) {
+    if (!SSML_TEXT_TYPE.equals(textType)) {
+      return;
+    }
+    byte[] audio = speechAudio.copyBuffer();
+    if (audio != null) {
+      voiceInstructionLoader.storeInstruction(instruction, audio);
+    }
   }
 
-  private void playInstructionIfUpNext(File instructionFile) {
-    if (instructionQueue.isEmpty()) {
-      playInstruction(instructionFile);
+  /**
+   * The instruction is queued before it starts, so a failure to play it can move on to the next one.
+   */
+  private void enqueueInstruction(SpeechAudio instruction) {
+    boolean isUpNext = instructionQueue.isEmpty();
+    instructionQueue.add(instruction);
+    if (isUpNext) {
+      playInstruction(instruction);
+    }
+  }
+
+  /**
+   * Synthesizes an announcement over the network, speaking it on the device instead if the
+   * audio is not back within the {@link SpeechFallbackDeadline}. Whichever comes first wins and
+   * the other is dropped, cancelling the network call if it is still running.
+   * <p>
+   * The deadline only runs while nothing is playing or queued, since the synthesized audio would
+   * have to wait its turn anyway. A fallback never talks over audio that is already playing.
+   */
+  private class HedgedRequest implements Callback<ResponseBody>, Runnable {
+
+    private final String instruction;
+    private final String textType;
+    private final SpeechAnnouncement announcement;
+    private final VoicePipelineTrace trace;
+    @Nullable
+    private MapboxSpeech mapboxSpeech;
+    private boolean isSettled;
+
+    HedgedRequest(String instruction, String textType, SpeechAnnouncement announcement,
+                  VoicePipelineTrace trace) {
+      this.instruction = instruction;
+      this.textType = textType;
+      this.announcement = announcement;
+      this.trace = trace;
+    }
+
+    void start() {
+      mapboxSpeech = voiceInstructionLoader.startInstructionRequest(instruction, textType, this);
+      if (mapboxSpeech != null) {
+        networkRequestCount++;
+        startDeadline();
+      }
+    }
+
+    void startDeadline() {
+      if (isSettled) {
+        return;
+      }
+      if (isIdle()) {
+        fallbackHandler.postDelayed(this, fallbackDeadline.retrieveDeadlineMillis());
+      } else {
+        waitingRequests.add(this);
+      }
+    }
+
+    @Override
+    public void run() {
+      if (isSettled) {
+        return;
+      }
+      if (!isIdle()) {
+        // Audio queued since the deadline started plays first
+        waitingRequests.add(this);
+        return;
+      }
+      isSettled = true;
+      fallbackCount++;
+      fallBack();
+      if (mapboxSpeech != null) {
+        mapboxSpeech.cancelCall();
+      }
+      speechListener.onError(FALLBACK_TEXT, announcement);
+    }
+
+    @Override
+    public void onResponse(@NonNull Call<ResponseBody> call, @NonNull Response<ResponseBody> response) {
+      if (!settle()) {
+        closeLateResponse(response);
+        return;
+      }
+      if (response.isSuccessful()) {
+        trace.markSource(VoicePipelineSource.NETWORK);
+        trace.mark(VoicePipelineStage.REQUEST);
+        executeInstructionTask(instruction, textType, response.body(), trace, announcement);
+      } else {
+        fallBack();
+        try {
+          speechListener.onError(response.errorBody().string(), announcement);
+        } catch (IOException exception) {
+          speechListener.onError(exception.getLocalizedMessage(), announcement);
+        }
+      }
+    }
+
+    @Override
+    public void onFailure(@NonNull Call<ResponseBody> call, @NonNull Throwable throwable) {
+      if (settle()) {
+        fallBack();
+        speechListener.onError(throwable.getLocalizedMessage(), announcement);
+      }
+    }
+
+    /**
+     * The listener speaks failed announcements on the device, where they are no longer timed.
+     */
+    private void fallBack() {
+      trace.markSource(VoicePipelineSource.DEVICE_FALLBACK);
+      trace.abandon();
+    }
+
+    private boolean settle() {
+      if (isSettled) {
+        return false;
+      }
+      isSettled = true;
+      fallbackHandler.removeCallbacks(this);
+      waitingRequests.remove(this);
+      return true;
+    }
+
+    private void closeLateResponse(Response<ResponseBody> response) {
+      ResponseBody body = response.isSuccessful() ? response.body() : response.errorBody();
+      if (body != null) {
+        body.close();
+      }
     }
   }
 }
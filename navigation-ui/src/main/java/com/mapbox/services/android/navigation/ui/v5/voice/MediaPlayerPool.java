@@ -0,0 +1,53 @@
+package com.mapbox.services.android.navigation.ui.v5.voice;
+
+import android.media.MediaPlayer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Reuses {@link MediaPlayer} instances across announcements.
+ * <p>
+ * Players are reset rather than released after each announcement, so the next one skips creating
+ * the native player. One idle player is created up front so the first announcement does as well.
+ */
+class MediaPlayerPool {
+
+  static final int DEFAULT_MAX_IDLE_PLAYERS = 2;
+  private final int maxIdlePlayers;
+  private final Deque<MediaPlayer> idlePlayers = new ArrayDeque<>();
+
+  MediaPlayerPool() {
+    this(DEFAULT_MAX_IDLE_PLAYERS);
+  }
+
+  MediaPlayerPool(int maxIdlePlayers) {
+    this.maxIdlePlayers = maxIdlePlayers;
+    if (maxIdlePlayers > 0) {
+      idlePlayers.push(new MediaPlayer());
+    }
+  }
+
+  MediaPlayer acquire() {
+    MediaPlayer mediaPlayer = idlePlayers.poll();
+    return mediaPlayer == null ? new MediaPlayer() : mediaPlayer;
+  }
+
+  /**
+   * Returns the player to the idle state, releasing it if the pool is full.
+   */
+  void recycle(MediaPlayer mediaPlayer) {
+    if (idlePlayers.size() >= maxIdlePlayers) {
+      mediaPlayer.release();
+      return;
+    }
+    mediaPlayer.reset();
+    idlePlayers.push(mediaPlayer);
+  }
+
+  void clear() {
+    while (!idlePlayers.isEmpty()) {
+      idlePlayers.pop().release();
+    }
+  }
+}
@@ -31,7 +31,7 @@ public class NavigationSpeechPlayer implements SpeechPlayer {
    */
   @Override
   public void play(SpeechAnnouncement speechAnnouncement) {
-    speechPlayerProvider.retrieveSpeechPlayer().play(speechAnnouncement);
+    speechPlayerProvider.retrieveSpeechPlayer(speechAnnouncement).play(speechAnnouncement);
   }
 
   /**
@@ -73,6 +73,45 @@ public class NavigationSpeechPlayer implements SpeechPlayer {
     speechPlayerProvider.onOffRoute();
   }
 
+  /**
+   * Updates the time left to the upcoming maneuver, from which the deadline for synthesized
+   * announcements is derived. Past the deadline, the announcement is spoken on the device and
+   * the late network result is dropped.
+   *
+   * @param durationToManeuverSeconds time left to the upcoming maneuver, negative if unknown
+   */
+  public void updateDurationToManeuver(double durationToManeuverSeconds) {
+    speechPlayerProvider.updateDurationToManeuver(durationToManeuverSeconds);
+  }
+
+  /**
+   * Configures how long synthesized announcements may take before falling back to the device
+   * text-to-speech: the given fraction of the time to the upcoming maneuver, clamped between
+   * the minimum and maximum. Defaults to 20% of the time to the maneuver, between 750 and
+   * 3000 milliseconds.
+   *
+   * @param minimumMillis    shortest wait for synthesized audio
+   * @param maximumMillis    longest wait, also used when the time to the maneuver is unknown
+   * @param maneuverFraction of the time to the upcoming maneuver to wait
+   */
+  public void updateFallbackDeadline(long minimumMillis, long maximumMillis, float maneuverFraction) {
+    speechPlayerProvider.updateFallbackDeadline(minimumMillis, maximumMillis, maneuverFraction);
+  }
+
+  /**
+   * @return announcements requested from the Mapbox Voice API since creation
+   */
+  public long retrieveNetworkRequestCount() {
+    return speechPlayerProvider.retrieveNetworkRequestCount();
+  }
+
+  /**
+   * @return announcements spoken on the device because synthesis missed its deadline
+   */
+  public long retrieveFallbackCount() {
+    return speechPlayerProvider.retrieveFallbackCount();
+  }
+
   /**
    * Required method to implement in {@link FragmentActivity#onDestroy()} or
    * {@link Fragment#onDestroy()}.
@@ -0,0 +1,13 @@
+package com.mapbox.services.android.navigation.ui.v5.voice;
+
+/**
+ * Notified once the voice pack download of the current route is done with an announcement.
+ */
+public interface OnVoicePackInstructionListener {
+
+  /**
+   * @param instruction SSML announcement
+   * @param isStored    true if the voice pack holds the announcement, false if it gave up on it
+   */
+  void onVoicePackInstruction(String instruction, boolean isStored);
+}
@@ -0,0 +1,197 @@
+package com.mapbox.services.android.navigation.ui.v5.voice;
+
+import android.media.MediaPlayer;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import okhttp3.ResponseBody;
+import timber.log.Timber;
+
+/**
+ * Encoded audio of one announcement queued in {@link MapboxSpeechPlayer}, held in a pooled buffer,
+ * a file or a region of the {@link VoicePack}.
+ */
+class SpeechAudio {
+
+  private static final int END_OF_STREAM = -1;
+  @Nullable
+  private final File file;
+  private final boolean isOwnedFile;
+  private final long fileOffset;
+  @Nullable
+  private byte[] buffer;
+  private final long length;
+  @Nullable
+  private ByteBuffer mappedBuffer;
+  @Nullable
+  private FileInputStream openedStream;
+  @Nullable
+  private VoicePipelineTrace trace;
+  @Nullable
+  private SpeechAnnouncement announcement;
+
+  private SpeechAudio(@Nullable File file, boolean isOwnedFile, long fileOffset, @Nullable byte[] buffer,
+                      long length, @Nullable ByteBuffer mappedBuffer) {
+    this.file = file;
+    this.isOwnedFile = isOwnedFile;
+    this.fileOffset = fileOffset;
+    this.buffer = buffer;
+    this.length = length;
+    this.mappedBuffer = mappedBuffer;
+  }
+
+  private SpeechAudio(@NonNull FileInputStream openedStream, long length) {
+    this(null, false, 0, null, length, null);
+    this.openedStream = openedStream;
+  }
+
+  /**
+   * @param file        holding the encoded audio
+   * @param isOwnedFile true if the file is deleted once played, false if it belongs to a cache
+   */
+  static SpeechAudio fromFile(@NonNull File file, boolean isOwnedFile) {
+    return new SpeechAudio(file, isOwnedFile, 0, null, 0, null);
+  }
+
+  /**
+   * Opens a file of the {@link VoiceAudioCache} right away. The open descriptor keeps the audio
+   * readable if the cache evicts and deletes the file before it is played.
+   *
+   * @throws IOException if the file was already deleted
+   */
+  static SpeechAudio fromStoredFile(@NonNull File file) throws IOException {
+    FileInputStream inputStream = new FileInputStream(file);
+    return new SpeechAudio(inputStream, inputStream.getChannel().size());
+  }
+
+  /**
+   * @param mappedBuffer region of a memory mapped file holding the encoded audio
+   */
+  static SpeechAudio fromMappedBuffer(@NonNull ByteBuffer mappedBuffer) {
+    return new SpeechAudio(null, false, 0, null, mappedBuffer.remaining(), mappedBuffer);
+  }
+
+  /**
+   * For versions without {@link android.media.MediaDataSource}, plays a region of a file through
+   * its descriptor.
+   */
+  static SpeechAudio fromPackFile(@NonNull File packFile, long offset, long length) {
+    return new SpeechAudio(packFile, false, offset, null, length, null);
+  }
+
+  /**
+   * Reads a buffered response into a pooled buffer, growing it as needed.
+   */
+  static SpeechAudio fromResponseBody(@NonNull ResponseBody body, AudioBufferPool pool) throws IOException {
+    long contentLength = body.contentLength();
+    // One spare byte lets the end of stream be read without growing an exactly sized buffer
+    int initialSize = contentLength > 0 ? (int) contentLength + 1 : AudioBufferPool.MIN_BUFFER_SIZE;
+    byte[] buffer = pool.acquire(initialSize);
+    int length = 0;
+    InputStream inputStream = body.byteStream();
+    try {
+      while (true) {
+        if (length == buffer.length) {
+          byte[] grownBuffer = pool.acquire(buffer.length * 2);
+          System.arraycopy(buffer, 0, grownBuffer, 0, length);
+          pool.release(buffer);
+          buffer = grownBuffer;
+        }
+        int read = inputStream.read(buffer, length, buffer.length - length);
+        if (read == END_OF_STREAM) {
+          break;
+        }
+        length += read;
+      }
+    } catch (IOException exception) {
+      pool.release(buffer);
+      throw exception;
+    } finally {
+      body.close();
+    }
+    return new SpeechAudio(null, false, 0, buffer, length, null);
+  }
+
+  void attachTrace(VoicePipelineTrace trace) {
+    this.trace = trace;
+  }
+
+  @Nullable
+  VoicePipelineTrace retrieveTrace() {
+    return trace;
+  }
+
+  void attachAnnouncement(SpeechAnnouncement announcement) {
+    this.announcement = announcement;
+  }
+
+  /**
+   * @return the announcement this audio was synthesized for, spoken on the device if it cannot be played
+   */
+  @Nullable
+  SpeechAnnouncement retrieveAnnouncement() {
+    return announcement;
+  }
+
+  /**
+   * @return a copy of the in-memory audio, or null if the audio is not held in a pooled buffer
+   */
+  @Nullable
+  byte[] copyBuffer() {
+    return buffer == null ? null : Arrays.copyOf(buffer, (int) length);
+  }
+
+  void applyTo(MediaPlayer mediaPlayer) throws IOException {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M && buffer != null) {
+      mediaPlayer.setDataSource(new Api23ByteBufferDataSource(ByteBuffer.wrap(buffer, 0, (int) length)));
+    } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M && mappedBuffer != null) {
+      mediaPlayer.setDataSource(new Api23ByteBufferDataSource(mappedBuffer));
+    } else if (openedStream != null) {
+      mediaPlayer.setDataSource(openedStream.getFD(), 0, length);
+    } else if (file != null && length > 0) {
+      applyFileRegionTo(mediaPlayer, file);
+    } else if (file != null) {
+      mediaPlayer.setDataSource(file.getPath());
+    }
+  }
+
+  private void applyFileRegionTo(MediaPlayer mediaPlayer, File file) throws IOException {
+    FileInputStream inputStream = new FileInputStream(file);
+    try {
+      // The player keeps its own duplicate of the descriptor
+      mediaPlayer.setDataSource(inputStream.getFD(), fileOffset, length);
+    } finally {
+      inputStream.close();
+    }
+  }
+
+  /**
+   * Call once no player reads from this audio anymore.
+   */
+  void release(AudioBufferPool pool) {
+    if (buffer != null) {
+      pool.release(buffer);
+      buffer = null;
+    }
+    mappedBuffer = null;
+    if (openedStream != null) {
+      try {
+        openedStream.close();
+      } catch (IOException exception) {
+        Timber.e(exception);
+      }
+      openedStream = null;
+    }
+    if (file != null && isOwnedFile) {
+      file.delete();
+    }
+  }
+}
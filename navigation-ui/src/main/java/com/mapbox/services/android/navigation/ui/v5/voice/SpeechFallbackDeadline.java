@@ -0,0 +1,40 @@
+package com.mapbox.services.android.navigation.ui.v5.voice;
+
+/**
+ * How long {@link MapboxSpeechPlayer} waits for synthesized audio before the announcement is
+ * spoken on the device instead.
+ * <p>
+ * The deadline is a fraction of the time left to the upcoming maneuver, clamped between a
+ * minimum and a maximum, so a close maneuver falls back sooner. Without a known time to the
+ * maneuver the maximum applies.
+ */
+class SpeechFallbackDeadline {
+
+  static final long DEFAULT_MINIMUM_MILLIS = 750;
+  static final long DEFAULT_MAXIMUM_MILLIS = 3000;
+  static final float DEFAULT_MANEUVER_FRACTION = 0.2f;
+  private static final double UNKNOWN_DURATION = -1;
+  private static final double MILLIS_PER_SECOND = 1000;
+  private long minimumMillis = DEFAULT_MINIMUM_MILLIS;
+  private long maximumMillis = DEFAULT_MAXIMUM_MILLIS;
+  private float maneuverFraction = DEFAULT_MANEUVER_FRACTION;
+  private double durationToManeuverSeconds = UNKNOWN_DURATION;
+
+  void update(long minimumMillis, long maximumMillis, float maneuverFraction) {
+    this.minimumMillis = minimumMillis;
+    this.maximumMillis = Math.max(minimumMillis, maximumMillis);
+    this.maneuverFraction = maneuverFraction;
+  }
+
+  void updateDurationToManeuver(double durationToManeuverSeconds) {
+    this.durationToManeuverSeconds = durationToManeuverSeconds;
+  }
+
+  long retrieveDeadlineMillis() {
+    if (durationToManeuverSeconds < 0) {
+      return maximumMillis;
+    }
+    long deadline = Math.round(durationToManeuverSeconds * maneuverFraction * MILLIS_PER_SECOND);
+    return Math.min(maximumMillis, Math.max(minimumMillis, deadline));
+  }
+}
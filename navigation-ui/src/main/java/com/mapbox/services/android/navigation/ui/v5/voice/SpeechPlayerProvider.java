@@ -3,6 +3,7 @@ package com.mapbox.services.android.navigation.ui.v5.voice;
 import android.content.Context;
 import android.media.AudioManager;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.mapbox.api.directions.v5.models.DirectionsRoute;
 import com.mapbox.services.android.navigation.ui.v5.ConnectivityStatusProvider;
@@ -28,6 +29,8 @@ public class SpeechPlayerProvider {
   private static final int FIRST_PLAYER = 0;
 
   private AndroidSpeechPlayer androidSpeechPlayer;
+  @Nullable
+  private MapboxSpeechPlayer mapboxSpeechPlayer;
   private List<SpeechPlayer> speechPlayers = new ArrayList<>(2);
   private VoiceInstructionLoader voiceInstructionLoader;
   private ConnectivityStatusProvider connectivityStatus;
@@ -53,18 +56,45 @@ public class SpeechPlayerProvider {
     this.connectivityStatus = connectivityStatus;
   }
 
-  SpeechPlayer retrieveSpeechPlayer() {
-    if (voiceInstructionLoader.hasCache() || connectivityStatus.isConnectedFast()) {
-      return speechPlayers.get(FIRST_PLAYER);
-    } else {
-      return androidSpeechPlayer;
+  /**
+   * Announcements already synthesized for the current voice are played by the first player even
+   * without connectivity. Others need a fast connection, or are spoken on the device.
+   */
+  SpeechPlayer retrieveSpeechPlayer(SpeechAnnouncement announcement) {
+    SpeechPlayer speechPlayer = speechPlayers.get(FIRST_PLAYER);
+    if (!isSynthesized(announcement) && !connectivityStatus.isConnectedFast()) {
+      speechPlayer = androidSpeechPlayer;
+    }
+    if (speechPlayer == androidSpeechPlayer && announcement != null) {
+      recordDeviceFallback(announcement);
     }
+    return speechPlayer;
   }
 
   AndroidSpeechPlayer retrieveAndroidSpeechPlayer() {
     return androidSpeechPlayer;
   }
 
+  void updateDurationToManeuver(double durationToManeuverSeconds) {
+    if (mapboxSpeechPlayer != null) {
+      mapboxSpeechPlayer.updateDurationToManeuver(durationToManeuverSeconds);
+    }
+  }
+
+  void updateFallbackDeadline(long minimumMillis, long maximumMillis, float maneuverFraction) {
+    if (mapboxSpeechPlayer != null) {
+      mapboxSpeechPlayer.updateFallbackDeadline(minimumMillis, maximumMillis, maneuverFraction);
+    }
+  }
+
+  long retrieveNetworkRequestCount() {
+    return mapboxSpeechPlayer == null ? 0 : mapboxSpeechPlayer.retrieveNetworkRequestCount();
+  }
+
+  long retrieveFallbackCount() {
+    return mapboxSpeechPlayer == null ? 0 : mapboxSpeechPlayer.retrieveFallbackCount();
+  }
+
   void setMuted(boolean isMuted) {
     for (SpeechPlayer player : speechPlayers) {
       player.setMuted(isMuted);
@@ -105,7 +135,7 @@ public class SpeechPlayerProvider {
       return;
     }
     voiceInstructionLoader.setupMapboxSpeechBuilder(language);
-    MapboxSpeechPlayer mapboxSpeechPlayer = new MapboxSpeechPlayer(context, listener, voiceInstructionLoader);
+    mapboxSpeechPlayer = new MapboxSpeechPlayer(context, listener, voiceInstructionLoader);
     speechPlayers.add(mapboxSpeechPlayer);
   }
 
@@ -114,4 +144,18 @@ public class SpeechPlayerProvider {
     androidSpeechPlayer = new AndroidSpeechPlayer(context, language, listener);
     speechPlayers.add(androidSpeechPlayer);
   }
+
+  /**
+   * The device player does not report back, so its announcement is counted and its trace ended here.
+   */
+  private void recordDeviceFallback(SpeechAnnouncement announcement) {
+    VoicePipelineTrace trace = VoicePipelineMonitor.getInstance().takeTrace(announcement);
+    trace.markSource(VoicePipelineSource.DEVICE_FALLBACK);
+    trace.abandon();
+  }
+
+  private boolean isSynthesized(SpeechAnnouncement announcement) {
+    String ssmlAnnouncement = announcement == null ? null : announcement.ssmlAnnouncement();
+    return ssmlAnnouncement != null && voiceInstructionLoader.hasCachedInstruction(ssmlAnnouncement);
+  }
 }
@@ -0,0 +1,346 @@
+package com.mapbox.services.android.navigation.ui.v5.voice;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
+
+import timber.log.Timber;
+
+/**
+ * Content-addressed store of synthesized announcements, one file per distinct announcement.
+ * <p>
+ * Entries are keyed by a hash of the whitespace-normalized SSML, the voice language and the
+ * voice units. An announcement repeated across steps, reroutes or routes is synthesized once.
+ * The index is rebuilt from the directory on creation, so the store outlives the app process.
+ * <p>
+ * Lookups and evictions are a single map operation per entry, and all file writes and deletes
+ * run on the given IO executor. Announcements the rider has passed are demoted rather than
+ * deleted. Demoted entries go first once {@link #MAX_ENTRIES} is exceeded, then the least
+ * recently used ones.
+ */
+class VoiceAudioCache {
+
+  static final int MAX_ENTRIES = 300;
+  private static final String AUDIO_FILE_POSTFIX = ".mp3";
+  private static final String TEMPORARY_FILE_POSTFIX = ".tmp";
+  private static final String HASH_ALGORITHM = "SHA-1";
+  private static final String CHARSET = "UTF-8";
+  private static final char KEY_SEPARATOR = '\u0000';
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final String SINGLE_SPACE = " ";
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+  private final File directory;
+  private final Executor ioExecutor;
+  private final Map<String, File> index = new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true);
+  private final Map<String, File> demotedIndex = new LinkedHashMap<>();
+  private String language = "";
+  private String voiceUnits = "";
+  private long hitCount;
+  private long missCount;
+
+  VoiceAudioCache(File directory, Executor ioExecutor) {
+    this.directory = directory;
+    this.ioExecutor = ioExecutor;
+    ioExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        loadIndex();
+      }
+    });
+  }
+
+  /**
+   * @param language   of the synthesized voice
+   * @param voiceUnits of the distances spoken in the announcements
+   */
+  synchronized void updateVoice(@Nullable String language, @Nullable String voiceUnits) {
+    this.language = language == null ? "" : language;
+    this.voiceUnits = voiceUnits == null ? "" : voiceUnits;
+  }
+
+  /**
+   * Counts towards the hit rate.
+   *
+   * @param instruction announcement text
+   * @return the stored audio, or null if the instruction is not cached
+   */
+  @Nullable
+  File retrieve(String instruction) {
+    final File file;
+    synchronized (this) {
+      file = find(keyFor(instruction));
+      if (file == null) {
+        missCount++;
+        return null;
+      }
+      hitCount++;
+    }
+    // The modification time carries the recency order across restarts
+    ioExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        file.setLastModified(System.currentTimeMillis());
+      }
+    });
+    return file;
+  }
+
+  /**
+   * Does not count towards the hit rate.
+   */
+  synchronized boolean contains(String instruction) {
+    String key = keyFor(instruction);
+    return index.containsKey(key) || demotedIndex.containsKey(key);
+  }
+
+  synchronized long retrieveHitCount() {
+    return hitCount;
+  }
+
+  synchronized long retrieveMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Writes the audio on the IO executor. The entry becomes visible once fully written.
+   *
+   * @param instruction announcement text
+   * @param audio       encoded audio of the announcement
+   */
+  void store(String instruction, final byte[] audio) {
+    final String key;
+    synchronized (this) {
+      key = keyFor(instruction);
+    }
+    ioExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        storeNow(key, audio);
+      }
+    });
+  }
+
+  /**
+   * Makes the given announcements the first to be evicted, keeping them for later routes until
+   * space is needed.
+   *
+   * @param instructions announcement texts, usually the ones the rider has passed
+   */
+  synchronized void demote(Collection<String> instructions) {
+    for (String instruction : instructions) {
+      String key = keyFor(instruction);
+      File file = index.remove(key);
+      if (file != null) {
+        demotedIndex.put(key, file);
+      }
+    }
+  }
+
+  /**
+   * @param count of entries to drop, demoted ones first, then the least recently used
+   * @return keys of the evicted entries
+   */
+  List<String> evictEldest(int count) {
+    List<String> evictedKeys = new ArrayList<>(count);
+    List<File> evictedFiles = new ArrayList<>(count);
+    synchronized (this) {
+      removeEldest(demotedIndex, count, evictedKeys, evictedFiles);
+      removeEldest(index, count, evictedKeys, evictedFiles);
+    }
+    deleteFiles(evictedFiles);
+    return evictedKeys;
+  }
+
+  /**
+   * @param value to hash
+   * @return hex encoded hash of the value
+   */
+  @NonNull
+  static String hashOf(String value) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+      byte[] hash = digest.digest(value.getBytes(CHARSET));
+      char[] hex = new char[hash.length * 2];
+      for (int i = 0; i < hash.length; i++) {
+        hex[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0xf];
+        hex[i * 2 + 1] = HEX_DIGITS[hash[i] & 0xf];
+      }
+      return new String(hex);
+    } catch (NoSuchAlgorithmException | UnsupportedEncodingException exception) {
+      // Both are guaranteed to be available on Android
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  @NonNull
+  static String normalize(String instruction) {
+    return WHITESPACE.matcher(instruction).replaceAll(SINGLE_SPACE).trim();
+  }
+
+  /**
+   * Key of an announcement in the voice store and the {@link VoicePack}.
+   *
+   * @param instruction announcement text
+   * @param language    of the synthesized voice, or an empty string
+   * @param voiceUnits  of the distances spoken in the announcement, or an empty string
+   */
+  @NonNull
+  static String keyOf(String instruction, String language, String voiceUnits) {
+    return hashOf(normalize(instruction) + KEY_SEPARATOR + language + KEY_SEPARATOR + voiceUnits);
+  }
+
+  @NonNull
+  private String keyFor(String instruction) {
+    return keyOf(instruction, language, voiceUnits);
+  }
+
+  @Nullable
+  private File find(String key) {
+    File file = index.get(key);
+    if (file != null) {
+      return file;
+    }
+    file = demotedIndex.remove(key);
+    if (file != null) {
+      // Announced again, so it is back in use
+      index.put(key, file);
+    }
+    return file;
+  }
+
+  private void loadIndex() {
+    File[] files = directory.listFiles(new FileFilter() {
+      @Override
+      public boolean accept(File file) {
+        return file.isFile();
+      }
+    });
+    if (files == null) {
+      return;
+    }
+    Arrays.sort(files, new Comparator<File>() {
+      @Override
+      public int compare(File first, File second) {
+        return Long.compare(first.lastModified(), second.lastModified());
+      }
+    });
+    List<File> evictedFiles = new ArrayList<>();
+    synchronized (this) {
+      for (File file : files) {
+        String name = file.getName();
+        if (!name.endsWith(AUDIO_FILE_POSTFIX)) {
+          // Left over from an interrupted write
+          evictedFiles.add(file);
+          continue;
+        }
+        String key = name.substring(0, name.length() - AUDIO_FILE_POSTFIX.length());
+        if (!index.containsKey(key)) {
+          index.put(key, file);
+        }
+      }
+      trimToSize(evictedFiles);
+    }
+    for (File evictedFile : evictedFiles) {
+      evictedFile.delete();
+    }
+  }
+
+  private void storeNow(String key, byte[] audio) {
+    if (!directory.exists() && !directory.mkdirs()) {
+      Timber.e("Unable to create the voice audio cache directory");
+      return;
+    }
+    File file = new File(directory, key + AUDIO_FILE_POSTFIX);
+    File temporaryFile = new File(directory, key + TEMPORARY_FILE_POSTFIX);
+    FileOutputStream outputStream = null;
+    try {
+      outputStream = new FileOutputStream(temporaryFile);
+      outputStream.write(audio);
+      outputStream.close();
+      outputStream = null;
+      if (!temporaryFile.renameTo(file)) {
+        temporaryFile.delete();
+        return;
+      }
+    } catch (IOException exception) {
+      Timber.e(exception, "Unable to store voice audio");
+      temporaryFile.delete();
+      return;
+    } finally {
+      closeQuietly(outputStream);
+    }
+
+    List<File> evictedFiles = new ArrayList<>();
+    synchronized (this) {
+      demotedIndex.remove(key);
+      index.put(key, file);
+      trimToSize(evictedFiles);
+    }
+    for (File evictedFile : evictedFiles) {
+      evictedFile.delete();
+    }
+  }
+
+  private void trimToSize(List<File> evictedFiles) {
+    int excess = index.size() + demotedIndex.size() - MAX_ENTRIES;
+    if (excess <= 0) {
+      return;
+    }
+    List<String> evictedKeys = new ArrayList<>(excess);
+    removeEldest(demotedIndex, excess, evictedKeys, evictedFiles);
+    removeEldest(index, excess, evictedKeys, evictedFiles);
+  }
+
+  private static void removeEldest(Map<String, File> entries, int count,
+                                   List<String> evictedKeys, List<File> evictedFiles) {
+    Iterator<Map.Entry<String, File>> eldest = entries.entrySet().iterator();
+    while (eldest.hasNext() && evictedKeys.size() < count) {
+      Map.Entry<String, File> entry = eldest.next();
+      evictedKeys.add(entry.getKey());
+      evictedFiles.add(entry.getValue());
+      eldest.remove();
+    }
+  }
+
+  private void deleteFiles(final List<File> files) {
+    if (files.isEmpty()) {
+      return;
+    }
+    ioExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        for (File file : files) {
+          file.delete();
+        }
+      }
+    });
+  }
+
+  private static void closeQuietly(@Nullable FileOutputStream outputStream) {
+    if (outputStream == null) {
+      return;
+    }
+    try {
+      outputStream.close();
+    } catch (IOException exception) {
+      Timber.e(exception);
+    }
+  }
+}
@@ -1,14 +1,18 @@
 package com.mapbox.services.android.navigation.ui.v5.voice;
 
 import android.content.Context;
+import android.support.annotation.Nullable;
 
+import com.mapbox.api.directions.v5.models.DirectionsRoute;
 import com.mapbox.api.speech.v1.MapboxSpeech;
 import com.mapbox.services.android.navigation.ui.v5.ConnectivityStatusProvider;
 
+import com.mapbox.services.android.navigation.ui.v5.utils.NavigationComputeExecutor;
+
+import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.Cache;
@@ -23,49 +27,82 @@ import timber.log.Timber;
 public class VoiceInstructionLoader {
   private static final int VOICE_INSTRUCTIONS_TO_EVICT_THRESHOLD = 4;
   private static final String SSML_TEXT_TYPE = "ssml";
+  private static final String MAPBOX_VOICE_AUDIO_CACHE = "mapbox_voice_audio";
+  private static final String MAPBOX_VOICE_PACK = "mapbox_voice_pack";
   private final ConnectivityStatusProvider connectivityStatus;
   private final String accessToken;
-  private List<String> urlsCached;
   private final Cache cache;
+  private final VoiceAudioCache audioCache;
+  private final VoicePack voicePack;
+  private final VoicePackDownloader voicePackDownloader;
+  private String voiceLanguage;
+  private String voiceUnits;
   private MapboxSpeech.Builder mapboxSpeechBuilder = null;
 
   public VoiceInstructionLoader(Context context, String accessToken, Cache cache) {
     this.connectivityStatus = new ConnectivityStatusProvider(context);
     this.accessToken = accessToken;
-    this.urlsCached = new ArrayList<>();
     this.cache = cache;
+    Executor ioExecutor = NavigationComputeExecutor.getInstance().ioExecutor();
+    this.audioCache = new VoiceAudioCache(new File(context.getCacheDir(), MAPBOX_VOICE_AUDIO_CACHE), ioExecutor);
+    this.voicePack = new VoicePack(new File(context.getFilesDir(), MAPBOX_VOICE_PACK), ioExecutor);
+    this.voicePackDownloader = new VoicePackDownloader(this, voicePack);
   }
 
   // Package private (no modifier) for testing purposes
-  VoiceInstructionLoader(String accessToken, Cache cache, MapboxSpeech.Builder mapboxSpeechBuilder,
-                         ConnectivityStatusProvider connectivityStatus) {
+  VoiceInstructionLoader(String accessToken, Cache cache, VoiceAudioCache audioCache, VoicePack voicePack,
+                         MapboxSpeech.Builder mapboxSpeechBuilder, ConnectivityStatusProvider connectivityStatus) {
     this.accessToken = accessToken;
-    this.urlsCached = new ArrayList<>();
     this.cache = cache;
+    this.audioCache = audioCache;
+    this.voicePack = voicePack;
+    this.voicePackDownloader = new VoicePackDownloader(this, voicePack);
     this.mapboxSpeechBuilder = mapboxSpeechBuilder;
     this.connectivityStatus = connectivityStatus;
   }
 
+  /**
+   * Drops the least recently used stored announcements.
+   *
+   * @return keys of the evicted announcements
+   */
   public List<String> evictVoiceInstructions() {
-    List<String> urlsToRemove = new ArrayList<>();
-    for (int i = 0; i < urlsCached.size() && i < VOICE_INSTRUCTIONS_TO_EVICT_THRESHOLD; i++) {
-      String urlToRemove = urlsCached.get(i);
-      try {
-        Iterator<String> urlsCurrentlyCached = cache.urls();
-        for (Iterator<String> urlCached = urlsCurrentlyCached; urlCached.hasNext(); ) {
-          String url = urlCached.next();
-          if (url.equals(urlToRemove)) {
-            urlCached.remove();
-            urlsToRemove.add(urlToRemove);
-            break;
-          }
-        }
-      } catch (IOException exception) {
-        exception.printStackTrace();
-      }
-    }
-    urlsCached.removeAll(urlsToRemove);
-    return urlsToRemove;
+    return audioCache.evictEldest(VOICE_INSTRUCTIONS_TO_EVICT_THRESHOLD);
+  }
+
+  /**
+   * Makes the given announcements the first to go once the store is full, usually the ones
+   * already passed. They are still served until then.
+   *
+   * @param instructions SSML announcements to demote
+   */
+  public void demoteInstructions(List<String> instructions) {
+    audioCache.demote(instructions);
+  }
+
+  /**
+   * Voice units are part of the store key, next to the instruction text and the language.
+   *
+   * @param voiceUnits of the distances spoken in the announcements
+   */
+  public void setupVoiceUnits(String voiceUnits) {
+    this.voiceUnits = voiceUnits;
+    audioCache.updateVoice(voiceLanguage, voiceUnits);
+    voicePack.updateVoice(voiceLanguage, voiceUnits);
+  }
+
+  /**
+   * @return lookups served from the voice store since it was created
+   */
+  public long retrieveVoiceStoreHitCount() {
+    return audioCache.retrieveHitCount();
+  }
+
+  /**
+   * @return lookups the voice store could not serve since it was created
+   */
+  public long retrieveVoiceStoreMissCount() {
+    return audioCache.retrieveMissCount();
   }
 
   public void cacheInstructions(List<String> instructions) {
@@ -74,12 +111,34 @@ public class VoiceInstructionLoader {
     }
   }
 
-  // Package private (no modifier) for testing purposes
-  void addStubUrlsToCache(List<String> urlsToCache) {
-    this.urlsCached = urlsToCache;
+  /**
+   * Synthesizes a single SSML instruction into the cache.
+   *
+   * @param instruction SSML announcement to synthesize
+   * @param callback    notified once the response has been stored
+   * @return false if the request could not be made, as the cache is closed or the speech
+   * builder is not set up, in which case the callback is not notified
+   */
+  public boolean cacheInstruction(String instruction, Callback<ResponseBody> callback) {
+    return requestInstruction(instruction, SSML_TEXT_TYPE,
+      new InstructionCacheCallback(this, instruction, callback));
+  }
+
+  /**
+   * Synthesizes every announcement of the route into a voice pack kept on disk, so the route
+   * can be announced without connectivity. Announcements already in the pack of this session,
+   * such as those unchanged by a reroute, are not requested again.
+   *
+   * @param route to synthesize the announcements of
+   */
+  public void downloadVoicePack(DirectionsRoute route) {
+    voicePackDownloader.download(route);
   }
 
   void setupMapboxSpeechBuilder(String language) {
+    voiceLanguage = language;
+    audioCache.updateVoice(language, voiceUnits);
+    voicePack.updateVoice(language, voiceUnits);
     if (mapboxSpeechBuilder == null) {
       mapboxSpeechBuilder = MapboxSpeech.builder()
         .accessToken(accessToken)
@@ -89,21 +148,65 @@ public class VoiceInstructionLoader {
     }
   }
 
-  void requestInstruction(String instruction, String textType, Callback<ResponseBody> callback) {
+  boolean requestInstruction(String instruction, String textType, Callback<ResponseBody> callback) {
+    return startInstructionRequest(instruction, textType, callback) != null;
+  }
+
+  /**
+   * @return the running request, which can be cancelled, or null if it could not be made
+   */
+  @Nullable
+  MapboxSpeech startInstructionRequest(String instruction, String textType, Callback<ResponseBody> callback) {
     if (!cache.isClosed() && mapboxSpeechBuilder != null) {
       MapboxSpeech mapboxSpeech = mapboxSpeechBuilder
         .instruction(instruction)
         .textType(textType)
         .build();
       mapboxSpeech.enqueueCall(callback);
+      return mapboxSpeech;
     }
+    return null;
+  }
+
+  @Nullable
+  SpeechAudio retrieveVoicePackInstruction(String instruction) {
+    return voicePack.retrieve(instruction);
+  }
+
+  /**
+   * @param instruction SSML announcement
+   * @return true if the announcement was synthesized before in the current language and units,
+   * into the voice store or the voice pack
+   */
+  public boolean hasCachedInstruction(String instruction) {
+    return audioCache.contains(instruction) || voicePack.contains(instruction);
   }
 
-  boolean hasCache() {
-    return !urlsCached.isEmpty();
+  /**
+   * The voice pack requests every announcement of the route, so waiting for it avoids
+   * synthesizing and storing the same audio twice.
+   *
+   * @param instruction SSML announcement
+   * @param listener    notified on the main thread once the voice pack stored the announcement or gave up on it
+   * @return false if the voice pack download of the current route does not request the announcement,
+   * in which case the listener is not notified
+   */
+  public boolean awaitVoicePackInstruction(String instruction, OnVoicePackInstructionListener listener) {
+    return voicePackDownloader.await(instruction, listener);
+  }
+
+  @Nullable
+  File retrieveCachedInstruction(String instruction) {
+    return audioCache.retrieve(instruction);
+  }
+
+  void storeInstruction(String instruction, byte[] audio) {
+    audioCache.store(instruction, audio);
   }
 
   void flushCache() {
+    voicePackDownloader.cancel();
+    voicePack.close();
     try {
       cache.evictAll();
     } catch (IOException exception) {
@@ -111,12 +214,11 @@ public class VoiceInstructionLoader {
     }
   }
 
-  void addCachedUrl(String url) {
-    urlsCached.add(url);
-  }
-
   private void cacheInstruction(String instruction) {
-    requestInstruction(instruction, SSML_TEXT_TYPE, new InstructionCacheCallback(this));
+    if (audioCache.contains(instruction)) {
+      return;
+    }
+    requestInstruction(instruction, SSML_TEXT_TYPE, new InstructionCacheCallback(this, instruction));
   }
 
   private Interceptor provideOfflineCacheInterceptor() {
@@ -0,0 +1,348 @@
+package com.mapbox.services.android.navigation.ui.v5.voice;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import timber.log.Timber;
+
+/**
+ * Every announcement of a route synthesized into a single append-only file.
+ * <p>
+ * Each record is the length-prefixed instruction key followed by the length-prefixed audio. The
+ * offset index is rebuilt by scanning the record headers when a pack is opened, and playback
+ * reads straight from a read-only memory mapping of the file.
+ * <p>
+ * A pack is named after the fingerprint of the first route it is opened for. It stays open for
+ * later routes of the same session, so a reroute only appends the announcements that changed.
+ * Writes run on the given IO executor.
+ * <p>
+ * Records are keyed like the {@link VoiceAudioCache}, so audio synthesized in another language or
+ * with other units is not played from the pack.
+ */
+class VoicePack {
+
+  static final int MAX_PACKS = 3;
+  private static final String PACK_FILE_POSTFIX = ".pack";
+  private static final String READ_WRITE_MODE = "rw";
+  private static final Charset KEY_CHARSET = Charset.forName("UTF-8");
+  private static final int INT_BYTES = 4;
+  private static final int OFFSET = 0;
+  private static final int LENGTH = 1;
+  private final File directory;
+  private final Executor ioExecutor;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final Map<String, long[]> index = new HashMap<>();
+  private final Set<String> pendingKeys = new HashSet<>();
+  @Nullable
+  private File packFile;
+  @Nullable
+  private FileChannel channel;
+  @Nullable
+  private MappedByteBuffer mappedPack;
+  private long size;
+  private String language = "";
+  private String voiceUnits = "";
+
+  VoicePack(File directory, Executor ioExecutor) {
+    this.directory = directory;
+    this.ioExecutor = ioExecutor;
+  }
+
+  /**
+   * Opens the pack for the route unless one is already open for this session.
+   *
+   * @param routeFingerprint of the route being navigated
+   * @param callback         posted to the main thread once the index is available or opening failed
+   */
+  void open(final long routeFingerprint, final OnOpenedCallback callback) {
+    ioExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        final boolean isOpen = openNow(routeFingerprint);
+        mainHandler.post(new Runnable() {
+          @Override
+          public void run() {
+            callback.onOpened(isOpen);
+          }
+        });
+      }
+    });
+  }
+
+  /**
+   * @param language   of the synthesized voice
+   * @param voiceUnits of the distances spoken in the announcements
+   */
+  synchronized void updateVoice(@Nullable String language, @Nullable String voiceUnits) {
+    this.language = language == null ? "" : language;
+    this.voiceUnits = voiceUnits == null ? "" : voiceUnits;
+  }
+
+  synchronized boolean contains(String instruction) {
+    String key = keyFor(instruction);
+    return index.containsKey(key) || pendingKeys.contains(key);
+  }
+
+  /**
+   * @param instruction announcement text
+   * @return the stored audio, read from the memory mapped pack, or null if the pack does not hold it
+   */
+  @Nullable
+  synchronized SpeechAudio retrieve(String instruction) {
+    long[] entry = index.get(keyFor(instruction));
+    if (entry == null || channel == null || packFile == null) {
+      return null;
+    }
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+      return SpeechAudio.fromPackFile(packFile, entry[OFFSET], entry[LENGTH]);
+    }
+    try {
+      if (mappedPack == null || mappedPack.capacity() < entry[OFFSET] + entry[LENGTH]) {
+        mappedPack = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      }
+    } catch (IOException exception) {
+      Timber.e(exception, "Unable to map the voice pack");
+      return null;
+    }
+    ByteBuffer audio = mappedPack.duplicate();
+    audio.position((int) entry[OFFSET]);
+    audio.limit((int) (entry[OFFSET] + entry[LENGTH]));
+    return SpeechAudio.fromMappedBuffer(audio.slice());
+  }
+
+  /**
+   * Appends the audio on the IO executor. {@link #contains(String)} is true from this call on.
+   *
+   * @param instruction announcement text
+   * @param audio       encoded audio of the announcement
+   */
+  void append(String instruction, final byte[] audio) {
+    final String key;
+    synchronized (this) {
+      key = keyFor(instruction);
+      pendingKeys.add(key);
+    }
+    ioExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        appendNow(key, audio);
+      }
+    });
+  }
+
+  /**
+   * Closes the pack, keeping the file for a later session on the same route.
+   */
+  void close() {
+    ioExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        closeNow();
+      }
+    });
+  }
+
+  /**
+   * @return true if the pack is open, either already or now
+   */
+  private boolean openNow(long routeFingerprint) {
+    synchronized (this) {
+      if (channel != null) {
+        return true;
+      }
+    }
+    if (!directory.exists() && !directory.mkdirs()) {
+      Timber.e("Unable to create the voice pack directory");
+      return false;
+    }
+    File file = new File(directory, Long.toHexString(routeFingerprint) + PACK_FILE_POSTFIX);
+    FileChannel fileChannel = null;
+    try {
+      fileChannel = new RandomAccessFile(file, READ_WRITE_MODE).getChannel();
+      Map<String, long[]> entries = new HashMap<>();
+      long validSize = scanRecords(fileChannel, entries);
+      // Drops a record left incomplete by an interrupted append
+      fileChannel.truncate(validSize);
+      file.setLastModified(System.currentTimeMillis());
+      synchronized (this) {
+        packFile = file;
+        channel = fileChannel;
+        size = validSize;
+        index.putAll(entries);
+      }
+    } catch (IOException exception) {
+      Timber.e(exception, "Unable to open the voice pack");
+      closeQuietly(fileChannel);
+      return false;
+    }
+    deleteStalePacks(file);
+    return true;
+  }
+
+  private void appendNow(String key, byte[] audio) {
+    FileChannel fileChannel;
+    long offset;
+    synchronized (this) {
+      fileChannel = channel;
+      offset = size;
+    }
+    if (fileChannel == null) {
+      removePendingKey(key);
+      return;
+    }
+    byte[] keyBytes = key.getBytes(KEY_CHARSET);
+    ByteBuffer header = ByteBuffer.allocate(INT_BYTES + keyBytes.length + INT_BYTES);
+    header.putInt(keyBytes.length).put(keyBytes).putInt(audio.length);
+    header.flip();
+    long audioOffset = offset + header.remaining();
+    try {
+      fileChannel.position(offset);
+      writeFully(fileChannel, header);
+      writeFully(fileChannel, ByteBuffer.wrap(audio));
+    } catch (IOException exception) {
+      Timber.e(exception, "Unable to append to the voice pack");
+      removePendingKey(key);
+      return;
+    }
+    synchronized (this) {
+      pendingKeys.remove(key);
+      index.put(key, new long[] {audioOffset, audio.length});
+      size = audioOffset + audio.length;
+    }
+  }
+
+  private void closeNow() {
+    FileChannel fileChannel;
+    synchronized (this) {
+      fileChannel = channel;
+      channel = null;
+      mappedPack = null;
+      packFile = null;
+      size = 0;
+      index.clear();
+      pendingKeys.clear();
+    }
+    closeQuietly(fileChannel);
+  }
+
+  private static void closeQuietly(@Nullable FileChannel fileChannel) {
+    if (fileChannel == null) {
+      return;
+    }
+    try {
+      fileChannel.close();
+    } catch (IOException exception) {
+      Timber.e(exception);
+    }
+  }
+
+  private String keyFor(String instruction) {
+    return VoiceAudioCache.keyOf(instruction, language, voiceUnits);
+  }
+
+  private synchronized void removePendingKey(String key) {
+    pendingKeys.remove(key);
+  }
+
+  /**
+   * @return size of the valid records at the start of the file
+   */
+  private static long scanRecords(FileChannel fileChannel, Map<String, long[]> entries) throws IOException {
+    long fileSize = fileChannel.size();
+    long position = 0;
+    ByteBuffer lengthBuffer = ByteBuffer.allocate(INT_BYTES);
+    while (position + INT_BYTES <= fileSize) {
+      int keyLength = readInt(fileChannel, lengthBuffer, position);
+      long keyPosition = position + INT_BYTES;
+      long audioLengthPosition = keyPosition + keyLength;
+      if (keyLength <= 0 || audioLengthPosition + INT_BYTES > fileSize) {
+        break;
+      }
+      ByteBuffer keyBuffer = ByteBuffer.allocate(keyLength);
+      readFully(fileChannel, keyBuffer, keyPosition);
+      int audioLength = readInt(fileChannel, lengthBuffer, audioLengthPosition);
+      long audioOffset = audioLengthPosition + INT_BYTES;
+      if (audioLength < 0 || audioOffset + audioLength > fileSize) {
+        break;
+      }
+      entries.put(new String(keyBuffer.array(), KEY_CHARSET), new long[] {audioOffset, audioLength});
+      position = audioOffset + audioLength;
+    }
+    return position;
+  }
+
+  private static int readInt(FileChannel fileChannel, ByteBuffer buffer, long position) throws IOException {
+    buffer.clear();
+    readFully(fileChannel, buffer, position);
+    buffer.flip();
+    return buffer.getInt();
+  }
+
+  private static void readFully(FileChannel fileChannel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = fileChannel.read(buffer, position);
+      if (read < 0) {
+        throw new IOException("Unexpected end of the voice pack");
+      }
+      position += read;
+    }
+  }
+
+  private static void writeFully(FileChannel fileChannel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      fileChannel.write(buffer);
+    }
+  }
+
+  /**
+   * Keeps the {@link #MAX_PACKS} most recently opened packs.
+   */
+  private void deleteStalePacks(File currentPack) {
+    File[] packs = directory.listFiles(new FileFilter() {
+      @Override
+      public boolean accept(File file) {
+        return file.getName().endsWith(PACK_FILE_POSTFIX);
+      }
+    });
+    if (packs == null || packs.length <= MAX_PACKS) {
+      return;
+    }
+    Arrays.sort(packs, new Comparator<File>() {
+      @Override
+      public int compare(File first, File second) {
+        return Long.compare(second.lastModified(), first.lastModified());
+      }
+    });
+    for (int i = MAX_PACKS; i < packs.length; i++) {
+      if (!packs[i].equals(currentPack)) {
+        packs[i].delete();
+      }
+    }
+  }
+
+  interface OnOpenedCallback {
+
+    /**
+     * @param isOpen false if the pack file could not be opened, in which case nothing can be appended
+     */
+    void onOpened(boolean isOpen);
+  }
+}
@@ -0,0 +1,215 @@
+package com.mapbox.services.android.navigation.ui.v5.voice;
+
+import android.support.annotation.NonNull;
+
+import com.mapbox.api.directions.v5.models.DirectionsRoute;
+import com.mapbox.api.directions.v5.models.LegStep;
+import com.mapbox.api.directions.v5.models.RouteLeg;
+import com.mapbox.api.directions.v5.models.VoiceInstructions;
+import com.mapbox.services.android.navigation.ui.v5.utils.RouteFingerprint;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import timber.log.Timber;
+
+/**
+ * Synthesizes every announcement of a route into the {@link VoicePack}, in route order and with
+ * at most {@link #MAX_IN_FLIGHT} requests running at a time.
+ * <p>
+ * A new route replaces the queue of the previous one. Announcements the pack already holds are
+ * skipped, so a reroute only requests the ones whose text changed. Nothing is requested if the
+ * pack cannot be opened. Other components can wait for a queued announcement instead of
+ * requesting it a second time.
+ */
+class VoicePackDownloader {
+
+  static final int MAX_IN_FLIGHT = 3;
+  private static final String SSML_TEXT_TYPE = "ssml";
+  private final VoiceInstructionLoader loader;
+  private final VoicePack voicePack;
+  private final Set<String> pending = new LinkedHashSet<>();
+  private final Set<String> requested = new HashSet<>();
+  private final Map<String, List<OnVoicePackInstructionListener>> listeners = new HashMap<>();
+  private int routeGeneration;
+  private boolean isOpening;
+
+  VoicePackDownloader(VoiceInstructionLoader loader, VoicePack voicePack) {
+    this.loader = loader;
+    this.voicePack = voicePack;
+  }
+
+  void download(DirectionsRoute route) {
+    final int generation = ++routeGeneration;
+    pending.clear();
+    pending.addAll(buildAnnouncements(route));
+    isOpening = true;
+    notifyDropped();
+    voicePack.open(RouteFingerprint.ofRoute(route), new VoicePack.OnOpenedCallback() {
+      @Override
+      public void onOpened(boolean isOpen) {
+        if (generation != routeGeneration) {
+          return;
+        }
+        isOpening = false;
+        if (isOpen) {
+          requestNext();
+        } else {
+          pending.clear();
+          notifyDropped();
+        }
+      }
+    });
+  }
+
+  void cancel() {
+    routeGeneration++;
+    isOpening = false;
+    pending.clear();
+    notifyDropped();
+  }
+
+  /**
+   * @param instruction SSML announcement
+   * @param listener    notified once the pack stored the announcement or gave up on it
+   * @return false if the announcement is neither queued nor requested, in which case the
+   * listener is not notified
+   */
+  boolean await(String instruction, OnVoicePackInstructionListener listener) {
+    if (!pending.contains(instruction) && !requested.contains(instruction)) {
+      return false;
+    }
+    List<OnVoicePackInstructionListener> instructionListeners = listeners.get(instruction);
+    if (instructionListeners == null) {
+      instructionListeners = new ArrayList<>();
+      listeners.put(instruction, instructionListeners);
+    }
+    instructionListeners.add(listener);
+    return true;
+  }
+
+  private void requestNext() {
+    if (isOpening) {
+      return;
+    }
+    Iterator<String> iterator = pending.iterator();
+    while (requested.size() < MAX_IN_FLIGHT && iterator.hasNext()) {
+      String instruction = iterator.next();
+      iterator.remove();
+      if (voicePack.contains(instruction)) {
+        notifyListeners(instruction, true);
+        continue;
+      }
+      if (!requested.add(instruction)) {
+        // Still requested for a previous route, its response is appended all the same
+        continue;
+      }
+      if (!loader.requestInstruction(instruction, SSML_TEXT_TYPE, new VoicePackCallback(instruction))) {
+        requested.remove(instruction);
+        pending.clear();
+        notifyListeners(instruction, false);
+        notifyDropped();
+        return;
+      }
+    }
+  }
+
+  private void onInstructionReceived(String instruction, boolean isStored) {
+    requested.remove(instruction);
+    notifyListeners(instruction, isStored);
+    requestNext();
+  }
+
+  private void notifyListeners(String instruction, boolean isStored) {
+    List<OnVoicePackInstructionListener> instructionListeners = listeners.remove(instruction);
+    if (instructionListeners == null) {
+      return;
+    }
+    for (OnVoicePackInstructionListener listener : instructionListeners) {
+      listener.onVoicePackInstruction(instruction, isStored);
+    }
+  }
+
+  /**
+   * Lets the listeners of announcements no longer queued or requested know they will not be stored.
+   */
+  private void notifyDropped() {
+    List<String> dropped = new ArrayList<>();
+    for (String instruction : listeners.keySet()) {
+      if (!pending.contains(instruction) && !requested.contains(instruction)) {
+        dropped.add(instruction);
+      }
+    }
+    for (String instruction : dropped) {
+      notifyListeners(instruction, false);
+    }
+  }
+
+  @NonNull
+  private static Set<String> buildAnnouncements(DirectionsRoute route) {
+    Set<String> announcements = new LinkedHashSet<>();
+    List<RouteLeg> legs = route.legs() == null ? Collections.<RouteLeg>emptyList() : route.legs();
+    for (RouteLeg leg : legs) {
+      List<LegStep> steps = leg.steps() == null ? Collections.<LegStep>emptyList() : leg.steps();
+      for (LegStep step : steps) {
+        List<VoiceInstructions> voiceInstructions = step.voiceInstructions();
+        if (voiceInstructions == null) {
+          continue;
+        }
+        for (VoiceInstructions voiceInstruction : voiceInstructions) {
+          String ssmlAnnouncement = voiceInstruction.ssmlAnnouncement();
+          if (ssmlAnnouncement != null) {
+            announcements.add(ssmlAnnouncement);
+          }
+        }
+      }
+    }
+    return announcements;
+  }
+
+  private class VoicePackCallback implements Callback<ResponseBody> {
+
+    private final String instruction;
+
+    VoicePackCallback(String instruction) {
+      this.instruction = instruction;
+    }
+
+    @Override
+    public void onResponse(@NonNull Call<ResponseBody> call, @NonNull Response<ResponseBody> response) {
+      ResponseBody body = response.body();
+      boolean isStored = false;
+      try {
+        if (response.isSuccessful() && body != null) {
+          voicePack.append(instruction, body.bytes());
+          isStored = true;
+        }
+      } catch (IOException exception) {
+        Timber.e(exception, "Unable to read voice pack instruction");
+      } finally {
+        if (body != null) {
+          body.close();
+        }
+      }
+      onInstructionReceived(instruction, isStored);
+    }
+
+    @Override
+    public void onFailure(@NonNull Call<ResponseBody> call, @NonNull Throwable throwable) {
+      Timber.e(throwable, "onFailure voice pack instruction");
+      onInstructionReceived(instruction, false);
+    }
+  }
+}
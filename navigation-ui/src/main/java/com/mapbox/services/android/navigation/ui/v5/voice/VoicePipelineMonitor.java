@@ -0,0 +1,91 @@
+package com.mapbox.services.android.navigation.ui.v5.voice;
+
+import android.support.annotation.NonNull;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Times voice announcements from their milestone until speech starts.
+ * <p>
+ * Each announcement is traced through the {@link VoicePipelineStage}s it goes through, and the
+ * {@link VoicePipelineSource} of its audio is counted. Per-stage latency histograms and source
+ * counts are available through {@link #retrieveSnapshot()}. Announcements spoken by the device
+ * text-to-speech are counted, but their speech start is not timed.
+ */
+public final class VoicePipelineMonitor {
+
+  private static final int MAX_PENDING_TRACES = 16;
+  private static VoicePipelineMonitor instance;
+  private final Map<VoicePipelineStage, LatencyHistogram> histograms = new EnumMap<>(VoicePipelineStage.class);
+  private final Map<VoicePipelineSource, Long> sourceCounts = new EnumMap<>(VoicePipelineSource.class);
+  private final Map<SpeechAnnouncement, VoicePipelineTrace> pendingTraces = new LinkedHashMap<>();
+
+  private VoicePipelineMonitor() {
+    initializeHistograms();
+  }
+
+  @NonNull
+  public static synchronized VoicePipelineMonitor getInstance() {
+    if (instance == null) {
+      instance = new VoicePipelineMonitor();
+    }
+    return instance;
+  }
+
+  /**
+   * Starts timing an announcement, called as its voice milestone fires.
+   *
+   * @param announcement about to be played
+   */
+  public synchronized void onAnnouncementTriggered(@NonNull SpeechAnnouncement announcement) {
+    pendingTraces.put(announcement, new VoicePipelineTrace(this));
+    if (pendingTraces.size() > MAX_PENDING_TRACES) {
+      // Played by a player that does not report back, such as a custom one
+      Iterator<VoicePipelineTrace> eldest = pendingTraces.values().iterator();
+      eldest.next();
+      eldest.remove();
+    }
+  }
+
+  /**
+   * @return a copy of the metrics recorded since creation or the last {@link #reset()}
+   */
+  @NonNull
+  public synchronized VoicePipelineSnapshot retrieveSnapshot() {
+    return new VoicePipelineSnapshot(histograms, sourceCounts);
+  }
+
+  public synchronized void reset() {
+    initializeHistograms();
+    sourceCounts.clear();
+    pendingTraces.clear();
+  }
+
+  /**
+   * @param announcement being played
+   * @return the trace started at its milestone, or one starting now if there was none
+   */
+  @NonNull
+  synchronized VoicePipelineTrace takeTrace(SpeechAnnouncement announcement) {
+    VoicePipelineTrace trace = pendingTraces.remove(announcement);
+    return trace == null ? new VoicePipelineTrace(this) : trace;
+  }
+
+  synchronized void record(VoicePipelineStage stage, long latencyMillis) {
+    histograms.get(stage).record(latencyMillis);
+  }
+
+  synchronized void record(VoicePipelineSource source) {
+    Long count = sourceCounts.get(source);
+    sourceCounts.put(source, count == null ? 1 : count + 1);
+  }
+
+  private void initializeHistograms() {
+    for (VoicePipelineStage stage : VoicePipelineStage.values()) {
+      histograms.put(stage, new LatencyHistogram());
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package com.mapbox.services.android.navigation.ui.v5.voice;
+
+import android.support.annotation.NonNull;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Copy of the voice pipeline metrics at the time it was taken, from
+ * {@link VoicePipelineMonitor#retrieveSnapshot()}.
+ */
+public final class VoicePipelineSnapshot {
+
+  private static final double MEDIAN = 50;
+  private static final double TAIL = 90;
+  private final Map<VoicePipelineStage, LatencyHistogram> histograms;
+  private final Map<VoicePipelineSource, Long> sourceCounts;
+
+  VoicePipelineSnapshot(Map<VoicePipelineStage, LatencyHistogram> histograms,
+                        Map<VoicePipelineSource, Long> sourceCounts) {
+    this.histograms = new EnumMap<>(VoicePipelineStage.class);
+    for (Map.Entry<VoicePipelineStage, LatencyHistogram> entry : histograms.entrySet()) {
+      this.histograms.put(entry.getKey(), entry.getValue().copy());
+    }
+    this.sourceCounts = new EnumMap<>(sourceCounts);
+  }
+
+  /**
+   * @param stage of the pipeline
+   * @return latencies recorded for the stage
+   */
+  @NonNull
+  public LatencyHistogram retrieveHistogram(VoicePipelineStage stage) {
+    LatencyHistogram histogram = histograms.get(stage);
+    return histogram == null ? new LatencyHistogram() : histogram;
+  }
+
+  /**
+   * @param source of the audio
+   * @return announcements whose audio came from the source
+   */
+  public long retrieveSourceCount(VoicePipelineSource source) {
+    Long count = sourceCounts.get(source);
+    return count == null ? 0 : count;
+  }
+
+  /**
+   * @return share of announcements served without a network call at announcement time, 0 if none
+   */
+  public float retrieveCacheHitRate() {
+    long hits = retrieveSourceCount(VoicePipelineSource.VOICE_PACK)
+      + retrieveSourceCount(VoicePipelineSource.VOICE_STORE);
+    long total = hits + retrieveSourceCount(VoicePipelineSource.NETWORK)
+      + retrieveSourceCount(VoicePipelineSource.DEVICE_FALLBACK);
+    return total == 0 ? 0 : (float) hits / total;
+  }
+
+  /**
+   * @return one line per stage with count, p50, p90 and max, then the audio sources
+   */
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    for (VoicePipelineStage stage : VoicePipelineStage.values()) {
+      LatencyHistogram histogram = retrieveHistogram(stage);
+      builder.append(String.format(Locale.US, "%s count=%d p50=%dms p90=%dms max=%dms%n", stage,
+        histogram.retrieveCount(), histogram.retrievePercentileMillis(MEDIAN),
+        histogram.retrievePercentileMillis(TAIL), histogram.retrieveMaxMillis()));
+    }
+    for (VoicePipelineSource source : VoicePipelineSource.values()) {
+      builder.append(String.format(Locale.US, "%s=%d ", source, retrieveSourceCount(source)));
+    }
+    return builder.append(String.format(Locale.US, "hitRate=%.2f", retrieveCacheHitRate())).toString();
+  }
+}
@@ -0,0 +1,25 @@
+package com.mapbox.services.android.navigation.ui.v5.voice;
+
+/**
+ * Where the audio of a voice announcement came from.
+ */
+public enum VoicePipelineSource {
+
+  /**
+   * Whole-route voice pack, downloaded up front.
+   */
+  VOICE_PACK,
+  /**
+   * Voice store of previously synthesized announcements.
+   */
+  VOICE_STORE,
+  /**
+   * Synthesized over the network when announced.
+   */
+  NETWORK,
+  /**
+   * Spoken by the device text-to-speech, as synthesis failed, missed its deadline or was not
+   * attempted for lack of a fast connection or a supported voice language.
+   */
+  DEVICE_FALLBACK
+}
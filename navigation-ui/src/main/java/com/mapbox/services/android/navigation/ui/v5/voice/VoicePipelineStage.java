@@ -0,0 +1,33 @@
+package com.mapbox.services.android.navigation.ui.v5.voice;
+
+/**
+ * Stages of a voice announcement timed by the {@link VoicePipelineMonitor}, each measured from
+ * the end of the previous one.
+ */
+public enum VoicePipelineStage {
+
+  /**
+   * From the voice milestone to the audio lookup in the voice pack and voice store.
+   */
+  LOOKUP,
+  /**
+   * Network synthesis, from the request to the response.
+   */
+  REQUEST,
+  /**
+   * Copying or writing the synthesized response for playback.
+   */
+  DOWNLOAD,
+  /**
+   * Waiting behind announcements already playing.
+   */
+  QUEUE,
+  /**
+   * Media player preparation, until speech starts.
+   */
+  PREPARE,
+  /**
+   * From the voice milestone until speech starts.
+   */
+  TOTAL
+}
@@ -0,0 +1,56 @@
+package com.mapbox.services.android.navigation.ui.v5.voice;
+
+import android.os.SystemClock;
+
+/**
+ * Timeline of a single announcement, reporting each stage to the {@link VoicePipelineMonitor}
+ * as it ends.
+ */
+class VoicePipelineTrace {
+
+  private final VoicePipelineMonitor monitor;
+  private final long startMillis;
+  private long lastMarkMillis;
+  private boolean isFinished;
+
+  VoicePipelineTrace(VoicePipelineMonitor monitor) {
+    this.monitor = monitor;
+    this.startMillis = SystemClock.elapsedRealtime();
+    this.lastMarkMillis = startMillis;
+  }
+
+  /**
+   * @param stage that just ended
+   */
+  void mark(VoicePipelineStage stage) {
+    if (isFinished) {
+      return;
+    }
+    long now = SystemClock.elapsedRealtime();
+    monitor.record(stage, now - lastMarkMillis);
+    lastMarkMillis = now;
+  }
+
+  void markSource(VoicePipelineSource source) {
+    monitor.record(source);
+  }
+
+  /**
+   * Ends the trace as speech starts.
+   */
+  void finish() {
+    if (isFinished) {
+      return;
+    }
+    mark(VoicePipelineStage.PREPARE);
+    monitor.record(VoicePipelineStage.TOTAL, lastMarkMillis - startMillis);
+    isFinished = true;
+  }
+
+  /**
+   * Ends the trace without timing speech, as it failed or is spoken elsewhere.
+   */
+  void abandon() {
+    isFinished = true;
+  }
+}
@@ -0,0 +1,318 @@
+package com.mapbox.services.android.navigation.ui.v5;
+
+import com.mapbox.api.directions.v5.models.DirectionsRoute;
+import com.mapbox.api.directions.v5.models.LegStep;
+import com.mapbox.api.directions.v5.models.RouteLeg;
+import com.mapbox.api.directions.v5.models.StepManeuver;
+import com.mapbox.api.directions.v5.models.VoiceInstructions;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class VoiceInstructionPrefetcherTest {
+
+  private static final int WINDOW_SIZE = 4;
+  private static final int MAX_IN_FLIGHT = 2;
+
+  @Test
+  public void updateRoute_requestsClosestAnnouncementsFirst() {
+    FakeVoicePrefetchBackend backend = new FakeVoicePrefetchBackend();
+    VoiceInstructionPrefetcher prefetcher = buildPrefetcher(backend, true);
+
+    prefetcher.updateRoute(buildRoute());
+
+    assertEquals(Arrays.asList("a0", "a1"), backend.requested);
+  }
+
+  @Test
+  public void onPrefetched_keepsRequestsWithinWindow() {
+    FakeVoicePrefetchBackend backend = new FakeVoicePrefetchBackend();
+    VoiceInstructionPrefetcher prefetcher = buildPrefetcher(backend, true);
+    prefetcher.updateRoute(buildRoute());
+
+    backend.complete(prefetcher, "a0", true);
+    backend.complete(prefetcher, "a1", true);
+    backend.complete(prefetcher, "a2", true);
+    backend.complete(prefetcher, "b0", true);
+
+    assertEquals(Arrays.asList("a0", "a1", "a2", "b0"), backend.requested);
+  }
+
+  @Test
+  public void onPrefetched_limitsRequestsInFlight() {
+    FakeVoicePrefetchBackend backend = new FakeVoicePrefetchBackend();
+    VoiceInstructionPrefetcher prefetcher = buildPrefetcher(backend, true);
+    prefetcher.updateRoute(buildRoute());
+
+    backend.complete(prefetcher, "a0", true);
+
+    assertEquals(Arrays.asList("a0", "a1", "a2"), backend.requested);
+  }
+
+  @Test
+  public void updateProgress_movesWindowPastPlayedAnnouncements() {
+    FakeVoicePrefetchBackend backend = new FakeVoicePrefetchBackend();
+    VoiceInstructionPrefetcher prefetcher = buildPrefetcher(backend, true);
+    prefetcher.updateRoute(buildRoute());
+
+    prefetcher.updateProgress(950);
+    backend.complete(prefetcher, "a0", true);
+    backend.complete(prefetcher, "a1", true);
+
+    assertEquals(Arrays.asList("a0", "a1", "b0", "b1"), backend.requested);
+  }
+
+  @Test
+  public void updateRoute_reprioritizesAfterReroute() {
+    FakeVoicePrefetchBackend backend = new FakeVoicePrefetchBackend();
+    VoiceInstructionPrefetcher prefetcher = buildPrefetcher(backend, true);
+    prefetcher.updateRoute(buildRoute());
+    backend.complete(prefetcher, "a0", true);
+    backend.complete(prefetcher, "a1", true);
+    backend.requested.clear();
+
+    prefetcher.updateRoute(buildReroute());
+    backend.complete(prefetcher, "a2", true);
+    backend.complete(prefetcher, "b0", true);
+
+    assertEquals(Arrays.asList("b2", "c0"), backend.requested);
+  }
+
+  @Test
+  public void onAnnounced_countsHitsMissesAndLateAnnouncements() {
+    FakeVoicePrefetchBackend backend = new FakeVoicePrefetchBackend();
+    VoiceInstructionPrefetcher prefetcher = buildPrefetcher(backend, true);
+    prefetcher.updateRoute(buildRoute());
+    backend.complete(prefetcher, "a0", true);
+    backend.complete(prefetcher, "a2", false);
+
+    prefetcher.onAnnounced("a0");
+    prefetcher.onAnnounced("a1");
+    prefetcher.onAnnounced("a2");
+    prefetcher.onAnnounced("b2");
+
+    assertEquals(1, prefetcher.retrieveHitCount());
+    assertEquals(1, prefetcher.retrieveLateCount());
+    assertEquals(2, prefetcher.retrieveMissCount());
+  }
+
+  @Test
+  public void onAnnounced_countsAnnouncementsStoredByOtherMeansAsHits() {
+    FakeVoicePrefetchBackend backend = new FakeVoicePrefetchBackend();
+    backend.stored.add("a0");
+    backend.stored.add("a1");
+    VoiceInstructionPrefetcher prefetcher = buildPrefetcher(backend, false);
+    prefetcher.updateRoute(buildRoute());
+
+    prefetcher.onAnnounced("a0");
+    prefetcher.onAnnounced("a1");
+    prefetcher.onAnnounced("a2");
+
+    assertEquals(2, prefetcher.retrieveHitCount());
+    assertEquals(1, prefetcher.retrieveMissCount());
+  }
+
+  @Test
+  public void onAnnounced_evictsPassedAnnouncements() {
+    FakeVoicePrefetchBackend backend = new FakeVoicePrefetchBackend();
+    VoiceInstructionPrefetcher prefetcher = buildPrefetcher(backend, true);
+    prefetcher.updateRoute(buildRoute());
+    backend.completeAll(prefetcher);
+    prefetcher.updateProgress(1700);
+
+    for (String instruction : Arrays.asList("a0", "a1", "a2", "b0", "b1")) {
+      prefetcher.onAnnounced(instruction);
+    }
+    prefetcher.onAnnounced("a0");
+
+    assertEquals(new HashSet<>(Arrays.asList("a0", "a1", "a2", "b0", "b1")), new HashSet<>(backend.evicted));
+    assertEquals(4, prefetcher.retrieveHitCount());
+    assertEquals(2, prefetcher.retrieveMissCount());
+  }
+
+  @Test
+  public void onAnnounced_keepsAnnouncementsRepeatedInWindow() {
+    FakeVoicePrefetchBackend backend = new FakeVoicePrefetchBackend();
+    VoiceInstructionPrefetcher prefetcher = buildPrefetcher(backend, true);
+    prefetcher.updateRoute(buildRouteWithRepeatedAnnouncement());
+    backend.completeAll(prefetcher);
+    prefetcher.updateProgress(600);
+
+    for (int i = 0; i < 5; i++) {
+      prefetcher.onAnnounced("a1");
+    }
+
+    assertEquals(Arrays.asList("a0"), backend.evicted);
+  }
+
+  @Test
+  public void onPrefetched_skipsFailedAnnouncementsUntilNextRoute() {
+    FakeVoicePrefetchBackend backend = new FakeVoicePrefetchBackend();
+    VoiceInstructionPrefetcher prefetcher = buildPrefetcher(backend, true);
+    prefetcher.updateRoute(buildRoute());
+
+    backend.complete(prefetcher, "a0", false);
+    backend.complete(prefetcher, "a1", true);
+    backend.complete(prefetcher, "a2", true);
+    prefetcher.updateRoute(buildRoute());
+
+    assertEquals(Arrays.asList("a0", "a1", "a2", "b0", "a0"), backend.requested);
+  }
+
+  @Test
+  public void updateRoute_skipsRequestsWhileOffline() {
+    FakeVoicePrefetchBackend backend = new FakeVoicePrefetchBackend();
+    VoiceInstructionPrefetcher prefetcher = buildPrefetcher(backend, false);
+
+    prefetcher.updateRoute(buildRoute());
+    prefetcher.updateProgress(950);
+
+    assertTrue(backend.requested.isEmpty());
+  }
+
+  @Test
+  public void updateRoute_stopsWhenBackendRefusesRequest() {
+    FakeVoicePrefetchBackend backend = new FakeVoicePrefetchBackend();
+    backend.isAccepting = false;
+    VoiceInstructionPrefetcher prefetcher = buildPrefetcher(backend, true);
+
+    prefetcher.updateRoute(buildRoute());
+    backend.isAccepting = true;
+    prefetcher.updateProgress(450);
+
+    assertEquals(Arrays.asList("a1", "a2"), backend.requested);
+  }
+
+  private static VoiceInstructionPrefetcher buildPrefetcher(FakeVoicePrefetchBackend backend, boolean isConnected) {
+    return new VoiceInstructionPrefetcher(backend, new FakeConnectivityStatusProvider(isConnected),
+      WINDOW_SIZE, MAX_IN_FLIGHT);
+  }
+
+  /**
+   * Announcements a0 at 0, a1 at 500, a2 at 900, b0 at 1000, b1 at 1600 and b2 at 1950 meters.
+   */
+  private static DirectionsRoute buildRoute() {
+    return buildRoute(
+      buildStep(1000, voiceInstruction("a0", 1000), voiceInstruction("a1", 500), voiceInstruction("a2", 100)),
+      buildStep(1000, voiceInstruction("b0", 1000), voiceInstruction("b1", 400), voiceInstruction("b2", 50))
+    );
+  }
+
+  /**
+   * Announcements a1 at 0, b2 at 400 and c0 at 800 meters.
+   */
+  private static DirectionsRoute buildReroute() {
+    return buildRoute(
+      buildStep(1000, voiceInstruction("a1", 1000), voiceInstruction("b2", 600), voiceInstruction("c0", 200))
+    );
+  }
+
+  /**
+   * Announcements a0 at 0, a1 at 500 and again at 1000 meters.
+   */
+  private static DirectionsRoute buildRouteWithRepeatedAnnouncement() {
+    return buildRoute(
+      buildStep(1000, voiceInstruction("a0", 1000), voiceInstruction("a1", 500)),
+      buildStep(1000, voiceInstruction("a1", 1000))
+    );
+  }
+
+  private static DirectionsRoute buildRoute(LegStep... steps) {
+    double distance = 0;
+    for (LegStep step : steps) {
+      distance += step.distance();
+    }
+    RouteLeg leg = RouteLeg.builder()
+      .distance(distance)
+      .steps(Arrays.asList(steps))
+      .build();
+    return DirectionsRoute.builder()
+      .distance(distance)
+      .legs(Arrays.asList(leg))
+      .build();
+  }
+
+  private static LegStep buildStep(double distance, VoiceInstructions... voiceInstructions) {
+    StepManeuver maneuver = StepManeuver.builder()
+      .rawLocation(new double[] {0, 0})
+      .build();
+    return LegStep.builder()
+      .distance(distance)
+      .duration(distance)
+      .weight(distance)
+      .mode("driving")
+      .maneuver(maneuver)
+      .voiceInstructions(Arrays.asList(voiceInstructions))
+      .build();
+  }
+
+  private static VoiceInstructions voiceInstruction(String ssmlAnnouncement, double distanceAlongGeometry) {
+    return VoiceInstructions.builder()
+      .ssmlAnnouncement(ssmlAnnouncement)
+      .distanceAlongGeometry(distanceAlongGeometry)
+      .build();
+  }
+
+  private static class FakeVoicePrefetchBackend implements VoicePrefetchBackend {
+
+    private final List<String> requested = new ArrayList<>();
+    private final List<String> pending = new ArrayList<>();
+    private final List<String> evicted = new ArrayList<>();
+    private final Set<String> stored = new HashSet<>();
+    private boolean isAccepting = true;
+
+    @Override
+    public boolean prefetch(String instruction, OnPrefetchedCallback callback) {
+      if (!isAccepting) {
+        return false;
+      }
+      requested.add(instruction);
+      pending.add(instruction);
+      return true;
+    }
+
+    @Override
+    public boolean isStored(String instruction) {
+      return stored.contains(instruction);
+    }
+
+    @Override
+    public void evict(List<String> passedInstructions) {
+      evicted.addAll(passedInstructions);
+    }
+
+    void complete(OnPrefetchedCallback callback, String instruction, boolean isSuccessful) {
+      assertTrue(instruction + " was not requested", pending.remove(instruction));
+      callback.onPrefetched(instruction, isSuccessful);
+    }
+
+    void completeAll(OnPrefetchedCallback callback) {
+      while (!pending.isEmpty()) {
+        complete(callback, pending.get(0), true);
+      }
+    }
+  }
+
+  private static class FakeConnectivityStatusProvider extends ConnectivityStatusProvider {
+
+    private final boolean isConnected;
+
+    FakeConnectivityStatusProvider(boolean isConnected) {
+      super(null);
+      this.isConnected = isConnected;
+    }
+
+    @Override
+    public boolean isConnected() {
+      return isConnected;
+    }
+  }
+}
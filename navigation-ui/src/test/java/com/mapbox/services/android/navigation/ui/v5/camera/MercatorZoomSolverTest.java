@@ -0,0 +1,123 @@
+package com.mapbox.services.android.navigation.ui.v5.camera;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Expected zooms without tilt are the ones the native camera for bounds computation returns for
+ * the same bounds on a 256 by 256 map at a pixel ratio of 1. Tilted zooms depend on where the
+ * native camera currently is, so they are checked against {@link PerspectiveCameraFit} instead.
+ */
+public class MercatorZoomSolverTest {
+
+  private static final double DELTA = 1e-5;
+  private static final double SOUTH_WEST_LATITUDE = 15.68169;
+  private static final double SOUTH_WEST_LONGITUDE = 73.499857;
+  private static final double NORTH_EAST_LATITUDE = 53.560711;
+  private static final double NORTH_EAST_LONGITUDE = 134.77281;
+  private static final double NATIVE_ZOOM = 1.55467;
+  private static final double NATIVE_ZOOM_WITH_BEARING = 1.21385;
+  private static final double PERSPECTIVE_ZOOM_TILTED_45 = 1.31122;
+  private static final double PERSPECTIVE_ZOOM_TILTED_60 = 1.26174;
+  private static final int[] ZERO_PADDING = {0, 0, 0, 0};
+  private static final double[][] TRACKING_SPANS = {
+    {13.4, 52.5, 13.403, 52.502},
+    {13.4, 52.5, 13.41, 52.507},
+    {13.4, 52.5, 13.4, 52.509},
+    {13.4, 52.5, 13.401, 52.5}
+  };
+
+  @Test
+  public void solve_matchesNativeZoom() {
+    double zoom = MercatorZoomSolver.solve(SOUTH_WEST_LONGITUDE, SOUTH_WEST_LATITUDE,
+      NORTH_EAST_LONGITUDE, NORTH_EAST_LATITUDE, 256, 256, ZERO_PADDING, 1f, 0, 0);
+
+    assertEquals(NATIVE_ZOOM, zoom, DELTA);
+  }
+
+  @Test
+  public void solve_matchesNativeZoomWithBearing() {
+    double zoom = MercatorZoomSolver.solve(SOUTH_WEST_LONGITUDE, SOUTH_WEST_LATITUDE,
+      NORTH_EAST_LONGITUDE, NORTH_EAST_LATITUDE, 256, 256, ZERO_PADDING, 1f, 35, 0);
+
+    assertEquals(NATIVE_ZOOM_WITH_BEARING, zoom, DELTA);
+  }
+
+  @Test
+  public void solve_matchesPerspectiveZoomTilted45() {
+    double zoom = MercatorZoomSolver.solve(SOUTH_WEST_LONGITUDE, SOUTH_WEST_LATITUDE,
+      NORTH_EAST_LONGITUDE, NORTH_EAST_LATITUDE, 256, 256, ZERO_PADDING, 1f, 0, 45);
+
+    assertEquals(PERSPECTIVE_ZOOM_TILTED_45, zoom, DELTA);
+  }
+
+  @Test
+  public void solve_matchesPerspectiveZoomTilted60() {
+    double zoom = MercatorZoomSolver.solve(SOUTH_WEST_LONGITUDE, SOUTH_WEST_LATITUDE,
+      NORTH_EAST_LONGITUDE, NORTH_EAST_LATITUDE, 256, 256, ZERO_PADDING, 1f, 0, 60);
+
+    assertEquals(PERSPECTIVE_ZOOM_TILTED_60, zoom, DELTA);
+  }
+
+  @Test
+  public void solve_matchesPerspectiveFitAtTrackingTilts() {
+    for (double[] span : TRACKING_SPANS) {
+      for (double bearing : new double[] {0, 35, 90}) {
+        for (double tilt : new double[] {45, 60}) {
+          double zoom = MercatorZoomSolver.solve(span[0], span[1], span[2], span[3], 1080, 1920, ZERO_PADDING, 3f,
+            bearing, tilt);
+          double expectedZoom = PerspectiveCameraFit.solve(span[0], span[1], span[2], span[3], 1080, 1920, 3f,
+            bearing, tilt);
+
+          assertEquals(expectedZoom, zoom, DELTA);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void solve_ignoresCoordinateOrder() {
+    double zoom = MercatorZoomSolver.solve(NORTH_EAST_LONGITUDE, NORTH_EAST_LATITUDE,
+      SOUTH_WEST_LONGITUDE, SOUTH_WEST_LATITUDE, 256, 256, ZERO_PADDING, 1f, 35, 0);
+
+    assertEquals(NATIVE_ZOOM_WITH_BEARING, zoom, DELTA);
+  }
+
+  @Test
+  public void solve_scalesViewportByPixelRatio() {
+    double zoom = MercatorZoomSolver.solve(SOUTH_WEST_LONGITUDE, SOUTH_WEST_LATITUDE,
+      NORTH_EAST_LONGITUDE, NORTH_EAST_LATITUDE, 768, 768, ZERO_PADDING, 3f, 0, 0);
+
+    assertEquals(NATIVE_ZOOM, zoom, DELTA);
+  }
+
+  @Test
+  public void solve_scalesPaddingByPixelRatio() {
+    int[] padding = {192, 192, 192, 192};
+
+    double zoom = MercatorZoomSolver.solve(SOUTH_WEST_LONGITUDE, SOUTH_WEST_LATITUDE,
+      NORTH_EAST_LONGITUDE, NORTH_EAST_LATITUDE, 1152, 1152, padding, 3f, 0, 0);
+
+    assertEquals(NATIVE_ZOOM, zoom, DELTA);
+  }
+
+  @Test
+  public void solve_returnsNanForEqualCoordinates() {
+    double zoom = MercatorZoomSolver.solve(SOUTH_WEST_LONGITUDE, SOUTH_WEST_LATITUDE,
+      SOUTH_WEST_LONGITUDE, SOUTH_WEST_LATITUDE, 256, 256, ZERO_PADDING, 1f, 0, 0);
+
+    assertTrue(Double.isNaN(zoom));
+  }
+
+  @Test
+  public void solve_returnsNanWithoutRoomAfterPadding() {
+    int[] padding = {128, 0, 128, 0};
+
+    double zoom = MercatorZoomSolver.solve(SOUTH_WEST_LONGITUDE, SOUTH_WEST_LATITUDE,
+      NORTH_EAST_LONGITUDE, NORTH_EAST_LATITUDE, 256, 256, padding, 1f, 0, 0);
+
+    assertTrue(Double.isNaN(zoom));
+  }
+}
@@ -0,0 +1,77 @@
+package com.mapbox.services.android.navigation.ui.v5.camera;
+
+/**
+ * Fits two coordinates by projecting the four corners of their bounds through a perspective
+ * camera like the native transform's: a 36.87 degree vertical field of view, looking at the
+ * center of the bounds from 1.5 viewport heights away. The zoom is found by bisection, so it is
+ * slow but free of the closed form approximations {@link MercatorZoomSolver} makes.
+ */
+class PerspectiveCameraFit {
+
+  private static final double TILE_SIZE = 512d;
+  private static final double CAMERA_DISTANCE_IN_VIEWPORT_HEIGHTS = 1.5d;
+  private static final double MAX_ZOOM = 24d;
+  private static final int ITERATIONS = 60;
+
+  private PerspectiveCameraFit() {
+  }
+
+  static double solve(double fromLongitude, double fromLatitude, double toLongitude, double toLatitude,
+                      double viewportWidth, double viewportHeight, float pixelRatio, double bearing, double tilt) {
+    double[] xs = {projectX(fromLongitude), projectX(toLongitude), projectX(fromLongitude), projectX(toLongitude)};
+    double[] ys = {projectY(fromLatitude), projectY(fromLatitude), projectY(toLatitude), projectY(toLatitude)};
+    double width = viewportWidth / pixelRatio;
+    double height = viewportHeight / pixelRatio;
+    double minZoom = 0;
+    double maxZoom = MAX_ZOOM;
+    for (int i = 0; i < ITERATIONS; i++) {
+      double zoom = (minZoom + maxZoom) / 2;
+      if (fits(xs, ys, width, height, bearing, tilt, zoom)) {
+        minZoom = zoom;
+      } else {
+        maxZoom = zoom;
+      }
+    }
+    return minZoom;
+  }
+
+  private static boolean fits(double[] xs, double[] ys, double width, double height, double bearing, double tilt,
+                              double zoom) {
+    double scale = Math.pow(2, zoom);
+    double centerX = (xs[0] + xs[1]) / 2;
+    double centerY = (ys[0] + ys[2]) / 2;
+    double cameraDistance = CAMERA_DISTANCE_IN_VIEWPORT_HEIGHTS * height;
+    double bearingRadians = Math.toRadians(bearing);
+    double tiltRadians = Math.toRadians(tilt);
+    double minX = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < xs.length; i++) {
+      double x = (xs[i] - centerX) * scale;
+      double y = (ys[i] - centerY) * scale;
+      double rotatedX = x * Math.cos(bearingRadians) + y * Math.sin(bearingRadians);
+      double rotatedY = -x * Math.sin(bearingRadians) + y * Math.cos(bearingRadians);
+      double depth = cameraDistance - rotatedY * Math.sin(tiltRadians);
+      if (depth <= 0) {
+        return false;
+      }
+      double screenX = cameraDistance * rotatedX / depth;
+      double screenY = cameraDistance * rotatedY * Math.cos(tiltRadians) / depth;
+      minX = Math.min(minX, screenX);
+      maxX = Math.max(maxX, screenX);
+      minY = Math.min(minY, screenY);
+      maxY = Math.max(maxY, screenY);
+    }
+    return maxX - minX <= width && maxY - minY <= height;
+  }
+
+  private static double projectX(double longitude) {
+    return (longitude + 180d) / 360d * TILE_SIZE;
+  }
+
+  private static double projectY(double latitude) {
+    double latitudeRadians = Math.toRadians(latitude);
+    return (180d - Math.toDegrees(Math.log(Math.tan(Math.PI / 4 + latitudeRadians / 2)))) / 360d * TILE_SIZE;
+  }
+}
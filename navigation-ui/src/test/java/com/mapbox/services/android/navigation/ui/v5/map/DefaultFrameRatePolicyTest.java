@@ -0,0 +1,113 @@
+package com.mapbox.services.android.navigation.ui.v5.map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DefaultFrameRatePolicyTest {
+
+  private static final int MAX_FPS_THRESHOLD = 20;
+
+  private final DefaultFrameRatePolicy policy = new DefaultFrameRatePolicy();
+
+  @Test
+  public void mapFpsFor_cruisingUsesThreshold() {
+    FrameRateInputs inputs = cruising().build();
+
+    assertEquals(MAX_FPS_THRESHOLD, policy.mapFpsFor(inputs));
+  }
+
+  @Test
+  public void mapFpsFor_stationaryCapsAtTenFps() {
+    FrameRateInputs inputs = cruising().speedMetersPerSecond(0.2f).build();
+
+    assertEquals(10, policy.mapFpsFor(inputs));
+  }
+
+  @Test
+  public void mapFpsFor_unknownSpeedIsNotStationary() {
+    FrameRateInputs inputs = cruising().speedMetersPerSecond(FrameRateInputs.UNKNOWN).build();
+
+    assertEquals(MAX_FPS_THRESHOLD, policy.mapFpsFor(inputs));
+  }
+
+  @Test
+  public void mapFpsFor_lowBatteryCapsAtTenFps() {
+    FrameRateInputs inputs = cruising().batteryLevel(0.1f).build();
+
+    assertEquals(10, policy.mapFpsFor(inputs));
+  }
+
+  @Test
+  public void mapFpsFor_pluggedInIgnoresLowBattery() {
+    FrameRateInputs inputs = cruising().batteryLevel(0.1f).isPluggedIn(true).build();
+
+    assertEquals(30, policy.mapFpsFor(inputs));
+  }
+
+  @Test
+  public void mapFpsFor_nearManeuverRaisesToThirtyFps() {
+    FrameRateInputs byDistance = cruising().isStraightManeuver(false).distanceToManeuverMeters(40).build();
+    FrameRateInputs byDuration = cruising().isStraightManeuver(false).durationToManeuverSeconds(6).build();
+    FrameRateInputs afterManeuver = cruising().isStraightManeuver(false).durationSinceManeuverSeconds(4).build();
+
+    assertEquals(30, policy.mapFpsFor(byDistance));
+    assertEquals(30, policy.mapFpsFor(byDuration));
+    assertEquals(30, policy.mapFpsFor(afterManeuver));
+  }
+
+  @Test
+  public void mapFpsFor_nearManeuverOverridesLowBattery() {
+    FrameRateInputs inputs = cruising().batteryLevel(0.1f).isStraightManeuver(false)
+      .distanceToManeuverMeters(40).build();
+
+    assertEquals(30, policy.mapFpsFor(inputs));
+  }
+
+  @Test
+  public void mapFpsFor_straightManeuverKeepsThreshold() {
+    FrameRateInputs inputs = cruising().isStraightManeuver(true).distanceToManeuverMeters(40).build();
+
+    assertEquals(MAX_FPS_THRESHOLD, policy.mapFpsFor(inputs));
+  }
+
+  @Test
+  public void mapFpsFor_limitsToAchievedFrameRate() {
+    FrameRateInputs slowDevice = cruising().isPluggedIn(true).averageFrameDurationMillis(1000d / 17).build();
+    FrameRateInputs verySlowDevice = cruising().averageFrameDurationMillis(500).build();
+
+    assertEquals(15, policy.mapFpsFor(slowDevice));
+    assertEquals(5, policy.mapFpsFor(verySlowDevice));
+  }
+
+  @Test
+  public void locationFpsFor_followsZoomLadder() {
+    assertEquals(3, policy.locationFpsFor(cruising().zoom(4).build()));
+    assertEquals(5, policy.locationFpsFor(cruising().zoom(9).build()));
+    assertEquals(10, policy.locationFpsFor(cruising().zoom(13).build()));
+    assertEquals(15, policy.locationFpsFor(cruising().zoom(15).build()));
+    assertEquals(25, policy.locationFpsFor(cruising().zoom(17).build()));
+    assertEquals(FrameRatePolicy.DEVICE_MAX_FPS, policy.locationFpsFor(cruising().zoom(18).build()));
+  }
+
+  @Test
+  public void locationFpsFor_stationaryCapsAtFiveFps() {
+    FrameRateInputs inputs = cruising().zoom(17).speedMetersPerSecond(0).build();
+
+    assertEquals(5, policy.locationFpsFor(inputs));
+  }
+
+  @Test
+  public void locationFpsFor_limitsToAchievedFrameRate() {
+    FrameRateInputs inputs = cruising().zoom(18).averageFrameDurationMillis(1000d / 24).build();
+
+    assertEquals(20, policy.locationFpsFor(inputs));
+  }
+
+  private static FrameRateInputs.Builder cruising() {
+    return FrameRateInputs.builder()
+      .maxFpsThreshold(MAX_FPS_THRESHOLD)
+      .speedMetersPerSecond(15)
+      .batteryLevel(0.8f);
+  }
+}
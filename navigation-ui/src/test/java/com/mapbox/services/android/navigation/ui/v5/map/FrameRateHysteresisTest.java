@@ -0,0 +1,55 @@
+package com.mapbox.services.android.navigation.ui.v5.map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FrameRateHysteresisTest {
+
+  @Test
+  public void update_firstCapAppliesImmediately() {
+    FrameRateGovernor.FrameRateHysteresis hysteresis = new FrameRateGovernor.FrameRateHysteresis();
+
+    assertEquals(10, hysteresis.update(10, 0));
+  }
+
+  @Test
+  public void update_higherCapAppliesImmediately() {
+    FrameRateGovernor.FrameRateHysteresis hysteresis = new FrameRateGovernor.FrameRateHysteresis();
+    hysteresis.update(10, 0);
+
+    assertEquals(30, hysteresis.update(30, 100));
+  }
+
+  @Test
+  public void update_lowerCapAppliesAfterHoldingTwoSeconds() {
+    FrameRateGovernor.FrameRateHysteresis hysteresis = new FrameRateGovernor.FrameRateHysteresis();
+    hysteresis.update(30, 0);
+
+    assertEquals(30, hysteresis.update(10, 1000));
+    assertEquals(30, hysteresis.update(10, 2999));
+    assertEquals(10, hysteresis.update(10, 3000));
+  }
+
+  @Test
+  public void update_lowerCapRestartsHoldWhenInterrupted() {
+    FrameRateGovernor.FrameRateHysteresis hysteresis = new FrameRateGovernor.FrameRateHysteresis();
+    hysteresis.update(30, 0);
+    hysteresis.update(10, 1000);
+
+    assertEquals(30, hysteresis.update(30, 2000));
+    assertEquals(30, hysteresis.update(10, 2500));
+    assertEquals(30, hysteresis.update(10, 4000));
+    assertEquals(10, hysteresis.update(10, 4500));
+  }
+
+  @Test
+  public void reset_appliesNextCapImmediately() {
+    FrameRateGovernor.FrameRateHysteresis hysteresis = new FrameRateGovernor.FrameRateHysteresis();
+    hysteresis.update(30, 0);
+
+    hysteresis.reset();
+
+    assertEquals(10, hysteresis.update(10, 100));
+  }
+}
@@ -0,0 +1,181 @@
+package com.mapbox.services.android.navigation.ui.v5.map;
+
+import com.mapbox.geojson.Feature;
+import com.mapbox.geojson.LineString;
+import com.mapbox.geojson.MultiLineString;
+import com.mapbox.geojson.Point;
+import com.mapbox.services.android.navigation.ui.v5.route.RouteGeometry;
+import com.mapbox.services.android.navigation.ui.v5.route.RouteGeometryFixtures;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WaynameFeatureFilterTest {
+
+  private static final double ORIGIN_LONGITUDE = 13.4;
+  private static final double ORIGIN_LATITUDE = 52.5;
+  private static final double METERS_PER_DEGREE = 111319.49d;
+  private static final double ARC_RADIUS = 300d;
+  private static final int REPLAYED_FIXES = 50;
+  private static final int WARM_UP_ROUNDS = 10;
+  private static final int TIMED_ROUNDS = 10;
+
+  @Test
+  public void filterFeatures_picksRoadAlongStraightStep() {
+    List<Point> step = Arrays.asList(point(-200, 0), point(200, 0));
+    List<Feature> roads = Arrays.asList(
+      road("crossing", point(0, -150), point(0, 150)),
+      road("along", point(-150, 2), point(150, 2))
+    );
+
+    assertSameFeature("along", roads, point(0, 1), step);
+  }
+
+  @Test
+  public void filterFeatures_picksForkFollowingStep() {
+    List<Point> step = Arrays.asList(point(-100, -100), point(100, 100));
+    List<Feature> roads = Arrays.asList(
+      road("east", point(0, 0), point(150, 0)),
+      road("northeast", point(-90, -89), point(90, 91))
+    );
+
+    assertSameFeature("northeast", roads, point(0.5, -0.5), step);
+  }
+
+  @Test
+  public void filterFeatures_measuresEveryLineOfMultiLineString() {
+    List<Point> step = Arrays.asList(point(-200, 0), point(200, 0));
+    MultiLineString multiLineString = MultiLineString.fromLineStrings(Arrays.asList(
+      LineString.fromLngLats(Arrays.asList(point(-150, 400), point(150, 400))),
+      LineString.fromLngLats(Arrays.asList(point(-150, -2), point(150, -2)))
+    ));
+    List<Feature> roads = Arrays.asList(
+      road("crossing", point(0, -150), point(0, 150)),
+      Feature.fromGeometry(multiLineString, null, "multi")
+    );
+
+    assertSameFeature("multi", roads, point(0, 1), step);
+  }
+
+  @Test
+  public void filterFeatures_picksRoadSplitAcrossTiles() {
+    List<Point> step = Arrays.asList(point(-200, 0), point(200, 0));
+    List<Feature> roads = Arrays.asList(
+      road("crossing", point(0, -150), point(0, 150)),
+      road("along", point(-150, 2), point(5, 2)),
+      road("along", point(5, 2), point(150, 2))
+    );
+
+    assertSameFeature("along", roads, point(0, 1), step);
+  }
+
+  @Test
+  public void filterFeatures_agreesWithSlicingFilterOverReplayedFixes() {
+    List<Point> step = buildArc(ARC_RADIUS);
+    Feature mainRoad = Feature.fromGeometry(LineString.fromLngLats(step), null, "main");
+    List<Point> parallelRoad = buildArc(ARC_RADIUS + 25);
+
+    for (int fix = 1; fix <= REPLAYED_FIXES; fix++) {
+      double angle = Math.toRadians(90d * fix / (REPLAYED_FIXES + 1));
+      List<Feature> roads = Arrays.asList(
+        road("crossing", pointOnArc(ARC_RADIUS - 100, angle), pointOnArc(ARC_RADIUS + 100, angle)),
+        Feature.fromGeometry(LineString.fromLngLats(parallelRoad), null, "parallel"),
+        mainRoad
+      );
+
+      assertSameFeature("main", roads, pointOnArc(ARC_RADIUS, angle), step);
+    }
+  }
+
+  @Test
+  public void filterFeatures_replaysFixesFasterThanSlicingFilter() {
+    List<Point> step = buildArc(ARC_RADIUS);
+    RouteGeometry stepGeometry = RouteGeometryFixtures.fromPoints(step);
+    List<List<Feature>> queries = new ArrayList<>();
+    List<Point> fixes = new ArrayList<>();
+    for (int fix = 1; fix <= REPLAYED_FIXES; fix++) {
+      double angle = Math.toRadians(90d * fix / (REPLAYED_FIXES + 1));
+      queries.add(Arrays.asList(
+        road("crossing", pointOnArc(ARC_RADIUS - 100, angle), pointOnArc(ARC_RADIUS + 100, angle)),
+        Feature.fromGeometry(LineString.fromLngLats(buildArc(ARC_RADIUS + 25)), null, "outer"),
+        Feature.fromGeometry(LineString.fromLngLats(buildArc(ARC_RADIUS - 25)), null, "inner"),
+        Feature.fromGeometry(LineString.fromLngLats(step), null, "main")
+      ));
+      fixes.add(pointOnArc(ARC_RADIUS, angle));
+    }
+
+    for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+      replayPackedFilter(queries, fixes, stepGeometry);
+      replaySlicingFilter(queries, fixes, step);
+    }
+    long packedNanos = 0;
+    long slicingNanos = 0;
+    for (int round = 0; round < TIMED_ROUNDS; round++) {
+      long start = System.nanoTime();
+      replayPackedFilter(queries, fixes, stepGeometry);
+      long middle = System.nanoTime();
+      replaySlicingFilter(queries, fixes, step);
+      packedNanos += middle - start;
+      slicingNanos += System.nanoTime() - middle;
+    }
+
+    assertTrue("Packed filter took " + packedNanos + " ns, slicing filter " + slicingNanos + " ns",
+      packedNanos < slicingNanos);
+  }
+
+  private static void replayPackedFilter(List<List<Feature>> queries, List<Point> fixes,
+                                         RouteGeometry stepGeometry) {
+    for (int i = 0; i < fixes.size(); i++) {
+      Point fix = fixes.get(i);
+      new WaynameFeatureFilter(queries.get(i), fix.longitude(), fix.latitude(), stepGeometry).filterFeatures();
+    }
+  }
+
+  private static void replaySlicingFilter(List<List<Feature>> queries, List<Point> fixes, List<Point> step) {
+    for (int i = 0; i < fixes.size(); i++) {
+      new SlicingWaynameFeatureFilter(queries.get(i), fixes.get(i), step).filterFeatures();
+    }
+  }
+
+  private static List<Point> buildArc(double radius) {
+    List<Point> arc = new ArrayList<>();
+    for (int degrees = 0; degrees <= 90; degrees += 3) {
+      arc.add(pointOnArc(radius, Math.toRadians(degrees)));
+    }
+    return arc;
+  }
+
+  private static void assertSameFeature(String expectedId, List<Feature> roads, Point current, List<Point> step) {
+    RouteGeometry stepGeometry = RouteGeometryFixtures.fromPoints(step);
+    WaynameFeatureFilter filter = new WaynameFeatureFilter(roads, current.longitude(), current.latitude(),
+      stepGeometry);
+    SlicingWaynameFeatureFilter slicingFilter = new SlicingWaynameFeatureFilter(roads, current, step);
+
+    String slicingId = slicingFilter.filterFeatures().id();
+    assertEquals(expectedId, slicingId);
+    assertEquals(slicingId, filter.filterFeatures().id());
+  }
+
+  private static Feature road(String id, Point... points) {
+    return Feature.fromGeometry(LineString.fromLngLats(Arrays.asList(points)), null, id);
+  }
+
+  private static Point pointOnArc(double radius, double angle) {
+    return point(radius * Math.cos(angle), radius * Math.sin(angle));
+  }
+
+  /**
+   * @return the point at the given offset in meters from the origin
+   */
+  private static Point point(double eastMeters, double northMeters) {
+    double longitudeScale = METERS_PER_DEGREE * Math.cos(Math.toRadians(ORIGIN_LATITUDE));
+    return Point.fromLngLat(ORIGIN_LONGITUDE + eastMeters / longitudeScale,
+      ORIGIN_LATITUDE + northMeters / METERS_PER_DEGREE);
+  }
+}
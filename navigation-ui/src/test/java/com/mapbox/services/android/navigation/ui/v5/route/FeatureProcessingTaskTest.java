@@ -0,0 +1,190 @@
+package com.mapbox.services.android.navigation.ui.v5.route;
+
+import com.mapbox.api.directions.v5.models.DirectionsRoute;
+import com.mapbox.api.directions.v5.models.LegAnnotation;
+import com.mapbox.api.directions.v5.models.RouteLeg;
+import com.mapbox.core.constants.Constants;
+import com.mapbox.geojson.Feature;
+import com.mapbox.geojson.FeatureCollection;
+import com.mapbox.geojson.LineString;
+import com.mapbox.geojson.Point;
+import com.mapbox.geojson.utils.PolylineUtils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static com.mapbox.services.android.navigation.ui.v5.route.RouteConstants.ROUTE_INDEX_PROPERTY_KEY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FeatureProcessingTaskTest {
+
+  private static final String LOW = "low";
+  private static final String MODERATE = "moderate";
+  private static final String HEAVY = "heavy";
+  private static final int ROUTE_INDEX = 1;
+
+  @Test
+  public void buildCongestionFeaturesFromRoute_mergesRunsWithinEachLeg() {
+    RouteGeometry routeGeometry = buildGeometry(9);
+    DirectionsRoute route = buildRoute(
+      Arrays.asList(LOW, LOW, HEAVY, HEAVY),
+      Arrays.asList(HEAVY, MODERATE, MODERATE, MODERATE)
+    );
+
+    List<Feature> features = buildCongestionFeatures(route, routeGeometry);
+
+    assertEquals(4, features.size());
+    assertRun(features.get(0), LOW, routeGeometry, 0, 2);
+    assertRun(features.get(1), HEAVY, routeGeometry, 2, 4);
+    assertRun(features.get(2), HEAVY, routeGeometry, 4, 5);
+    assertRun(features.get(3), MODERATE, routeGeometry, 5, 8);
+  }
+
+  @Test
+  public void buildCongestionFeaturesFromRoute_offsetsSecondLegByFirstLegPairs() {
+    RouteGeometry routeGeometry = buildGeometry(7);
+    DirectionsRoute route = buildRoute(
+      Arrays.asList(LOW, LOW),
+      Arrays.asList(MODERATE, MODERATE, MODERATE, MODERATE)
+    );
+
+    List<Feature> features = buildCongestionFeatures(route, routeGeometry);
+
+    assertEquals(2, features.size());
+    assertRun(features.get(0), LOW, routeGeometry, 0, 2);
+    assertRun(features.get(1), MODERATE, routeGeometry, 2, 6);
+  }
+
+  @Test
+  public void buildCongestionFeaturesFromRoute_tagsRunsWithRouteIndex() {
+    RouteGeometry routeGeometry = buildGeometry(5);
+    DirectionsRoute route = buildRoute(Arrays.asList(LOW, HEAVY), Arrays.asList(LOW, HEAVY));
+
+    List<Feature> features = buildCongestionFeatures(route, routeGeometry);
+
+    for (Feature feature : features) {
+      assertEquals(ROUTE_INDEX, feature.getNumberProperty(ROUTE_INDEX_PROPERTY_KEY).intValue());
+    }
+  }
+
+  @Test
+  public void buildCongestionFeaturesFromRoute_coversSameCoordinatesAsPerPairFeatures() {
+    RouteGeometry routeGeometry = buildGeometry(2001);
+    DirectionsRoute route = buildRoute(buildCongestion(1000, 0), buildCongestion(1000, 7));
+
+    List<Feature> runs = buildCongestionFeatures(route, routeGeometry);
+    List<Feature> pairs = PerPairCongestionFeatures.build(route, routeGeometry);
+
+    int pairIndex = 0;
+    for (Feature run : runs) {
+      List<Point> runPoints = ((LineString) run.geometry()).coordinates();
+      for (int i = 0; i < runPoints.size() - 1; i++) {
+        Feature pair = pairs.get(pairIndex++);
+        assertEquals(run.getStringProperty(RouteConstants.CONGESTION_KEY),
+          pair.getStringProperty(RouteConstants.CONGESTION_KEY));
+        assertEquals(runPoints.subList(i, i + 2), ((LineString) pair.geometry()).coordinates());
+      }
+    }
+    assertEquals(pairs.size(), pairIndex);
+    assertEquals(2000, pairs.size());
+    assertTrue("Expected far fewer run features than pair features, was " + runs.size(),
+      runs.size() * 10 <= pairs.size());
+  }
+
+  @Test
+  public void doInBackground_keepsIndicesAlignedForRouteWithoutGeometry() {
+    List<Point> points = Arrays.asList(Point.fromLngLat(13.4, 52.5), Point.fromLngLat(13.41, 52.5));
+    DirectionsRoute routeWithoutGeometry = DirectionsRoute.builder().build();
+    DirectionsRoute route = DirectionsRoute.builder()
+      .geometry(PolylineUtils.encode(points, Constants.PRECISION_6))
+      .legs(Collections.singletonList(RouteLeg.builder().build()))
+      .build();
+    CapturingCallback callback = new CapturingCallback();
+    FeatureProcessingTask task = new FeatureProcessingTask(Arrays.asList(routeWithoutGeometry, route), true,
+      callback);
+
+    task.doInBackground();
+    task.onPostExecute(null);
+
+    assertEquals(2, callback.routeSegmentIndices.size());
+    assertEquals(2, callback.routeGradients.size());
+    assertEquals(Double.POSITIVE_INFINITY, callback.routeSegmentIndices.get(0).distanceTo(13.405, 52.5), 0);
+    assertEquals(0, callback.routeSegmentIndices.get(1).distanceTo(13.405, 52.5), 1e-6);
+    assertEquals(1, callback.routeLineStrings.size());
+    for (FeatureCollection featureCollection : callback.levelFeatureCollections) {
+      for (Feature feature : featureCollection.features()) {
+        assertEquals(1, feature.getNumberProperty(ROUTE_INDEX_PROPERTY_KEY).intValue());
+      }
+    }
+  }
+
+  private static List<Feature> buildCongestionFeatures(DirectionsRoute route, RouteGeometry routeGeometry) {
+    FeatureProcessingTask task = new FeatureProcessingTask(Collections.singletonList(route), false, null);
+    return task.buildCongestionFeaturesFromRoute(route, routeGeometry, routeGeometry.toLineString(), null,
+      ROUTE_INDEX);
+  }
+
+  private static void assertRun(Feature feature, String congestion, RouteGeometry routeGeometry,
+                                int fromIndex, int toIndex) {
+    assertEquals(congestion, feature.getStringProperty(RouteConstants.CONGESTION_KEY));
+    assertEquals(routeGeometry.points(fromIndex, toIndex), ((LineString) feature.geometry()).coordinates());
+  }
+
+  private static RouteGeometry buildGeometry(int size) {
+    List<Point> points = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      points.add(Point.fromLngLat(13.4 + i * 0.0005, 52.5 + (i % 2) * 0.0001));
+    }
+    return RouteGeometryFixtures.fromPoints(points);
+  }
+
+  /**
+   * Cycles through the congestion levels, changing every 20 coordinate pairs, like a city route.
+   */
+  private static List<String> buildCongestion(int size, int shift) {
+    List<String> levels = Arrays.asList(LOW, MODERATE, HEAVY);
+    List<String> congestion = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      congestion.add(levels.get(((i + shift) / 20) % levels.size()));
+    }
+    return congestion;
+  }
+
+  @SafeVarargs
+  private static DirectionsRoute buildRoute(List<String>... legCongestion) {
+    List<RouteLeg> legs = new ArrayList<>();
+    for (List<String> congestion : legCongestion) {
+      legs.add(RouteLeg.builder()
+        .annotation(LegAnnotation.builder().congestion(congestion).build())
+        .build());
+    }
+    return DirectionsRoute.builder()
+      .legs(legs)
+      .build();
+  }
+
+  private static class CapturingCallback implements OnRouteFeaturesProcessedCallback {
+
+    private List<FeatureCollection> levelFeatureCollections;
+    private HashMap<LineString, DirectionsRoute> routeLineStrings;
+    private List<RouteCongestionGradient> routeGradients;
+    private List<RouteSegmentIndex> routeSegmentIndices;
+
+    @Override
+    public void onRouteFeaturesProcessed(List<FeatureCollection> levelFeatureCollections,
+                                         HashMap<LineString, DirectionsRoute> routeLineStrings,
+                                         List<RouteCongestionGradient> routeGradients,
+                                         List<RouteSegmentIndex> routeSegmentIndices) {
+      this.levelFeatureCollections = levelFeatureCollections;
+      this.routeLineStrings = routeLineStrings;
+      this.routeGradients = routeGradients;
+      this.routeSegmentIndices = routeSegmentIndices;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package com.mapbox.services.android.navigation.ui.v5.route;
+
+import com.mapbox.api.directions.v5.models.DirectionsRoute;
+import com.mapbox.api.directions.v5.models.RouteLeg;
+import com.mapbox.geojson.Feature;
+import com.mapbox.geojson.LineString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Congestion features as they were built before {@link FeatureProcessingTask} merged them into
+ * runs, one feature per coordinate pair. Kept as the reference the runs are checked against.
+ */
+class PerPairCongestionFeatures {
+
+  private PerPairCongestionFeatures() {
+  }
+
+  static List<Feature> build(DirectionsRoute route, RouteGeometry routeGeometry) {
+    List<Feature> features = new ArrayList<>();
+    int legOffset = 0;
+    for (RouteLeg leg : route.legs()) {
+      List<String> congestion = leg.annotation().congestion();
+      for (int i = 0; i < congestion.size(); i++) {
+        int index = legOffset + i;
+        Feature feature = Feature.fromGeometry(LineString.fromLngLats(routeGeometry.points(index, index + 1)));
+        feature.addStringProperty(RouteConstants.CONGESTION_KEY, congestion.get(i));
+        features.add(feature);
+      }
+      legOffset += congestion.size();
+    }
+    return features;
+  }
+}
@@ -0,0 +1,23 @@
+package com.mapbox.services.android.navigation.ui.v5.route;
+
+import com.mapbox.geojson.Point;
+
+import java.util.List;
+
+/**
+ * Builds {@link RouteGeometry} instances for tests outside of the route package.
+ */
+public final class RouteGeometryFixtures {
+
+  private RouteGeometryFixtures() {
+  }
+
+  public static RouteGeometry fromPoints(List<Point> points) {
+    double[] coordinates = new double[points.size() * 2];
+    for (int i = 0; i < points.size(); i++) {
+      coordinates[i * 2] = points.get(i).longitude();
+      coordinates[i * 2 + 1] = points.get(i).latitude();
+    }
+    return new RouteGeometry(coordinates);
+  }
+}